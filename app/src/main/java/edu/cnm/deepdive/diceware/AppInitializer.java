@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware;
+
+import android.util.Log;
+import edu.cnm.deepdive.diceware.generator.PassphraseGenerator;
+import edu.cnm.deepdive.diceware.generator.WordLists;
+import edu.cnm.deepdive.diceware.model.InternedWords;
+import edu.cnm.deepdive.diceware.service.DicewareDatabase;
+import edu.cnm.deepdive.diceware.service.GoogleSignInService;
+import edu.cnm.deepdive.diceware.service.HttpTransport;
+import edu.cnm.deepdive.diceware.service.PassphraseRepository;
+import edu.cnm.deepdive.diceware.service.TokenManager;
+import io.reactivex.Completable;
+import io.reactivex.functions.Action;
+import io.reactivex.schedulers.Schedulers;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class implementing the singleton pattern, constructing (pre-warming) the app's heavyweight
+ * singletons on background threads, in dependency order, so that they aren't first constructed on
+ * the main thread. Initialization is started by {@link DicewareApplication}; consumers can await
+ * the readiness of specific components with {@link #whenReady(Component...)}. Pre-warming is
+ * best-effort: a component that fails to initialize is reported as ready, so that the failure
+ * surfaces (again) where the component is actually used.
+ */
+public class AppInitializer {
+
+  private final Map<Component, Completable> components;
+
+  private AppInitializer() {
+    components = new EnumMap<>(Component.class);
+    warm(Component.SIGN_IN, GoogleSignInService::getInstance);
+    warm(Component.TOKENS, TokenManager::getInstance, Component.SIGN_IN);
+    warm(Component.TRANSPORT, HttpTransport::getInstance);
+    warm(Component.DATABASE,
+        () -> DicewareDatabase.getInstance().getOpenHelper().getWritableDatabase());
+    warm(Component.WORD_INDEX, () ->
+        InternedWords.setDictionary(WordLists.getInstance().getIndex(WordLists.EFF_LARGE)));
+    warm(Component.REPOSITORY, PassphraseRepository::getInstance,
+        Component.TRANSPORT, Component.DATABASE, Component.WORD_INDEX);
+    warm(Component.GENERATOR, PassphraseGenerator::getInstance, Component.WORD_INDEX);
+  }
+
+  /**
+   * Returns the singleton instance of this class.
+   */
+  public static AppInitializer getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Starts initialization of all components, if not already started.
+   */
+  public void start() {
+    whenReady().subscribe();
+  }
+
+  /**
+   * Returns a {@link Completable} that completes when the specified components (or all components,
+   * if none are specified) are ready, starting their initialization if necessary. Completion may be
+   * signalled on a background thread.
+   *
+   * @param components components to await.
+   * @return readiness of {@code components}.
+   */
+  public Completable whenReady(Component... components) {
+    return readiness((components.length > 0) ? components : Component.values());
+  }
+
+  private Completable readiness(Component[] components) {
+    List<Completable> sources = new ArrayList<>(components.length);
+    for (Component component : components) {
+      sources.add(this.components.get(component));
+    }
+    return Completable.merge(sources);
+  }
+
+  private void warm(Component component, Action action, Component... dependencies) {
+    components.put(component,
+        readiness(dependencies)
+            .andThen(Completable.fromAction(action))
+            .subscribeOn(Schedulers.io())
+            .doOnError((throwable) -> Log.w(getClass().getSimpleName(),
+                "Unable to initialize " + component, throwable))
+            .onErrorComplete()
+            .cache());
+  }
+
+  /**
+   * Components initialized by {@link AppInitializer}.
+   */
+  public enum Component {
+    /** Google Sign In client ({@link GoogleSignInService}). */
+    SIGN_IN,
+    /** ID token cache ({@link TokenManager}); depends on {@link #SIGN_IN}. */
+    TOKENS,
+    /** HTTP client and cache ({@link HttpTransport}). */
+    TRANSPORT,
+    /** Local passphrase store ({@link DicewareDatabase}), opened (and created, if necessary). */
+    DATABASE,
+    /**
+     * Word list, and the index over it used by the compact wire encoding and to intern passphrase
+     * words ({@link InternedWords}).
+     */
+    WORD_INDEX,
+    /**
+     * Retrofit service and {@link PassphraseRepository}; depends on {@link #TRANSPORT}, {@link
+     * #DATABASE}, and {@link #WORD_INDEX}.
+     */
+    REPOSITORY,
+    /** {@link PassphraseGenerator}, with its dice roller; depends on {@link #WORD_INDEX}. */
+    GENERATOR
+  }
+
+  private static class InstanceHolder {
+
+    private static final AppInitializer INSTANCE = new AppInitializer();
+
+  }
+
+}
@@ -16,7 +16,14 @@
 package edu.cnm.deepdive.diceware;
 
 import android.app.Application;
+import edu.cnm.deepdive.diceware.controller.StartupTrace;
+import edu.cnm.deepdive.diceware.generator.WordLists;
+import edu.cnm.deepdive.diceware.service.DicewareDatabase;
 import edu.cnm.deepdive.diceware.service.GoogleSignInService;
+import edu.cnm.deepdive.diceware.service.HttpTransport;
+import edu.cnm.deepdive.diceware.service.MutationOutbox;
+import edu.cnm.deepdive.diceware.service.PassphraseRepository;
+import edu.cnm.deepdive.diceware.service.TokenManager;
 
 /**
  * Class containing main (non-UI) entry point for this app.
@@ -24,12 +31,24 @@ import edu.cnm.deepdive.diceware.service.GoogleSignInService;
 public class DicewareApplication extends Application {
 
   /**
-   * Initializes the app by passing this instance (as the context) to {@link GoogleSignInService}.
+   * Records the launch time with {@link StartupTrace}, and initializes the app by passing this
+   * instance (as the context) to {@link GoogleSignInService}, {@link TokenManager}, {@link
+   * DicewareDatabase}, {@link HttpTransport}, {@link MutationOutbox}, {@link PassphraseRepository},
+   * and {@link WordLists}, then starting background initialization of those components with {@link
+   * AppInitializer}.
    */
   @Override
   public void onCreate() {
+    StartupTrace.getInstance().markLaunch();
     super.onCreate();
     GoogleSignInService.setApplicationContext(this);
+    TokenManager.setApplicationContext(this);
+    DicewareDatabase.setApplicationContext(this);
+    HttpTransport.setApplicationContext(this);
+    MutationOutbox.setApplicationContext(this);
+    PassphraseRepository.setApplicationContext(this);
+    WordLists.setApplicationContext(this);
+    AppInitializer.getInstance().start();
   }
 
 }
@@ -0,0 +1,184 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.controller;
+
+import android.os.Bundle;
+import android.view.View;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
+import androidx.appcompat.app.AlertDialog.Builder;
+import androidx.fragment.app.DialogFragment;
+import androidx.fragment.app.FragmentManager;
+import androidx.lifecycle.ViewModelProviders;
+import edu.cnm.deepdive.diceware.R;
+import edu.cnm.deepdive.diceware.service.BulkGenerator;
+import edu.cnm.deepdive.diceware.service.BulkGenerator.Failure;
+import edu.cnm.deepdive.diceware.service.BulkGenerator.Progress;
+import edu.cnm.deepdive.diceware.viewmodel.MainViewModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Alert dialog (modal) user interface component for generating passphrases in bulk (e.g. one per
+ * new device or employee): the user chooses the number of passphrases, the number of words in each,
+ * and a pattern for their keys. The passphrases are generated and uploaded via the host activity's
+ * {@link MainViewModel}, while the dialog shows progress, throughput, and the keys of any
+ * passphrases that couldn't be uploaded.
+ */
+public class BulkGenerateFragment extends DialogFragment {
+
+  private static final int MAX_COUNT = 10_000;
+  private static final int MAX_LENGTH = 20;
+  private static final int MAX_FAILURES_SHOWN = 5;
+  private static final String STARTED_KEY = "started";
+
+  private MainViewModel viewModel;
+  private EditText count;
+  private EditText length;
+  private EditText keyPattern;
+  private ProgressBar progressBar;
+  private TextView status;
+  private boolean started;
+
+  /**
+   * Creates and returns an instance of {@link BulkGenerateFragment}.
+   *
+   * @return {@link BulkGenerateFragment} for display.
+   */
+  public static BulkGenerateFragment newInstance() {
+    return new BulkGenerateFragment();
+  }
+
+  /**
+   * Constructs and returns an {@link AlertDialog} containing controls for the parameters of a bulk
+   * generation, and for its progress. This method is invoked implicitly by {@link
+   * DialogFragment#show(FragmentManager, String)}.
+   *
+   * @param savedInstanceState state data saved prior to a configuration change.
+   * @return dialog for modal interaction.
+   */
+  @NonNull
+  @Override
+  public AlertDialog onCreateDialog(@Nullable Bundle savedInstanceState) {
+    View view = getActivity().getLayoutInflater().inflate(R.layout.fragment_bulk_generate, null);
+    count = view.findViewById(R.id.bulk_count);
+    length = view.findViewById(R.id.bulk_length);
+    keyPattern = view.findViewById(R.id.bulk_key_pattern);
+    progressBar = view.findViewById(R.id.bulk_progress);
+    status = view.findViewById(R.id.bulk_status);
+    started = savedInstanceState != null && savedInstanceState.getBoolean(STARTED_KEY);
+    viewModel = ViewModelProviders.of(getActivity()).get(MainViewModel.class);
+    AlertDialog alert = new Builder(getContext())
+        .setTitle(getString(R.string.bulk_generate))
+        .setView(view)
+        .setNegativeButton(getString(R.string.cancel),
+            (dialog, button) -> viewModel.cancelBulkGeneration())
+        .setPositiveButton(getString(R.string.generate), null)
+        .create();
+    alert.setOnShowListener((dialog) -> {
+      // Replaces the default listener, so that the dialog stays open to show progress.
+      alert.getButton(AlertDialog.BUTTON_POSITIVE).setOnClickListener((button) -> {
+        if (started) {
+          dismiss();
+        } else {
+          start();
+        }
+      });
+      viewModel.getBulkProgress().observe(this, this::showProgress);
+    });
+    return alert;
+  }
+
+  /**
+   * Records whether a bulk generation has been started from this dialog, so that its progress is
+   * shown again after a configuration change.
+   *
+   * @param outState destination of saved state.
+   */
+  @Override
+  public void onSaveInstanceState(@NonNull Bundle outState) {
+    super.onSaveInstanceState(outState);
+    outState.putBoolean(STARTED_KEY, started);
+  }
+
+  private void start() {
+    int count = parse(this.count, MAX_COUNT);
+    int length = parse(this.length, MAX_LENGTH);
+    String pattern = keyPattern.getText().toString().trim();
+    if (count > 0 && length > 0 && !pattern.isEmpty()) {
+      started = true;
+      setInputEnabled(false);
+      ((AlertDialog) getDialog()).getButton(AlertDialog.BUTTON_POSITIVE).setEnabled(false);
+      viewModel.generatePassphrases(count, length, pattern, BulkGenerator.MAX_CONCURRENCY);
+    }
+  }
+
+  private int parse(EditText field, int max) {
+    int value;
+    try {
+      value = Integer.parseInt(field.getText().toString().trim());
+    } catch (NumberFormatException e) {
+      value = 0;
+    }
+    if (value < 1 || value > max) {
+      field.setError(getString(R.string.bulk_range, max));
+      value = 0;
+    }
+    return value;
+  }
+
+  private void showProgress(Progress progress) {
+    if (!started || progress == null) {
+      return;
+    }
+    setInputEnabled(false);
+    progressBar.setVisibility(View.VISIBLE);
+    progressBar.setMax(progress.getTotal());
+    progressBar.setProgress(progress.getCompleted());
+    StringBuilder text = new StringBuilder(getString(R.string.bulk_status,
+        progress.getSucceeded(), progress.getTotal(), progress.getFailed(),
+        progress.getThroughput()));
+    List<Failure> failures = progress.getFailures();
+    if (!failures.isEmpty()) {
+      List<String> keys = new ArrayList<>();
+      for (Failure failure : failures.subList(0, Math.min(failures.size(), MAX_FAILURES_SHOWN))) {
+        keys.add(failure.getKey());
+      }
+      if (failures.size() > MAX_FAILURES_SHOWN) {
+        keys.add("\u2026");
+      }
+      text.append('\n').append(getString(R.string.bulk_failures, keys.toString()
+          .replaceAll("^\\[|\\]$", "")));
+    }
+    status.setText(text);
+    status.setVisibility(View.VISIBLE);
+    Button positive = ((AlertDialog) getDialog()).getButton(AlertDialog.BUTTON_POSITIVE);
+    positive.setText(progress.isComplete() ? R.string.done : R.string.generate);
+    positive.setEnabled(progress.isComplete());
+  }
+
+  private void setInputEnabled(boolean enabled) {
+    count.setEnabled(enabled);
+    length.setEnabled(enabled);
+    keyPattern.setEnabled(enabled);
+  }
+
+}
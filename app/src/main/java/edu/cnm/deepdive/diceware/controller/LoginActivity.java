@@ -20,8 +20,12 @@ import android.os.Bundle;
 import android.widget.Toast;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
+import edu.cnm.deepdive.diceware.AppInitializer;
+import edu.cnm.deepdive.diceware.AppInitializer.Component;
 import edu.cnm.deepdive.diceware.R;
 import edu.cnm.deepdive.diceware.service.GoogleSignInService;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.CompositeDisposable;
 
 /**
  * Simple {@link AppCompatActivity} subclass, displaying a button for&mdash;and transferring control
@@ -31,10 +35,18 @@ public class LoginActivity extends AppCompatActivity {
 
   private static final int LOGIN_REQUEST_CODE = 1000;
 
+  private final CompositeDisposable pending = new CompositeDisposable();
+
+  private AppInitializer initializer;
   private GoogleSignInService service;
 
   /**
-   * Attempts to refresh most recently logged-in account, switching to {@link MainActivity} if
+   * Waits (without blocking the main thread) for {@link GoogleSignInService} to be initialized by
+   * {@link AppInitializer}. Then, switches immediately to {@link MainActivity} if the most recently
+   * logged-in account (with an unexpired ID token) is available locally, revalidating it in the
+   * background; if revalidation shows that the user must sign in again, {@link MainActivity}
+   * returns here (transient failures, such as being offline, keep the account). Otherwise,
+   * attempts to refresh the most recently logged-in account, switching to {@link MainActivity} if
    * successful, and displaying Google Sign In button otherwise.
    *
    * @param savedInstanceState previously saved state data (ignored).
@@ -42,14 +54,39 @@ public class LoginActivity extends AppCompatActivity {
   @Override
   protected void onCreate(Bundle savedInstanceState) {
     super.onCreate(savedInstanceState);
+    initializer = AppInitializer.getInstance();
+    pending.add(
+        initializer.whenReady(Component.SIGN_IN)
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(this::signIn)
+    );
+  }
+
+  /**
+   * Disposes of any pending waits for initialization.
+   */
+  @Override
+  protected void onDestroy() {
+    pending.dispose();
+    super.onDestroy();
+  }
+
+  private void signIn() {
     service = GoogleSignInService.getInstance();
-    service.refresh()
-        .addOnSuccessListener((account) -> switchToMain())
-        .addOnFailureListener((ex) -> {
-          setContentView(R.layout.activity_login);
-          findViewById(R.id.sign_in).setOnClickListener((view) ->
-              service.startSignIn(this, LOGIN_REQUEST_CODE));
-        });
+    boolean restored = service.restoreLastAccount();
+    StartupTrace.getInstance().setFastPath(restored);
+    if (restored) {
+      service.refresh();
+      switchToMain();
+    } else {
+      service.refresh()
+          .addOnSuccessListener((account) -> switchToMain())
+          .addOnFailureListener((ex) -> {
+            setContentView(R.layout.activity_login);
+            findViewById(R.id.sign_in).setOnClickListener((view) ->
+                service.startSignIn(this, LOGIN_REQUEST_CODE));
+          });
+    }
   }
 
   /**
@@ -63,7 +100,7 @@ public class LoginActivity extends AppCompatActivity {
   @Override
   protected void onActivityResult(int requestCode, int resultCode, @Nullable Intent data) {
     if (requestCode == LOGIN_REQUEST_CODE) {
-     service.completeSignIn(data)
+     GoogleSignInService.getInstance().completeSignIn(data)
         .addOnSuccessListener((account) -> switchToMain())
         .addOnFailureListener((ex) ->
             Toast.makeText(this, R.string.login_failure_message, Toast.LENGTH_LONG).show());
@@ -73,9 +110,17 @@ public class LoginActivity extends AppCompatActivity {
   }
 
   private void switchToMain() {
-    Intent intent = new Intent(this, MainActivity.class);
-    intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TASK | Intent.FLAG_ACTIVITY_NEW_TASK);
-    startActivity(intent);
+    // Wait for the components MainActivity needs to render the list, so that it doesn't construct
+    // them itself; the generator isn't needed until a passphrase is generated.
+    pending.add(
+        initializer.whenReady(Component.SIGN_IN, Component.DATABASE, Component.REPOSITORY)
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(() -> {
+              Intent intent = new Intent(this, MainActivity.class);
+              intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TASK | Intent.FLAG_ACTIVITY_NEW_TASK);
+              startActivity(intent);
+            })
+    );
   }
 
 }
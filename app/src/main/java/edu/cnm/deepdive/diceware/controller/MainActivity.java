@@ -17,16 +17,24 @@ package edu.cnm.deepdive.diceware.controller;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
+import android.view.ViewTreeObserver.OnPreDrawListener;
 import android.widget.ProgressBar;
 import android.widget.Toast;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.view.ActionMode;
+import androidx.appcompat.widget.SearchView;
+import androidx.appcompat.widget.SearchView.OnQueryTextListener;
 import androidx.appcompat.widget.Toolbar;
 import androidx.lifecycle.ViewModelProviders;
+import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
+import edu.cnm.deepdive.diceware.BuildConfig;
 import edu.cnm.deepdive.diceware.R;
 import edu.cnm.deepdive.diceware.controller.PassphraseFragment.OnCompleteListener;
 import edu.cnm.deepdive.diceware.model.Passphrase;
@@ -39,15 +47,21 @@ import java.util.List;
 
 /**
  * Main user interface for accessing a passphrase storage service, providing creation (including
- * random generation using a diceware word list), listing, updating, and deletion of passphrases.
+ * random generation using a diceware word list, singly or in bulk), listing, searching, updating,
+ * and deletion of passphrases.
  */
 public class MainActivity extends AppCompatActivity
     implements OnClickListener, OnContextListener, OnCompleteListener {
 
+  private static final int PREFETCH_DISTANCE = 20;
+  private static final int DETAIL_PREFETCH_DISTANCE = 5;
+
   private ProgressBar waiting;
   private RecyclerView passphraseList;
+  private PassphraseAdapter adapter;
   private MainViewModel viewModel;
   private GoogleSignInService signInService;
+  private ActionMode selectionMode;
 
   /**
    * Initializes UI, sets up observers for backing ViewModel data, and sets up an observer for
@@ -65,7 +79,7 @@ public class MainActivity extends AppCompatActivity
 
   /**
    * Inflates options (action bar and overflow) menu resource, attaching the inflated items to the
-   * specified {@link Menu}.
+   * specified {@link Menu}, and sets up the {@link SearchView} to search as the user types.
    *
    * @param menu instance to which inflated items will be attached.
    * @return {@code true}, indicating that options menu should be displayed.
@@ -73,6 +87,34 @@ public class MainActivity extends AppCompatActivity
   @Override
   public boolean onCreateOptionsMenu(Menu menu) {
     getMenuInflater().inflate(R.menu.menu_main, menu);
+    MenuItem searchItem = menu.findItem(R.id.search);
+    SearchView searchView = (SearchView) searchItem.getActionView();
+    searchView.setQueryHint(getString(R.string.search_hint));
+    searchView.setOnQueryTextListener(new OnQueryTextListener() {
+      @Override
+      public boolean onQueryTextSubmit(String query) {
+        searchView.clearFocus();
+        return true;
+      }
+
+      @Override
+      public boolean onQueryTextChange(String newText) {
+        viewModel.search(newText);
+        return true;
+      }
+    });
+    searchItem.setOnActionExpandListener(new MenuItem.OnActionExpandListener() {
+      @Override
+      public boolean onMenuItemActionExpand(MenuItem item) {
+        return true;
+      }
+
+      @Override
+      public boolean onMenuItemActionCollapse(MenuItem item) {
+        viewModel.search(null);
+        return true;
+      }
+    });
     return true;
   }
 
@@ -88,7 +130,12 @@ public class MainActivity extends AppCompatActivity
     boolean handled = true;
     switch (item.getItemId()) {
       case R.id.refresh:
-        refreshSignIn(() -> viewModel.refreshPassphrases());
+        showWaiting();
+        viewModel.refreshPassphrases();
+        break;
+      case R.id.bulk_generate:
+        BulkGenerateFragment fragment = BulkGenerateFragment.newInstance();
+        fragment.show(getSupportFragmentManager(), fragment.getClass().getSimpleName());
         break;
       case R.id.action_settings:
         break;
@@ -102,7 +149,8 @@ public class MainActivity extends AppCompatActivity
   }
 
   /**
-   * Handles click on item in list by opening {@link PassphraseFragment} edit dialog.
+   * Handles click on item in list by opening {@link PassphraseFragment} edit dialog or, while
+   * selecting passphrases, by adding the item to (or removing it from) the selection.
    *
    * @param view item in {@link RecyclerView} list.
    * @param position index of clicked item in list.
@@ -110,13 +158,18 @@ public class MainActivity extends AppCompatActivity
    */
   @Override
   public void onClick(View view, int position, Passphrase passphrase) {
-    editPassphrase(passphrase);
+    if (selectionMode != null) {
+      toggleSelection(position);
+    } else {
+      editPassphrase(passphrase);
+    }
   }
 
   /**
-   * Handles context (long) press on item in list by inflating a context menu. Currently, the only
-   * option in the context menu is <strong>Delete</strong>, which when clicked, causes deletion of
-   * the selected passphrase.
+   * Handles context (long) press on item in list by inflating a context menu, with options to
+   * <strong>Select</strong> the passphrase (starting selection of passphrases for bulk deletion or
+   * regeneration), or to <strong>Delete</strong> it. While selecting passphrases, a long press
+   * adds the item to (or removes it from) the selection instead.
    *
    * @param menu object to which inflated menu resource is attached.
    * @param position index of pressed item in list.
@@ -124,9 +177,18 @@ public class MainActivity extends AppCompatActivity
    */
   @Override
   public void onLongPress(Menu menu, int position, Passphrase passphrase) {
-    getMenuInflater().inflate(R.menu.passphrase_context, menu);
-    menu.findItem(R.id.delete_passphrase).setOnMenuItemClickListener(
-        (item) -> deletePassphrase(passphrase));
+    if (selectionMode != null) {
+      toggleSelection(position);
+    } else {
+      getMenuInflater().inflate(R.menu.passphrase_context, menu);
+      menu.findItem(R.id.select_passphrase).setOnMenuItemClickListener((item) -> {
+        selectionMode = startSupportActionMode(new SelectionCallback());
+        toggleSelection(position);
+        return true;
+      });
+      menu.findItem(R.id.delete_passphrase).setOnMenuItemClickListener(
+          (item) -> deletePassphrase(passphrase));
+    }
   }
 
   /**
@@ -137,25 +199,34 @@ public class MainActivity extends AppCompatActivity
    */
   @Override
   public void updatePassphrase(Passphrase passphrase, boolean regenerate, int length) {
-    refreshSignIn(() -> {
-      if (passphrase.getId() == 0) {
-        viewModel.addPassphrase(passphrase);
-      } else {
-        viewModel.updatePassphrase(passphrase, regenerate, length);
-      }
-    });
+    if (passphrase.getId() == 0) {
+      viewModel.addPassphrase(passphrase);
+    } else {
+      viewModel.updatePassphrase(passphrase, regenerate, length);
+    }
   }
 
   private void setupViewModel() {
     viewModel = ViewModelProviders.of(this).get(MainViewModel.class);
     getLifecycle().addObserver(viewModel);
     viewModel.getPassphrases().observe(this, this::refreshList);
+    viewModel.getSearchResults().observe(this, this::showSearchResults);
     viewModel.getThrowable().observe(this, this::showError);
+    viewModel.getQueuing().observe(this, (queuing) ->
+        waiting.setVisibility(queuing ? View.VISIBLE : View.GONE));
+    viewModel.getPendingChanges().observe(this, this::showPendingChanges);
   }
 
   private void setupSignIn() {
     signInService = GoogleSignInService.getInstance();
     signInService.getAccount().observe(this, (account) -> viewModel.setAccount(account));
+    signInService.getException().observe(this, (ex) -> {
+      if (ex != null) {
+        // The user must sign in again; keep the local cache and any changes not yet sent.
+        viewModel.resetPassphrases();
+        returnToLogin();
+      }
+    });
   }
 
   private void setupUI() {
@@ -166,12 +237,73 @@ public class MainActivity extends AppCompatActivity
     fab.setOnClickListener(view -> editPassphrase(null));
     waiting = findViewById(R.id.waiting);
     passphraseList = findViewById(R.id.keyword_list);
+    adapter = new PassphraseAdapter(this, this, this);
+    passphraseList.setAdapter(adapter);
+    passphraseList.addOnScrollListener(new RecyclerView.OnScrollListener() {
+      @Override
+      public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (dy > 0 && !isSearching() && layoutManager.findLastVisibleItemPosition()
+            >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+          viewModel.loadMorePassphrases();
+        }
+      }
+
+      @Override
+      public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+        if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+          prefetchVisibleDetails();
+        }
+      }
+    });
   }
 
   private void refreshList(List<Passphrase> passphrases) {
-    PassphraseAdapter adapter = new PassphraseAdapter(this, passphrases, this, this);
-    passphraseList.setAdapter(adapter);
+    if (!isSearching()) {
+      adapter.submitList(passphrases);
+    }
     waiting.setVisibility(View.GONE);
+    traceFirstFrame();
+    passphraseList.post(this::prefetchVisibleDetails);
+  }
+
+  private void showSearchResults(List<Passphrase> results) {
+    adapter.submitList((results != null) ? results : viewModel.getPassphrases().getValue());
+    passphraseList.post(this::prefetchVisibleDetails);
+  }
+
+  private boolean isSearching() {
+    return viewModel.getSearchResults().getValue() != null;
+  }
+
+  private void prefetchVisibleDetails() {
+    LinearLayoutManager layoutManager = (LinearLayoutManager) passphraseList.getLayoutManager();
+    List<Passphrase> items = adapter.getCurrentList();
+    int first = layoutManager.findFirstVisibleItemPosition();
+    if (first != RecyclerView.NO_POSITION && !items.isEmpty()) {
+      int start = Math.max(0, first - DETAIL_PREFETCH_DISTANCE);
+      int end = Math.min(items.size(),
+          layoutManager.findLastVisibleItemPosition() + 1 + DETAIL_PREFETCH_DISTANCE);
+      viewModel.prefetchDetails(items.subList(start, end));
+    }
+  }
+
+  private void traceFirstFrame() {
+    StartupTrace trace = StartupTrace.getInstance();
+    if (!trace.isComplete()) {
+      passphraseList.getViewTreeObserver().addOnPreDrawListener(new OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+          passphraseList.getViewTreeObserver().removeOnPreDrawListener(this);
+          if (trace.markFirstFrame() && BuildConfig.DEBUG) {
+            Log.i(getClass().getSimpleName(), String.format(
+                "First list frame %d ms after launch (%s)",
+                trace.getTimeToFirstFrame(), trace.isFastPath() ? "fast path" : "sign-in"));
+          }
+          return true;
+        }
+      });
+    }
   }
 
   private void showError(Throwable throwable) {
@@ -188,18 +320,35 @@ public class MainActivity extends AppCompatActivity
   }
 
   private boolean deletePassphrase(Passphrase passphrase) {
-    refreshSignIn(() -> viewModel.deletePassphrase(passphrase));
+    viewModel.deletePassphrase(passphrase);
     return true;
   }
 
-  private void refreshSignIn(Runnable runnable) {
+  private void toggleSelection(int position) {
+    adapter.toggleSelection(position);
+    int count = adapter.getSelectedCount();
+    if (count == 0) {
+      selectionMode.finish();
+    } else {
+      selectionMode.setTitle(getString(R.string.selected_count, count));
+    }
+  }
+
+  private void showPendingChanges(int count) {
+    getSupportActionBar().setSubtitle(
+        (count > 0) ? getString(R.string.pending_changes, count) : null);
+  }
+
+  private void showWaiting() {
     waiting.setVisibility(View.VISIBLE);
-    signInService.refresh()
-        .addOnSuccessListener((account) -> runnable.run())
-        .addOnFailureListener((e) -> signOut());
   }
 
   private void signOut() {
+    viewModel.clearPassphrases();
+    returnToLogin();
+  }
+
+  private void returnToLogin() {
     signInService.signOut()
         .addOnCompleteListener((task) -> {
           Intent intent = new Intent(this, LoginActivity.class);
@@ -208,4 +357,43 @@ public class MainActivity extends AppCompatActivity
         });
   }
 
+  private class SelectionCallback implements ActionMode.Callback {
+
+    @Override
+    public boolean onCreateActionMode(ActionMode mode, Menu menu) {
+      mode.getMenuInflater().inflate(R.menu.passphrase_selection, menu);
+      return true;
+    }
+
+    @Override
+    public boolean onPrepareActionMode(ActionMode mode, Menu menu) {
+      return false;
+    }
+
+    @Override
+    public boolean onActionItemClicked(ActionMode mode, MenuItem item) {
+      boolean handled = true;
+      switch (item.getItemId()) {
+        case R.id.delete_selected:
+          viewModel.deletePassphrases(adapter.getSelectedItems());
+          mode.finish();
+          break;
+        case R.id.regenerate_selected:
+          viewModel.regeneratePassphrases(adapter.getSelectedItems());
+          mode.finish();
+          break;
+        default:
+          handled = false;
+      }
+      return handled;
+    }
+
+    @Override
+    public void onDestroyActionMode(ActionMode mode) {
+      adapter.clearSelection();
+      selectionMode = null;
+    }
+
+  }
+
 }
@@ -16,31 +16,56 @@
 package edu.cnm.deepdive.diceware.controller;
 
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.Spanned;
+import android.text.TextWatcher;
+import android.text.style.ForegroundColorSpan;
 import android.view.View;
+import android.widget.Button;
 import android.widget.CheckBox;
 import android.widget.EditText;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AlertDialog.Builder;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.DialogFragment;
 import androidx.fragment.app.FragmentManager;
+import androidx.lifecycle.ViewModelProviders;
 import edu.cnm.deepdive.diceware.R;
+import edu.cnm.deepdive.diceware.generator.WordTrie;
 import edu.cnm.deepdive.diceware.model.Passphrase;
+import edu.cnm.deepdive.diceware.viewmodel.MainViewModel;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * Alert dialog (modal) user interface component presenting the properties (keyword and word list)
- * of a passphrase for editing.
+ * of a passphrase for editing. When an existing passphrase is passed without its words (as listed),
+ * the words are loaded via the host activity's {@link MainViewModel}; until they arrive, the words
+ * can't be edited, and the passphrase can only be saved with regenerated words. As words are
+ * typed, any not in the diceware word list are highlighted, and completions of the word being typed
+ * are offered, using a {@link WordTrie} over the list.
  *
  * @author Nicholas Bennett, Todd Nordquist, Brian Bleck, Deep Dive Coding Java + Android Cohort 8
  */
 public class PassphraseFragment extends DialogFragment {
 
+  private static final int MAX_SUGGESTIONS = 3;
+
+  private final int[] completions = new int[MAX_SUGGESTIONS];
+  private final List<ForegroundColorSpan> invalidSpans = new ArrayList<>();
+
   private Passphrase passphrase;
   private EditText passphraseKey;
   private EditText passphraseWords;
   private CheckBox regenerate;
+  private Button[] suggestions;
+  private boolean awaitingWords;
+  private WordTrie wordTrie;
+  private int typedStart;
+  private int typedEnd;
 
   /**
    * Creates and returns an instance of {@link PassphraseFragment} for editing a new passphrase.
@@ -83,6 +108,14 @@ public class PassphraseFragment extends DialogFragment {
     passphraseKey = view.findViewById(R.id.passphrase_key);
     passphraseWords = view.findViewById(R.id.passphrase_words);
     regenerate = view.findViewById(R.id.regenerate);
+    suggestions = new Button[]{
+        view.findViewById(R.id.word_suggestion_1),
+        view.findViewById(R.id.word_suggestion_2),
+        view.findViewById(R.id.word_suggestion_3)
+    };
+    for (Button suggestion : suggestions) {
+      suggestion.setOnClickListener(this::applySuggestion);
+    }
     passphrase = (Passphrase) getArguments().getSerializable("passphrase");
     if (passphrase == null) {
       passphrase = new Passphrase();
@@ -90,13 +123,41 @@ public class PassphraseFragment extends DialogFragment {
     if (savedInstanceState == null) {
       populateFields();
     }
-    return new Builder(getContext())
+    MainViewModel viewModel = ViewModelProviders.of(getActivity()).get(MainViewModel.class);
+    awaitingWords = passphrase.getId() != 0 && passphrase.getWords() == null;
+    if (awaitingWords) {
+      viewModel.getDetails().observe(this, this::applyDetails);
+      viewModel.loadDetails(passphrase.getId());
+    }
+    passphraseWords.setEnabled(!awaitingWords);
+    passphraseWords.addTextChangedListener(new TextWatcher() {
+      @Override
+      public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+      }
+
+      @Override
+      public void onTextChanged(CharSequence s, int start, int before, int count) {
+      }
+
+      @Override
+      public void afterTextChanged(Editable s) {
+        checkWords(s);
+      }
+    });
+    viewModel.getWordTrie().observe(this, (trie) -> {
+      wordTrie = trie;
+      checkWords(passphraseWords.getText());
+    });
+    regenerate.setOnCheckedChangeListener((button, checked) -> updatePositiveButton());
+    AlertDialog alert = new Builder(getContext())
         .setTitle(getString(R.string.passphrase_details))
         .setView(view)
         .setNegativeButton(getString(R.string.cancel), (dialog, button) -> {
         })
         .setPositiveButton(getString(R.string.ok), (dialog, button) -> populatePassphrase())
         .create();
+    alert.setOnShowListener((dialog) -> updatePositiveButton());
+    return alert;
   }
 
   private void populateFields() {
@@ -104,15 +165,103 @@ public class PassphraseFragment extends DialogFragment {
       passphraseKey.setText(passphrase.getKey());
     }
     if (passphrase.getWords() != null) {
-      String words = passphrase.getWords().toString();
-      passphraseWords.setText(words
-          .replaceAll("^\\[|\\]$", "")
-          .trim()
-          .replaceAll("\\s*,\\s+", " "));
+      showWords(passphrase.getWords());
     }
     regenerate.setEnabled(passphrase.getId() != 0);
   }
 
+  private void showWords(List<String> words) {
+    passphraseWords.setText(words.toString()
+        .replaceAll("^\\[|\\]$", "")
+        .trim()
+        .replaceAll("\\s*,\\s+", " "));
+  }
+
+  private void applyDetails(Passphrase details) {
+    if (awaitingWords && details != null && details.getId() == passphrase.getId()) {
+      awaitingWords = false;
+      passphrase.setWords(details.getWords());
+      if (passphraseWords.getText().toString().trim().isEmpty()) {
+        showWords(details.getWords());
+      }
+      passphraseWords.setEnabled(true);
+      updatePositiveButton();
+    }
+  }
+
+  private void checkWords(Editable text) {
+    if (wordTrie == null || text == null) {
+      return;
+    }
+    for (ForegroundColorSpan span : invalidSpans) {
+      text.removeSpan(span);
+    }
+    int used = 0;
+    int cursor = passphraseWords.getSelectionEnd();
+    int length = text.length();
+    typedStart = -1;
+    typedEnd = -1;
+    for (int start = 0, end; start < length; start = end) {
+      while (start < length && Character.isWhitespace(text.charAt(start))) {
+        start++;
+      }
+      end = start;
+      while (end < length && !Character.isWhitespace(text.charAt(end))) {
+        end++;
+      }
+      if (end > start) {
+        // A word still being typed is only invalid if no word in the list starts with it.
+        boolean typing = end == cursor;
+        if (typing) {
+          typedStart = start;
+          typedEnd = end;
+        }
+        if (wordTrie.indexOf(text, start, end) < 0
+            && !(typing && wordTrie.isPrefix(text, start, end))) {
+          if (used == invalidSpans.size()) {
+            invalidSpans.add(
+                new ForegroundColorSpan(ContextCompat.getColor(getContext(), R.color.invalidWord)));
+          }
+          text.setSpan(invalidSpans.get(used++), start, end, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+      }
+    }
+    showSuggestions(text);
+  }
+
+  private void showSuggestions(Editable text) {
+    int count = (typedStart >= 0) ? wordTrie.complete(text, typedStart, typedEnd, completions) : 0;
+    if (count == 1 && completions[0] == wordTrie.indexOf(text, typedStart, typedEnd)) {
+      count = 0; // The only completion has already been typed in full.
+    }
+    for (int i = 0; i < suggestions.length; i++) {
+      if (i < count) {
+        suggestions[i].setText(wordTrie.getWordList().get(completions[i]));
+        suggestions[i].setVisibility(View.VISIBLE);
+      } else {
+        suggestions[i].setVisibility(View.GONE);
+      }
+    }
+  }
+
+  private void applySuggestion(View view) {
+    if (typedStart >= 0) {
+      int start = typedStart;
+      String word = ((Button) view).getText() + " ";
+      passphraseWords.getText().replace(start, typedEnd, word);
+      passphraseWords.setSelection(start + word.length());
+      checkWords(passphraseWords.getText());
+    }
+  }
+
+  private void updatePositiveButton() {
+    AlertDialog dialog = (AlertDialog) getDialog();
+    Button positive = (dialog != null) ? dialog.getButton(AlertDialog.BUTTON_POSITIVE) : null;
+    if (positive != null) {
+      positive.setEnabled(!awaitingWords || regenerate.isChecked());
+    }
+  }
+
   private void populatePassphrase() {
     passphrase.setKey(passphraseKey.getText().toString().trim());
     String words = passphraseWords.getText().toString().trim();
@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.controller;
+
+import android.os.SystemClock;
+
+/**
+ * Class implementing the singleton pattern, measuring the time from launch (creation of the app
+ * process) to the first frame of the passphrase list, along with whether the cold-start fast path
+ * (restoring the last signed-in account without a sign-in round trip) was taken. Times are read
+ * from a monotonic clock ({@link SystemClock#elapsedRealtime()}), so adjustments to the wall clock
+ * don't affect the measurement.
+ */
+public class StartupTrace {
+
+  private static final long UNSET = -1;
+
+  private final Clock clock;
+
+  private long launch = UNSET;
+  private long firstFrame = UNSET;
+  private boolean fastPath;
+
+  /**
+   * Initializes this instance with the specified clock.
+   *
+   * @param clock source of monotonic time.
+   */
+  StartupTrace(Clock clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the singleton instance of this class.
+   */
+  public static StartupTrace getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Records the launch time. Only the first invocation has any effect.
+   */
+  public synchronized void markLaunch() {
+    if (launch == UNSET) {
+      launch = now();
+    }
+  }
+
+  /**
+   * Records whether the cold-start fast path was taken.
+   */
+  public synchronized void setFastPath(boolean fastPath) {
+    this.fastPath = fastPath;
+  }
+
+  /**
+   * Returns a flag indicating whether the cold-start fast path was taken.
+   */
+  public synchronized boolean isFastPath() {
+    return fastPath;
+  }
+
+  /**
+   * Records the time at which the first frame of the passphrase list is drawn. Only the first
+   * invocation after {@link #markLaunch()} has any effect.
+   *
+   * @return {@code true} if the time was recorded by this invocation; {@code false} otherwise.
+   */
+  public synchronized boolean markFirstFrame() {
+    if (launch == UNSET || firstFrame != UNSET) {
+      return false;
+    }
+    firstFrame = now();
+    return true;
+  }
+
+  /**
+   * Returns a flag indicating whether both the launch and first frame times have been recorded.
+   */
+  public synchronized boolean isComplete() {
+    return firstFrame != UNSET;
+  }
+
+  /**
+   * Returns the time from launch to the first frame of the passphrase list.
+   *
+   * @return elapsed time in milliseconds, or -1 if not yet recorded.
+   */
+  public synchronized long getTimeToFirstFrame() {
+    return (firstFrame != UNSET) ? firstFrame - launch : UNSET;
+  }
+
+  private long now() {
+    return clock.millis();
+  }
+
+  /**
+   * Source of monotonic time, in milliseconds from an arbitrary origin.
+   */
+  interface Clock {
+
+    /**
+     * Returns the current time, in milliseconds.
+     */
+    long millis();
+
+  }
+
+  private static class InstanceHolder {
+
+    private static final StartupTrace INSTANCE = new StartupTrace(SystemClock::elapsedRealtime);
+
+  }
+
+}
@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.generator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link WordList} implementation backed by an array of {@link String} instances, read from a plain
+ * text source with one word per line. (The bundled lists are read with {@link PackedWordList}
+ * instead; this class is mainly useful for building and testing lists.)
+ */
+public class ArrayWordList implements WordList {
+
+  private final String[] words;
+
+  /**
+   * Initializes the list with the specified words.
+   *
+   * @param words words in dice order.
+   */
+  public ArrayWordList(String[] words) {
+    this.words = words;
+  }
+
+  /**
+   * Reads a word list from the specified UTF-8 text stream, containing one word per line. Blank
+   * lines are ignored; the stream is closed on completion.
+   *
+   * @param input source of word list text.
+   * @return word list.
+   * @throws IOException if the stream can't be read.
+   */
+  public static ArrayWordList read(InputStream input) throws IOException {
+    List<String> words = new ArrayList<>();
+    try (
+        BufferedReader reader =
+            new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))
+    ) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (!line.isEmpty()) {
+          words.add(line);
+        }
+      }
+    }
+    return new ArrayWordList(words.toArray(new String[0]));
+  }
+
+  @Override
+  public int size() {
+    return words.length;
+  }
+
+  @Override
+  public String get(int index) {
+    return words[index];
+  }
+
+}
@@ -0,0 +1,135 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.generator;
+
+import java.security.SecureRandom;
+import java.util.Random;
+
+/**
+ * Source of unbiased rolls of a fair, six-sided die. Each roll is taken from a single random byte;
+ * bytes with values of 252 or more are rejected (and replaced), so that each of the 6 faces is
+ * drawn from exactly 42 of the accepted byte values.
+ * <p>Random bytes are requested from the source of entropy in blocks of {@value #BLOCK_SIZE}, and
+ * each byte is cleared as it is consumed. The bulk methods ({@link #roll(int[], int, int)} and
+ * {@link #rollIndices(int[], int, int, int)}) write into caller-supplied arrays, and allocate no
+ * memory.</p>
+ */
+public class DiceRoller {
+
+  /**
+   * Number of faces on each die.
+   */
+  public static final int FACES = 6;
+
+  /**
+   * Number of random bytes requested from the source of entropy at a time.
+   */
+  public static final int BLOCK_SIZE = 1024;
+
+  private static final int REJECTION_THRESHOLD = 256 - 256 % FACES;
+
+  private final Random rng;
+  private final byte[] block;
+  private int position;
+
+  /**
+   * Initializes this instance with a new {@link SecureRandom} source of entropy.
+   */
+  public DiceRoller() {
+    this(new SecureRandom());
+  }
+
+  /**
+   * Initializes this instance with the specified source of entropy.
+   *
+   * @param rng source of random bytes.
+   */
+  public DiceRoller(Random rng) {
+    this.rng = rng;
+    block = new byte[BLOCK_SIZE];
+    position = BLOCK_SIZE;
+  }
+
+  /**
+   * Returns the result of a single die roll.
+   *
+   * @return face value, in the range 1 to {@link #FACES} (inclusive).
+   */
+  public synchronized int roll() {
+    return nextFace() + 1;
+  }
+
+  /**
+   * Rolls the specified number of dice, writing the face values into {@code faces}.
+   *
+   * @param faces destination of face values, each in the range 1 to {@link #FACES} (inclusive).
+   * @param offset position in {@code faces} of the first roll.
+   * @param count number of dice to roll.
+   * @throws IndexOutOfBoundsException if {@code offset} and {@code count} don't specify a range
+   * within {@code faces}.
+   */
+  public synchronized void roll(int[] faces, int offset, int count) {
+    checkRange(faces, offset, count);
+    for (int i = offset; i < offset + count; i++) {
+      faces[i] = nextFace() + 1;
+    }
+  }
+
+  /**
+   * Generates the specified number of indices, each formed from the base-6 digits of {@code dice}
+   * rolls (the first roll being the most significant digit, and a face value of 1 corresponding to
+   * a digit of 0), writing them into {@code indices}.
+   *
+   * @param indices destination of indices, each in the range 0 (inclusive) to {@link #FACES}<sup>
+   * {@code dice}</sup> (exclusive).
+   * @param offset position in {@code indices} of the first index.
+   * @param count number of indices to generate.
+   * @param dice number of dice rolled for each index.
+   * @throws IndexOutOfBoundsException if {@code offset} and {@code count} don't specify a range
+   * within {@code indices}.
+   */
+  public synchronized void rollIndices(int[] indices, int offset, int count, int dice) {
+    checkRange(indices, offset, count);
+    for (int i = offset; i < offset + count; i++) {
+      int index = 0;
+      for (int j = 0; j < dice; j++) {
+        index = index * FACES + nextFace();
+      }
+      indices[i] = index;
+    }
+  }
+
+  private int nextFace() {
+    int value;
+    do {
+      if (position == block.length) {
+        rng.nextBytes(block);
+        position = 0;
+      }
+      value = block[position] & 0xff;
+      block[position++] = 0;
+    } while (value >= REJECTION_THRESHOLD);
+    return value % FACES;
+  }
+
+  private static void checkRange(int[] array, int offset, int count) {
+    if (offset < 0 || count < 0 || offset > array.length - count) {
+      throw new IndexOutOfBoundsException(
+          "Offset: " + offset + ", Count: " + count + ", Length: " + array.length);
+    }
+  }
+
+}
@@ -0,0 +1,139 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.generator;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * {@link WordList} implementation that reads words on demand from a packed binary image, typically
+ * memory-mapped from a file or an uncompressed asset. No {@link String} instances are created until
+ * {@link #get(int)} is invoked; the remaining accessors read the image directly.
+ * <p>The image format (all integers big-endian) is:</p>
+ * <ol>
+ *   <li>magic number {@code "DWL1"} (4 bytes);</li>
+ *   <li>word count <em>n</em> (4 bytes);</li>
+ *   <li><em>n</em> + 1 offsets into the blob (4 bytes each), where word <em>i</em> occupies bytes
+ *   {@code offset[i]} (inclusive) to {@code offset[i + 1]} (exclusive);</li>
+ *   <li>the concatenated UTF-8 encodings of all words (the blob).</li>
+ * </ol>
+ * <p>The same format is produced by the {@code packWordLists} Gradle task.</p>
+ */
+public class PackedWordList implements WordList {
+
+  /**
+   * Magic number identifying the packed format (ASCII {@code "DWL1"}).
+   */
+  public static final int MAGIC = 0x44574c31;
+
+  private static final int HEADER_SIZE = 8;
+
+  private final ByteBuffer image;
+  private final int size;
+  private final int blobStart;
+
+  /**
+   * Initializes this instance with the specified image. The buffer is not copied, and its position
+   * and limit are ignored.
+   *
+   * @param image buffer containing a packed word list, starting at index 0.
+   * @throws IllegalArgumentException if {@code image} doesn't start with {@link #MAGIC}.
+   */
+  public PackedWordList(ByteBuffer image) {
+    if (image.getInt(0) != MAGIC) {
+      throw new IllegalArgumentException("Not a packed word list.");
+    }
+    this.image = image;
+    size = image.getInt(4);
+    blobStart = HEADER_SIZE + 4 * (size + 1);
+  }
+
+  /**
+   * Writes the specified words to the specified stream in the packed format. The stream is not
+   * closed.
+   *
+   * @param words words in dice order.
+   * @param output destination of packed image.
+   * @throws IOException if the image can't be written.
+   */
+  public static void write(List<String> words, OutputStream output) throws IOException {
+    byte[][] encoded = new byte[words.size()][];
+    for (int i = 0; i < encoded.length; i++) {
+      encoded[i] = words.get(i).getBytes(StandardCharsets.UTF_8);
+    }
+    DataOutputStream data = new DataOutputStream(output);
+    data.writeInt(MAGIC);
+    data.writeInt(encoded.length);
+    int offset = 0;
+    data.writeInt(offset);
+    for (byte[] word : encoded) {
+      offset += word.length;
+      data.writeInt(offset);
+    }
+    for (byte[] word : encoded) {
+      data.write(word);
+    }
+    data.flush();
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public String get(int index) {
+    int start = offset(index);
+    byte[] bytes = new byte[offset(index + 1) - start];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = image.get(blobStart + start + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the length, in UTF-8 bytes, of the word at the specified index.
+   *
+   * @param index position of word in list.
+   * @return length of encoded word.
+   */
+  public int byteLength(int index) {
+    return offset(index + 1) - offset(index);
+  }
+
+  /**
+   * Returns a single byte of the UTF-8 encoding of the word at the specified index.
+   *
+   * @param index position of word in list.
+   * @param position position of byte in encoded word.
+   * @return byte value (0 to 255).
+   */
+  public int byteAt(int index, int position) {
+    return image.get(blobStart + offset(index) + position) & 0xff;
+  }
+
+  private int offset(int index) {
+    if (index < 0 || index > size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return image.getInt(HEADER_SIZE + 4 * index);
+  }
+
+}
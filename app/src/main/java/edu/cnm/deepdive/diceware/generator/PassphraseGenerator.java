@@ -0,0 +1,125 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.generator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * On-device diceware passphrase generator: each word is selected from a {@link WordList} by rolling
+ * as many dice as are needed to index the list (e.g. 5 dice for a list of 7,776 words). The
+ * singleton instance uses the bundled <a href="https://www.eff.org/dice">EFF large word list</a>
+ * (licensed under CC BY 3.0 US by the Electronic Frontier Foundation), obtained from {@link
+ * WordLists}, and a {@link DiceRoller} backed by {@link java.security.SecureRandom}.
+ */
+public class PassphraseGenerator {
+
+  private final WordList wordList;
+  private final DiceRoller roller;
+  private final int dicePerWord;
+
+  /**
+   * Initializes this instance with the specified word list and dice roller.
+   *
+   * @param wordList source of words; its size must be a power of {@link DiceRoller#FACES}.
+   * @param roller source of die rolls.
+   * @throws IllegalArgumentException if the size of {@code wordList} isn't a power of {@link
+   * DiceRoller#FACES}.
+   */
+  public PassphraseGenerator(WordList wordList, DiceRoller roller) {
+    int dice = 0;
+    int size = wordList.size();
+    while (size > 1 && size % DiceRoller.FACES == 0) {
+      size /= DiceRoller.FACES;
+      dice++;
+    }
+    if (size != 1 || dice == 0) {
+      throw new IllegalArgumentException("Word list size must be a power of 6.");
+    }
+    this.wordList = wordList;
+    this.roller = roller;
+    dicePerWord = dice;
+  }
+
+  /**
+   * Returns the singleton instance of this class, loading the default word list on first use. Since
+   * this may involve file I/O, it should not be invoked on the UI thread.
+   */
+  public static PassphraseGenerator getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Returns the number of dice rolled to select each word.
+   */
+  public int getDicePerWord() {
+    return dicePerWord;
+  }
+
+  /**
+   * Returns the list from which words are selected.
+   */
+  public WordList getWordList() {
+    return wordList;
+  }
+
+  /**
+   * Selects the specified number of words, writing their positions in {@link #getWordList()} into
+   * {@code indices}. This allocates no memory, and is intended for generating passphrases in bulk.
+   *
+   * @param indices destination of word indices.
+   * @param offset position in {@code indices} of the first word.
+   * @param count number of words to select.
+   * @throws IndexOutOfBoundsException if {@code offset} and {@code count} don't specify a range
+   * within {@code indices}.
+   */
+  public void generateIndices(int[] indices, int offset, int count) {
+    roller.rollIndices(indices, offset, count, dicePerWord);
+  }
+
+  /**
+   * Generates and returns a passphrase with the specified number of words.
+   *
+   * @param length number of words.
+   * @return {@link List List&lt;String&gt;} of randomly selected words.
+   */
+  public List<String> generate(int length) {
+    int[] indices = new int[length];
+    generateIndices(indices, 0, length);
+    List<String> words = new ArrayList<>(length);
+    for (int index : indices) {
+      words.add(wordList.get(index));
+    }
+    return words;
+  }
+
+  private static class InstanceHolder {
+
+    private static final PassphraseGenerator INSTANCE;
+
+    static {
+      try {
+        INSTANCE = new PassphraseGenerator(
+            WordLists.getInstance().get(WordLists.EFF_LARGE), new DiceRoller());
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+  }
+
+}
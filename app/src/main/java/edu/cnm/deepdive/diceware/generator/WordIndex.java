@@ -0,0 +1,93 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.generator;
+
+import java.util.Arrays;
+
+/**
+ * Reverse lookup (word to position) over a {@link WordList}. The index is an open-addressing hash
+ * table of word positions, so it holds no {@link String} instances of its own; a candidate found by
+ * hash is confirmed by comparison with the word in the list. (Word lists are in dice order, which
+ * isn't necessarily sorted, so binary search can't be used.) Instances are immutable, and may be
+ * shared between threads.
+ */
+public class WordIndex {
+
+  private static final int EMPTY = -1;
+
+  private final WordList wordList;
+  private final int[] slots;
+  private final int[] hashes;
+  private final int mask;
+
+  /**
+   * Builds an index over the specified word list. If the list contains duplicates, the first
+   * occurrence of each is indexed.
+   *
+   * @param wordList list to index.
+   */
+  public WordIndex(WordList wordList) {
+    this.wordList = wordList;
+    int capacity = Integer.highestOneBit(Math.max(wordList.size(), 1)) * 4;
+    slots = new int[capacity];
+    hashes = new int[capacity];
+    mask = capacity - 1;
+    Arrays.fill(slots, EMPTY);
+    for (int i = 0; i < wordList.size(); i++) {
+      String word = wordList.get(i);
+      if (indexOf(word) == EMPTY) {
+        int hash = word.hashCode();
+        int slot = spread(hash) & mask;
+        while (slots[slot] != EMPTY) {
+          slot = (slot + 1) & mask;
+        }
+        slots[slot] = i;
+        hashes[slot] = hash;
+      }
+    }
+  }
+
+  /**
+   * Returns the indexed word list.
+   */
+  public WordList getWordList() {
+    return wordList;
+  }
+
+  /**
+   * Returns the position of the specified word in the list.
+   *
+   * @param word word to find.
+   * @return position of {@code word}, or -1 if {@code word} isn't in the list.
+   */
+  public int indexOf(String word) {
+    int hash = word.hashCode();
+    int slot = spread(hash) & mask;
+    int index;
+    while ((index = slots[slot]) != EMPTY) {
+      if (hashes[slot] == hash && wordList.get(index).equals(word)) {
+        return index;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return EMPTY;
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+}
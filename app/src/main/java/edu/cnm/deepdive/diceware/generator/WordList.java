@@ -0,0 +1,37 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.generator;
+
+/**
+ * Read-only, indexed diceware word list. The word at index {@code i} corresponds to the sequence of
+ * dice rolls given by the base-6 digits of {@code i} (with each digit one less than the die face).
+ */
+public interface WordList {
+
+  /**
+   * Returns the number of words in the list. For a diceware list, this is a power of 6.
+   */
+  int size();
+
+  /**
+   * Returns the word at the specified index.
+   *
+   * @param index position of word in list (0 &le; {@code index} &lt; {@link #size()}).
+   * @return word at {@code index}.
+   */
+  String get(int index);
+
+}
@@ -0,0 +1,140 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.generator;
+
+import android.app.Application;
+import android.content.res.AssetFileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class implementing the singleton pattern, providing lazily loaded access to the bundled word
+ * lists. Each list is packed at build time (see {@link PackedWordList}) from a plain-text list in
+ * {@code src/main/wordlists}, stored as an uncompressed asset, and memory-mapped on first use.
+ */
+public class WordLists {
+
+  /**
+   * Name of the EFF large word list (7,776 words, selected with 5 dice).
+   */
+  public static final String EFF_LARGE = "eff_large";
+
+  private static final String ASSET_PATH_FORMAT = "wordlists/%s.dwl";
+
+  private static Application applicationContext;
+
+  private final Map<String, WordList> lists;
+  private final Map<String, WordIndex> indices;
+  private final Map<String, WordTrie> tries;
+
+  private WordLists() {
+    lists = new HashMap<>();
+    indices = new HashMap<>();
+    tries = new HashMap<>();
+  }
+
+  /**
+   * Sets the context required to read the bundled word list assets.
+   *
+   * @param applicationContext {@link android.content.Context} used for asset access.
+   */
+  public static void setApplicationContext(Application applicationContext) {
+    WordLists.applicationContext = applicationContext;
+  }
+
+  /**
+   * Returns the singleton instance of this class.
+   */
+  public static WordLists getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Returns the word list with the specified name, mapping it into memory if it hasn't already been
+   * loaded. Since this may involve file I/O, it should not be invoked on the UI thread.
+   *
+   * @param name name of list (the base name of its source file).
+   * @return word list.
+   * @throws IOException if the list doesn't exist, or can't be mapped.
+   */
+  public synchronized WordList get(String name) throws IOException {
+    WordList list = lists.get(name);
+    if (list == null) {
+      list = load(name);
+      lists.put(name, list);
+    }
+    return list;
+  }
+
+  /**
+   * Returns the reverse lookup index over the word list with the specified name, building it (and
+   * loading the list) if necessary. As with {@link #get(String)}, this should not be invoked on the
+   * UI thread.
+   *
+   * @param name name of list.
+   * @return index over word list.
+   * @throws IOException if the list doesn't exist, or can't be mapped.
+   */
+  public synchronized WordIndex getIndex(String name) throws IOException {
+    WordIndex index = indices.get(name);
+    if (index == null) {
+      index = new WordIndex(get(name));
+      indices.put(name, index);
+    }
+    return index;
+  }
+
+  /**
+   * Returns the prefix tree over the word list with the specified name, building it (and loading
+   * the list) if necessary. As with {@link #get(String)}, this should not be invoked on the UI
+   * thread.
+   *
+   * @param name name of list.
+   * @return prefix tree over word list.
+   * @throws IOException if the list doesn't exist, or can't be mapped.
+   */
+  public synchronized WordTrie getTrie(String name) throws IOException {
+    WordTrie trie = tries.get(name);
+    if (trie == null) {
+      trie = new WordTrie(get(name));
+      tries.put(name, trie);
+    }
+    return trie;
+  }
+
+  private WordList load(String name) throws IOException {
+    String path = String.format(ASSET_PATH_FORMAT, name);
+    try (
+        AssetFileDescriptor descriptor = applicationContext.getAssets().openFd(path);
+        FileInputStream input = descriptor.createInputStream()
+    ) {
+      FileChannel channel = input.getChannel();
+      return new PackedWordList(
+          channel.map(MapMode.READ_ONLY, descriptor.getStartOffset(), descriptor.getLength()));
+    }
+  }
+
+  private static class InstanceHolder {
+
+    private static final WordLists INSTANCE = new WordLists();
+
+  }
+
+}
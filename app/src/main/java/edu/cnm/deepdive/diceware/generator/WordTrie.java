@@ -0,0 +1,228 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.generator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Prefix tree over the UTF-8 encodings of the words in a {@link WordList}, for validating and
+ * completing words as they're typed. Nodes are numbered in depth-first (preorder) sequence, with
+ * each node's children in byte order, so the trie is held in three flat arrays: the byte labelling
+ * the edge into each node, the end of each node's subtree, and the position in the list of the word
+ * ending at each node. The first child of a node immediately follows it, the next sibling of a node
+ * starts at the end of its subtree, and all the completions of a prefix occupy a contiguous range
+ * of nodes, in alphabetical (byte) order. None of the lookup methods allocate memory. Instances are
+ * immutable, and may be shared between threads.
+ */
+public class WordTrie {
+
+  private static final int NONE = -1;
+  private static final int ROOT = 0;
+
+  private final WordList wordList;
+  private final byte[] labels;
+  private final int[] ends;
+  private final int[] words;
+
+  /**
+   * Builds a trie over the specified word list. If the list is a {@link PackedWordList}, the words
+   * are read directly from its image, with {@link PackedWordList#byteAt(int, int)}. If the list
+   * contains duplicates, the first occurrence of each is used.
+   *
+   * @param wordList list to index.
+   */
+  public WordTrie(WordList wordList) {
+    this.wordList = wordList;
+    byte[][] encoded = new byte[wordList.size()][];
+    Integer[] order = new Integer[encoded.length];
+    int capacity = 1;
+    for (int i = 0; i < encoded.length; i++) {
+      encoded[i] = encode(wordList, i);
+      order[i] = i;
+      capacity += encoded[i].length;
+    }
+    // Stable, so the first of any duplicates comes first.
+    Arrays.sort(order, (a, b) -> compare(encoded[a], encoded[b]));
+    byte[] labels = new byte[capacity];
+    int[] ends = new int[capacity];
+    int[] words = new int[capacity];
+    Arrays.fill(words, NONE);
+    int[] path = new int[maxLength(encoded) + 1];
+    int nodes = 1;
+    byte[] previous = new byte[0];
+    for (int index : order) {
+      byte[] word = encoded[index];
+      int common = commonPrefix(previous, word);
+      for (int depth = previous.length; depth > common; depth--) {
+        ends[path[depth]] = nodes;
+      }
+      for (int depth = common + 1; depth <= word.length; depth++) {
+        labels[nodes] = word[depth - 1];
+        path[depth] = nodes++;
+      }
+      if (words[path[word.length]] == NONE) {
+        words[path[word.length]] = index;
+      }
+      previous = word;
+    }
+    for (int depth = previous.length; depth >= 0; depth--) {
+      ends[path[depth]] = nodes;
+    }
+    this.labels = Arrays.copyOf(labels, nodes);
+    this.ends = Arrays.copyOf(ends, nodes);
+    this.words = Arrays.copyOf(words, nodes);
+  }
+
+  /**
+   * Returns the indexed word list.
+   */
+  public WordList getWordList() {
+    return wordList;
+  }
+
+  /**
+   * Returns the number of nodes in the trie (including the root).
+   */
+  public int getNodeCount() {
+    return labels.length;
+  }
+
+  /**
+   * Returns the position in the list of the word in the specified range of characters.
+   *
+   * @param text source of word.
+   * @param start position in {@code text} of the first character of the word.
+   * @param end position in {@code text} following the last character of the word.
+   * @return position of word, or -1 if it isn't in the list.
+   */
+  public int indexOf(CharSequence text, int start, int end) {
+    int node = find(text, start, end);
+    return (node != NONE) ? words[node] : NONE;
+  }
+
+  /**
+   * Returns {@code true} if the specified range of characters is a prefix of (or equal to) at least
+   * one word in the list.
+   *
+   * @param text source of prefix.
+   * @param start position in {@code text} of the first character of the prefix.
+   * @param end position in {@code text} following the last character of the prefix.
+   * @return flag indicating whether any word starts with the prefix.
+   */
+  public boolean isPrefix(CharSequence text, int start, int end) {
+    return find(text, start, end) != NONE;
+  }
+
+  /**
+   * Writes the positions in the list of words starting with the specified prefix, in alphabetical
+   * order, into {@code positions}, and returns the number written.
+   *
+   * @param text source of prefix.
+   * @param start position in {@code text} of the first character of the prefix.
+   * @param end position in {@code text} following the last character of the prefix.
+   * @param positions destination of word positions; at most {@code positions.length} are written.
+   * @return number of positions written.
+   */
+  public int complete(CharSequence text, int start, int end, int[] positions) {
+    int node = find(text, start, end);
+    int count = 0;
+    if (node != NONE) {
+      for (int limit = ends[node]; node < limit && count < positions.length; node++) {
+        if (words[node] != NONE) {
+          positions[count++] = words[node];
+        }
+      }
+    }
+    return count;
+  }
+
+  private int find(CharSequence text, int start, int end) {
+    int node = ROOT;
+    for (int i = start; i < end && node != NONE; i++) {
+      int c = text.charAt(i);
+      if (c < 0x80) {
+        node = child(node, c);
+      } else if (c < 0x800) {
+        node = child(child(node, 0xc0 | (c >> 6)), 0x80 | (c & 0x3f));
+      } else if (Character.isHighSurrogate((char) c) && i + 1 < end
+          && Character.isLowSurrogate(text.charAt(i + 1))) {
+        int code = Character.toCodePoint((char) c, text.charAt(++i));
+        node = child(node, 0xf0 | (code >> 18));
+        node = child(node, 0x80 | ((code >> 12) & 0x3f));
+        node = child(child(node, 0x80 | ((code >> 6) & 0x3f)), 0x80 | (code & 0x3f));
+      } else {
+        node = child(node, 0xe0 | (c >> 12));
+        node = child(child(node, 0x80 | ((c >> 6) & 0x3f)), 0x80 | (c & 0x3f));
+      }
+    }
+    return node;
+  }
+
+  private int child(int node, int value) {
+    if (node != NONE) {
+      for (int child = node + 1, limit = ends[node]; child < limit; child = ends[child]) {
+        int label = labels[child] & 0xff;
+        if (label == value) {
+          return child;
+        }
+        if (label > value) {
+          break;
+        }
+      }
+    }
+    return NONE;
+  }
+
+  private static byte[] encode(WordList wordList, int index) {
+    byte[] bytes;
+    if (wordList instanceof PackedWordList) {
+      PackedWordList packed = (PackedWordList) wordList;
+      bytes = new byte[packed.byteLength(index)];
+      for (int i = 0; i < bytes.length; i++) {
+        bytes[i] = (byte) packed.byteAt(index, i);
+      }
+    } else {
+      bytes = wordList.get(index).getBytes(StandardCharsets.UTF_8);
+    }
+    return bytes;
+  }
+
+  private static int compare(byte[] a, byte[] b) {
+    int common = commonPrefix(a, b);
+    return (common < a.length && common < b.length)
+        ? Integer.compare(a[common] & 0xff, b[common] & 0xff)
+        : Integer.compare(a.length, b.length);
+  }
+
+  private static int commonPrefix(byte[] a, byte[] b) {
+    int length = Math.min(a.length, b.length);
+    int common = 0;
+    while (common < length && a[common] == b[common]) {
+      common++;
+    }
+    return common;
+  }
+
+  private static int maxLength(byte[][] encoded) {
+    int max = 0;
+    for (byte[] word : encoded) {
+      max = Math.max(max, word.length);
+    }
+    return max;
+  }
+
+}
@@ -0,0 +1,218 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.model;
+
+import edu.cnm.deepdive.diceware.generator.WordIndex;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable, memory-compact {@link List List&lt;String&gt;} of passphrase words. Words found in the
+ * dictionary (see {@link #setDictionary(WordIndex)}) are stored as {@code short} positions in the
+ * dictionary; any other word (including any word in a dictionary position beyond {@link
+ * Short#MAX_VALUE}) is stored as a {@link String}, referenced by a negative code. Words are read
+ * from the dictionary on demand, so a passphrase of dictionary words retains no {@link String}
+ * instances at all.
+ */
+public final class InternedWords extends AbstractList<String> implements RandomAccess,
+    Serializable {
+
+  private static final long serialVersionUID = 5190725384165871207L;
+  private static final String[] NO_CUSTOM_WORDS = new String[0];
+
+  private static volatile WordIndex defaultDictionary;
+
+  private final transient WordIndex dictionary;
+  private final short[] codes;
+  private final String[] customWords;
+
+  private InternedWords(WordIndex dictionary, short[] codes, String[] customWords) {
+    this.dictionary = dictionary;
+    this.codes = codes;
+    this.customWords = customWords;
+  }
+
+  /**
+   * Sets the dictionary against which words are interned by {@link #of(List)}. Lists created before
+   * this is invoked hold all of their words as {@link String} instances.
+   *
+   * @param dictionary index over the word list used to generate passphrases.
+   */
+  public static void setDictionary(WordIndex dictionary) {
+    defaultDictionary = dictionary;
+  }
+
+  /**
+   * Returns an interned copy of the specified words, using the dictionary set with {@link
+   * #setDictionary(WordIndex)}. If {@code words} is already an instance of this class, it is
+   * returned unchanged.
+   *
+   * @param words passphrase words (may be {@code null}).
+   * @return interned words, or {@code null} if {@code words} is {@code null}.
+   */
+  public static List<String> of(List<String> words) {
+    List<String> interned;
+    if (words == null || words instanceof InternedWords) {
+      interned = words;
+    } else {
+      Builder builder = new Builder(defaultDictionary, words.size());
+      for (String word : words) {
+        builder.add(word);
+      }
+      interned = builder.build();
+    }
+    return interned;
+  }
+
+  @Override
+  public String get(int index) {
+    int code = codes[index];
+    return (code >= 0) ? dictionary.getWordList().get(code) : customWords[-code - 1];
+  }
+
+  @Override
+  public int size() {
+    return codes.length;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof InternedWords && ((InternedWords) obj).dictionary == dictionary) {
+      InternedWords other = (InternedWords) obj;
+      return Arrays.equals(codes, other.codes) && Arrays.equals(customWords, other.customWords);
+    }
+    return super.equals(obj);
+  }
+
+  @Override
+  public int hashCode() {
+    return super.hashCode();
+  }
+
+  private Object writeReplace() {
+    return new SerializationProxy(toArray(new String[0]));
+  }
+
+  private void readObject(ObjectInputStream stream) throws InvalidObjectException {
+    throw new InvalidObjectException("Serialization proxy required.");
+  }
+
+  /**
+   * Incremental builder of {@link InternedWords} instances, for decoders that already know the
+   * dictionary positions of (some of) the words.
+   */
+  public static class Builder {
+
+    private final WordIndex dictionary;
+    private final short[] codes;
+
+    private String[] customWords = NO_CUSTOM_WORDS;
+    private int size;
+    private int customSize;
+
+    /**
+     * Initializes this builder with the specified dictionary and number of words.
+     *
+     * @param dictionary index over the dictionary (may be {@code null}, in which case all words are
+     * stored as {@link String} instances).
+     * @param capacity exact number of words to be added.
+     * @throws IllegalArgumentException if {@code capacity} is negative, or too large for the
+     * number of custom words to be encoded.
+     */
+    public Builder(WordIndex dictionary, int capacity) {
+      if (capacity < 0 || capacity > -Short.MIN_VALUE) {
+        throw new IllegalArgumentException("Invalid capacity: " + capacity);
+      }
+      this.dictionary = dictionary;
+      codes = new short[capacity];
+    }
+
+    /**
+     * Adds the specified word, interning it if it's in the dictionary.
+     *
+     * @param word passphrase word.
+     * @return this builder.
+     */
+    public Builder add(String word) {
+      int index = (dictionary != null && word != null) ? dictionary.indexOf(word) : -1;
+      return (index >= 0 && index <= Short.MAX_VALUE) ? addIndex(index) : addCustom(word);
+    }
+
+    /**
+     * Adds the word at the specified position in the dictionary.
+     *
+     * @param index position of word in the dictionary.
+     * @return this builder.
+     * @throws IndexOutOfBoundsException if {@code index} isn't a valid position in the dictionary.
+     */
+    public Builder addIndex(int index) {
+      if (dictionary == null || index < 0 || index >= dictionary.getWordList().size()) {
+        throw new IndexOutOfBoundsException("Not a dictionary position: " + index);
+      }
+      if (index > Short.MAX_VALUE) {
+        return addCustom(dictionary.getWordList().get(index));
+      }
+      codes[size++] = (short) index;
+      return this;
+    }
+
+    /**
+     * Builds and returns the list of words added.
+     *
+     * @throws IllegalStateException if fewer words than the specified capacity were added.
+     */
+    public InternedWords build() {
+      if (size != codes.length) {
+        throw new IllegalStateException("Expected " + codes.length + " words; got " + size);
+      }
+      return new InternedWords(dictionary, codes,
+          (customSize == customWords.length) ? customWords
+              : Arrays.copyOf(customWords, customSize));
+    }
+
+    private Builder addCustom(String word) {
+      if (customSize == customWords.length) {
+        customWords = Arrays.copyOf(customWords, Math.max(2 * customSize, 1));
+      }
+      customWords[customSize++] = word;
+      codes[size++] = (short) -customSize;
+      return this;
+    }
+
+  }
+
+  private static class SerializationProxy implements Serializable {
+
+    private static final long serialVersionUID = -1683466352710379207L;
+
+    private final String[] words;
+
+    private SerializationProxy(String[] words) {
+      this.words = words;
+    }
+
+    private Object readResolve() {
+      return of(Arrays.asList(words));
+    }
+
+  }
+
+}
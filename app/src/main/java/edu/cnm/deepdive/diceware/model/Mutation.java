@@ -0,0 +1,175 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.model;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+import java.util.List;
+
+/**
+ * Pending change to the server-based collection of passphrases, persisted in the outbox table of
+ * the local {@link edu.cnm.deepdive.diceware.service.DicewareDatabase} until it has been sent. The
+ * order of IDs is the order in which changes were made.
+ */
+@Entity(tableName = "mutation", indices = @Index("passphrase_id"))
+public class Mutation {
+
+  @PrimaryKey(autoGenerate = true)
+  @ColumnInfo(name = "mutation_id")
+  private long id;
+
+  @ColumnInfo(name = "passphrase_id")
+  private long passphraseId;
+
+  private Operation operation;
+
+  @ColumnInfo(name = "passphrase_key")
+  private String key;
+
+  private List<String> words;
+
+  private int attempts;
+
+  /**
+   * Returns a mutation of the specified kind, for the specified passphrase.
+   *
+   * @param operation kind of change.
+   * @param passphrase passphrase added, updated, or deleted.
+   * @return new (not yet persisted) instance.
+   */
+  public static Mutation of(Operation operation, Passphrase passphrase) {
+    Mutation mutation = new Mutation();
+    mutation.operation = operation;
+    mutation.passphraseId = passphrase.getId();
+    if (operation != Operation.DELETE) {
+      mutation.key = passphrase.getKey();
+      mutation.words = passphrase.getWords();
+    }
+    return mutation;
+  }
+
+  /**
+   * Returns the (local, auto-generated) ID of this mutation.
+   */
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * Sets the ID of this mutation. (In general, there should be no need to invoke this method
+   * directly.)
+   */
+  public void setId(long id) {
+    this.id = id;
+  }
+
+  /**
+   * Returns the ID of the passphrase changed; for an {@link Operation#ADD}, this is zero.
+   */
+  public long getPassphraseId() {
+    return passphraseId;
+  }
+
+  /**
+   * Sets the ID of the passphrase changed.
+   */
+  public void setPassphraseId(long passphraseId) {
+    this.passphraseId = passphraseId;
+  }
+
+  /**
+   * Returns the kind of change.
+   */
+  public Operation getOperation() {
+    return operation;
+  }
+
+  /**
+   * Sets the kind of change.
+   */
+  public void setOperation(Operation operation) {
+    this.operation = operation;
+  }
+
+  /**
+   * Returns the key of the added or updated passphrase.
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Sets the key of the added or updated passphrase.
+   */
+  public void setKey(String key) {
+    this.key = key;
+  }
+
+  /**
+   * Returns the words of the added or updated passphrase.
+   */
+  public List<String> getWords() {
+    return words;
+  }
+
+  /**
+   * Sets the words of the added or updated passphrase.
+   */
+  public void setWords(List<String> words) {
+    this.words = words;
+  }
+
+  /**
+   * Returns the number of unsuccessful attempts made so far to send this mutation.
+   */
+  public int getAttempts() {
+    return attempts;
+  }
+
+  /**
+   * Sets the number of unsuccessful attempts made so far to send this mutation.
+   */
+  public void setAttempts(int attempts) {
+    this.attempts = attempts;
+  }
+
+  /**
+   * Returns the passphrase (or, for an {@link Operation#DELETE}, a passphrase with only its ID set)
+   * to be sent to the server.
+   */
+  public Passphrase toPassphrase() {
+    Passphrase passphrase = new Passphrase();
+    passphrase.setId(passphraseId);
+    passphrase.setKey(key);
+    passphrase.setWords(words);
+    return passphrase;
+  }
+
+  /**
+   * Kinds of change to the server-based collection.
+   */
+  public enum Operation {
+    /** Creation of a new passphrase. */
+    ADD,
+    /** Replacement of the key and words of an existing passphrase. */
+    UPDATE,
+    /** Deletion of an existing passphrase. */
+    DELETE
+  }
+
+}
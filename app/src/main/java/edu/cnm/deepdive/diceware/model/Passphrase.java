@@ -15,23 +15,32 @@
  */
 package edu.cnm.deepdive.diceware.model;
 
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
 import com.google.gson.annotations.Expose;
 import java.io.Serializable;
 import java.util.List;
 
 /**
- * Class encapsulating the basic properties of a passphrase.
+ * Class encapsulating the basic properties of a passphrase. Instances are also persisted in the
+ * local {@link edu.cnm.deepdive.diceware.service.DicewareDatabase}, as a cache of the server-based
+ * collection.
  *
  * @author Nicholas Bennett, Todd Nordquist, Brian Bleck, Deep Dive Coding Java + Android Cohort 8
  */
+@Entity(tableName = "passphrase")
 public class Passphrase implements Serializable {
 
   private static final long serialVersionUID = -6693587121163744899L;
 
   @Expose
+  @PrimaryKey
+  @ColumnInfo(name = "passphrase_id")
   private long id;
 
   @Expose
+  @ColumnInfo(name = "passphrase_key", collate = ColumnInfo.NOCASE)
   private String key;
 
   @Expose
@@ -68,7 +77,9 @@ public class Passphrase implements Serializable {
   }
 
   /**
-   * Returns the passphrase itself, as a {@link List List&lt;String&gt;} of words.
+   * Returns the passphrase itself, as an immutable {@link List List&lt;String&gt;} of words. The
+   * words are held in the compact form described in {@link InternedWords}; the returned list reads
+   * them on demand.
    */
   public List<String> getWords() {
     return words;
@@ -76,10 +87,12 @@ public class Passphrase implements Serializable {
 
   /**
    * Sets the passphrase from a {@link List List&lt;String&gt;} of words. To avoid issues when
-   * displaying/editing, none of the list items should contain whitespace.
+   * displaying/editing, none of the list items should contain whitespace. The words are copied
+   * into compact form (see {@link InternedWords}), so later changes to {@code words} have no effect
+   * on this instance.
    */
   public void setWords(List<String> words) {
-    this.words = words;
+    this.words = InternedWords.of(words);
   }
 
 }
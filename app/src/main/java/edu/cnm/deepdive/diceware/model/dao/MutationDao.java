@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.model.dao;
+
+import androidx.room.Dao;
+import androidx.room.Delete;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import edu.cnm.deepdive.diceware.model.Mutation;
+import edu.cnm.deepdive.diceware.model.Mutation.Operation;
+import java.util.List;
+
+/**
+ * Data access object for the outbox of pending {@link Mutation} instances. All methods are
+ * synchronous, and must be invoked from a background thread.
+ */
+@Dao
+public abstract class MutationDao {
+
+  /**
+   * Inserts the specified mutation at the end of the outbox.
+   *
+   * @param mutation instance to insert.
+   * @return ID assigned to {@code mutation}.
+   */
+  @Insert
+  public abstract long insert(Mutation mutation);
+
+  /**
+   * Removes the specified mutation from the outbox.
+   *
+   * @param mutation instance to remove.
+   * @return number of records deleted.
+   */
+  @Delete
+  public abstract int delete(Mutation mutation);
+
+  /**
+   * Removes all mutations from the outbox.
+   */
+  @Query("DELETE FROM mutation")
+  public abstract void deleteAll();
+
+  /**
+   * Removes pending mutations of the specified kind for the specified passphrase.
+   *
+   * @param passphraseId passphrase ID.
+   * @param operation kind of change.
+   * @return number of records deleted.
+   */
+  @Query("DELETE FROM mutation WHERE passphrase_id = :passphraseId AND operation = :operation")
+  public abstract int deleteFor(long passphraseId, Operation operation);
+
+  /**
+   * Returns pending mutations, in the order they were made, starting after the specified ID.
+   *
+   * @param after ID of last mutation already read (or zero, to start at the beginning).
+   * @param limit maximum number of mutations to return.
+   * @return pending mutations.
+   */
+  @Query("SELECT * FROM mutation WHERE mutation_id > :after ORDER BY mutation_id LIMIT :limit")
+  public abstract List<Mutation> selectPending(long after, int limit);
+
+  /**
+   * Returns the number of pending mutations.
+   */
+  @Query("SELECT COUNT(*) FROM mutation")
+  public abstract int countPending();
+
+  /**
+   * Increments the count of unsuccessful attempts to send the mutation with the specified ID.
+   *
+   * @param id mutation ID.
+   */
+  @Query("UPDATE mutation SET attempts = attempts + 1 WHERE mutation_id = :id")
+  public abstract void incrementAttempts(long id);
+
+  /**
+   * Adds the specified mutation to the outbox, in a single transaction. An update or deletion
+   * supersedes any update of the same passphrase that is still pending, since only the latest state
+   * of the passphrase needs to be sent.
+   *
+   * @param mutation instance to add.
+   * @return ID assigned to {@code mutation}.
+   */
+  @Transaction
+  public long enqueue(Mutation mutation) {
+    if (mutation.getOperation() != Operation.ADD) {
+      deleteFor(mutation.getPassphraseId(), Operation.UPDATE);
+    }
+    return insert(mutation);
+  }
+
+  /**
+   * Adds the specified mutations to the outbox, in order, in a single transaction; each is added as
+   * by {@link #enqueue(Mutation)}.
+   *
+   * @param mutations instances to add.
+   */
+  @Transaction
+  public void enqueueAll(List<Mutation> mutations) {
+    for (Mutation mutation : mutations) {
+      enqueue(mutation);
+    }
+  }
+
+}
@@ -0,0 +1,202 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.model.dao;
+
+import androidx.room.Dao;
+import androidx.room.Delete;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Data access object for the local cache of {@link Passphrase} instances. All methods are
+ * synchronous, and must be invoked from a background thread.
+ */
+@Dao
+public abstract class PassphraseDao {
+
+  /**
+   * Maximum number of values that may be passed in a single collection-valued query parameter.
+   */
+  public static final int MAX_PARAMETERS = 500;
+
+  /**
+   * Inserts the specified passphrases, replacing any existing records with the same IDs.
+   *
+   * @param passphrases instances to insert or replace.
+   */
+  @Insert(onConflict = OnConflictStrategy.REPLACE)
+  public abstract void insert(List<Passphrase> passphrases);
+
+  /**
+   * Inserts the specified passphrase, replacing any existing record with the same ID.
+   *
+   * @param passphrase instance to insert or replace.
+   */
+  @Insert(onConflict = OnConflictStrategy.REPLACE)
+  public abstract void insert(Passphrase passphrase);
+
+  /**
+   * Inserts the specified passphrases, leaving any existing records with the same IDs unchanged.
+   *
+   * @param passphrases instances to insert.
+   */
+  @Insert(onConflict = OnConflictStrategy.IGNORE)
+  public abstract void insertIfAbsent(List<Passphrase> passphrases);
+
+  /**
+   * Updates the key of the cached passphrase with the specified ID, leaving its words unchanged.
+   *
+   * @param id passphrase ID.
+   * @param key new key.
+   */
+  @Query("UPDATE passphrase SET passphrase_key = :key WHERE passphrase_id = :id")
+  public abstract void updateKey(long id, String key);
+
+  /**
+   * Inserts or updates the specified passphrases, in a single transaction. Passphrases with words
+   * replace any existing records; for summaries (passphrases without words), only the key of an
+   * existing record is updated, so that words already cached are kept.
+   *
+   * @param passphrases instances (or summaries) to insert or update.
+   */
+  @Transaction
+  public void upsert(List<Passphrase> passphrases) {
+    List<Passphrase> summaries = new ArrayList<>();
+    List<Passphrase> details = new ArrayList<>();
+    for (Passphrase passphrase : passphrases) {
+      (passphrase.getWords() == null ? summaries : details).add(passphrase);
+    }
+    insert(details);
+    insertIfAbsent(summaries);
+    for (Passphrase summary : summaries) {
+      updateKey(summary.getId(), summary.getKey());
+    }
+  }
+
+  /**
+   * Returns the cached passphrase with the specified ID.
+   *
+   * @param id passphrase ID.
+   * @return cached passphrase, or {@code null} if not cached.
+   */
+  @Query("SELECT * FROM passphrase WHERE passphrase_id = :id")
+  public abstract Passphrase select(long id);
+
+  /**
+   * Deletes the specified passphrase from the local cache.
+   *
+   * @param passphrase instance to delete.
+   * @return number of records deleted.
+   */
+  @Delete
+  public abstract int delete(Passphrase passphrase);
+
+  /**
+   * Deletes all passphrases from the local cache.
+   */
+  @Query("DELETE FROM passphrase")
+  public abstract void deleteAll();
+
+  /**
+   * Returns all cached passphrases, in ID order.
+   */
+  @Query("SELECT * FROM passphrase ORDER BY passphrase_id")
+  public abstract List<Passphrase> selectAll();
+
+  /**
+   * Returns a page of cached passphrases, in ID order, starting after the specified ID.
+   *
+   * @param after ID of last passphrase on the preceding page (or zero, for the first page).
+   * @param limit maximum number of passphrases to return.
+   * @return page of passphrases.
+   */
+  @Query("SELECT * FROM passphrase WHERE passphrase_id > :after "
+      + "ORDER BY passphrase_id LIMIT :limit")
+  public abstract List<Passphrase> selectPage(long after, int limit);
+
+  /**
+   * Deletes cached passphrases with IDs in the specified (half-open) range, except for those with
+   * the specified IDs.
+   *
+   * @param after exclusive lower bound of range.
+   * @param through inclusive upper bound of range.
+   * @param retained IDs of passphrases to retain.
+   */
+  @Query("DELETE FROM passphrase WHERE passphrase_id > :after AND passphrase_id <= :through "
+      + "AND passphrase_id NOT IN (:retained)")
+  public abstract void deleteRangeExcept(long after, long through, List<Long> retained);
+
+  /**
+   * Returns the IDs of all cached passphrases.
+   */
+  @Query("SELECT passphrase_id FROM passphrase")
+  public abstract List<Long> selectIds();
+
+  /**
+   * Deletes cached passphrases with the specified IDs. To stay within the SQLite limit on the
+   * number of bound parameters, no more than {@link #MAX_PARAMETERS} IDs should be specified.
+   *
+   * @param ids IDs of passphrases to delete.
+   */
+  @Query("DELETE FROM passphrase WHERE passphrase_id IN (:ids)")
+  public abstract void deleteIds(List<Long> ids);
+
+  /**
+   * Deletes all cached passphrases except those with the specified IDs, in a single transaction.
+   *
+   * @param retained IDs of passphrases to retain.
+   */
+  @Transaction
+  public void retainOnly(Set<Long> retained) {
+    List<Long> removed = new ArrayList<>();
+    for (Long id : selectIds()) {
+      if (!retained.contains(id)) {
+        removed.add(id);
+      }
+    }
+    for (int start = 0; start < removed.size(); start += MAX_PARAMETERS) {
+      deleteIds(removed.subList(start, Math.min(start + MAX_PARAMETERS, removed.size())));
+    }
+  }
+
+  /**
+   * Reconciles the local cache with a page of the server-based collection, in a single transaction.
+   * Any cached passphrases in the ID range covered by the page, but not included in it, are deleted;
+   * if the page is the last one, that range extends to all IDs following {@code after}. The page
+   * may consist of summaries; see {@link #upsert(List)}.
+   *
+   * @param after ID of last passphrase on the preceding page (or zero, for the first page).
+   * @param page passphrases returned by the server, in ID order.
+   * @param last flag indicating whether {@code page} is the last page.
+   */
+  @Transaction
+  public void reconcilePage(long after, List<Passphrase> page, boolean last) {
+    List<Long> retained = new ArrayList<>(page.size());
+    for (Passphrase passphrase : page) {
+      retained.add(passphrase.getId());
+    }
+    long through = (last || page.isEmpty()) ? Long.MAX_VALUE : page.get(page.size() - 1).getId();
+    deleteRangeExcept(after, through, retained);
+    upsert(page);
+  }
+
+}
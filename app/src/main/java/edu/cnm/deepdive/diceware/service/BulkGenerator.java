@@ -0,0 +1,318 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import edu.cnm.deepdive.diceware.generator.DiceRoller;
+import edu.cnm.deepdive.diceware.generator.PassphraseGenerator;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import edu.cnm.deepdive.diceware.service.CallScheduler.Priority;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.functions.Consumer;
+import io.reactivex.schedulers.Schedulers;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class implementing the singleton pattern, generating passphrases in bulk on the device (e.g. one
+ * per new device or employee), and uploading them to the server as they are generated. Generation
+ * runs in parallel, in chunks, each chunk using its own {@link DiceRoller} (since a roller is
+ * synchronized); only a bounded number of chunks is generated ahead of the uploads, so a slow
+ * server applies backpressure to generation. Uploads are {@link Priority#BACKGROUND} calls, with a
+ * configurable number in progress at once.
+ * <p>Unlike single changes, bulk uploads aren't queued in the {@link MutationOutbox}: the user is
+ * watching their progress, so a failed upload is reported (see {@link Progress#getFailures()})
+ * rather than retried, and the remaining uploads continue.</p>
+ */
+public class BulkGenerator {
+
+  /**
+   * Maximum number of uploads in progress at once: every slot per host that {@link CallScheduler}
+   * doesn't reserve for foreground calls.
+   */
+  public static final int MAX_CONCURRENCY = CallScheduler.MAX_PER_HOST - 1;
+
+  /**
+   * Character in a key pattern replaced by a digit of the sequence number of each passphrase.
+   */
+  public static final char NUMBER_PLACEHOLDER = '#';
+
+  private static final int CHUNK_SIZE = 32;
+
+  private final DicewareService dicewareService;
+  private final PassphraseGenerator generator;
+  private final CallScheduler calls;
+  private final Scheduler clock;
+
+  /**
+   * Initializes this instance with the specified service, generator, call scheduler, and clock.
+   *
+   * @param dicewareService service used to upload passphrases.
+   * @param generator generator whose word list is used (with a new {@link DiceRoller} for each
+   * chunk of passphrases).
+   * @param calls scheduler on which uploads are made.
+   * @param clock {@link Scheduler} supplying the current time, for throughput.
+   */
+  BulkGenerator(DicewareService dicewareService, PassphraseGenerator generator,
+      CallScheduler calls, Scheduler clock) {
+    this.dicewareService = dicewareService;
+    this.generator = generator;
+    this.calls = calls;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the singleton instance of this class. Since this loads the default word list on first
+   * use, it should not be invoked on the UI thread.
+   */
+  public static BulkGenerator getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Returns the key of the passphrase with the specified sequence number, formed from the specified
+   * pattern: the first run of {@link #NUMBER_PLACEHOLDER} characters is replaced by the number,
+   * zero-padded to the length of the run (e.g. {@code "laptop-###"} gives {@code "laptop-007"}). If
+   * the pattern contains no placeholder, the number is appended.
+   *
+   * @param pattern key pattern.
+   * @param number sequence number (starting at 1).
+   * @return passphrase key.
+   */
+  public static String formatKey(String pattern, int number) {
+    String digits = Integer.toString(number);
+    int start = pattern.indexOf(NUMBER_PLACEHOLDER);
+    if (start < 0) {
+      return pattern + digits;
+    }
+    int end = start;
+    while (end < pattern.length() && pattern.charAt(end) == NUMBER_PLACEHOLDER) {
+      end++;
+    }
+    StringBuilder builder = new StringBuilder(pattern.length() + digits.length());
+    builder.append(pattern, 0, start);
+    for (int i = digits.length(); i < end - start; i++) {
+      builder.append('0');
+    }
+    return builder.append(digits).append(pattern, end, pattern.length()).toString();
+  }
+
+  /**
+   * Generates the specified number of passphrases, with keys formed from the specified pattern (see
+   * {@link #formatKey(String, int)}), and uploads them to the server, with at most the specified
+   * number of uploads in progress at once. Each passphrase accepted by the server is passed to
+   * {@code onSaved} (on the thread making the call) as returned by the server. Nothing is generated
+   * until the result is subscribed to; disposing of the subscription stops generation, and cancels
+   * any uploads in progress. The {@code Authorization} header is obtained for each upload, so that
+   * a run outlasting the lifetime of an ID token continues with a refreshed one.
+   *
+   * @param authorization {@link Single} emitting the current {@code Authorization} header value
+   * on each subscription (e.g. {@link TokenManager#getAuthorizationHeader()}).
+   * @param count number of passphrases.
+   * @param length number of words in each passphrase.
+   * @param keyPattern pattern of passphrase keys.
+   * @param maxConcurrency maximum number of uploads in progress at once (limited to {@link
+   * #MAX_CONCURRENCY}).
+   * @param onSaved action invoked with each passphrase saved by the server.
+   * @return {@link Flowable} emitting the initial progress, then the progress after each upload
+   * completes or fails.
+   */
+  public Flowable<Progress> generate(Single<String> authorization, int count, int length,
+      String keyPattern, int maxConcurrency, Consumer<Passphrase> onSaved) {
+    int concurrency = Math.max(1, Math.min(maxConcurrency, MAX_CONCURRENCY));
+    int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    int parallelism = Runtime.getRuntime().availableProcessors();
+    return Flowable.defer(() -> Flowable.range(0, chunks)
+        .concatMapEager((chunk) -> Flowable.fromCallable(() -> generateChunk(
+            chunk * CHUNK_SIZE + 1, Math.min(CHUNK_SIZE, count - chunk * CHUNK_SIZE), length,
+            keyPattern))
+            .subscribeOn(Schedulers.computation()), parallelism, 1)
+        .concatMapIterable((passphrases) -> passphrases, 1)
+        .flatMapSingle((passphrase) -> upload(authorization, passphrase, onSaved), false,
+            concurrency)
+        .scan(new Progress(count, now()), (progress, failure) -> progress.next(failure, now())));
+  }
+
+  private List<Passphrase> generateChunk(int first, int size, int length, String keyPattern) {
+    PassphraseGenerator chunkGenerator =
+        new PassphraseGenerator(generator.getWordList(), new DiceRoller());
+    List<Passphrase> passphrases = new ArrayList<>(size);
+    for (int number = first; number < first + size; number++) {
+      Passphrase passphrase = new Passphrase();
+      passphrase.setKey(formatKey(keyPattern, number));
+      passphrase.setWords(chunkGenerator.generate(length));
+      passphrases.add(passphrase);
+    }
+    return passphrases;
+  }
+
+  private Single<Failure> upload(Single<String> authorization, Passphrase passphrase,
+      Consumer<Passphrase> onSaved) {
+    return authorization
+        .flatMap((token) -> dicewareService.post(token, passphrase)
+            .compose(calls.<Passphrase>single(Priority.BACKGROUND)))
+        .doOnSuccess(onSaved)
+        .map((saved) -> Failure.NONE)
+        .onErrorReturn((throwable) -> new Failure(passphrase.getKey(), throwable));
+  }
+
+  private long now() {
+    return clock.now(TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Snapshot of the progress of a bulk generation. The snapshots of a single generation share one
+   * list of failures, appended to as uploads fail; each snapshot only exposes the failures that had
+   * occurred when it was taken.
+   */
+  public static class Progress {
+
+    private final int total;
+    private final int succeeded;
+    private final int failed;
+    private final List<Failure> failures;
+    private final long started;
+    private final long updated;
+
+    private Progress(int total, long started) {
+      this(total, 0, 0, new ArrayList<>(), started, started);
+    }
+
+    private Progress(int total, int succeeded, int failed, List<Failure> failures, long started,
+        long updated) {
+      this.total = total;
+      this.succeeded = succeeded;
+      this.failed = failed;
+      this.failures = failures;
+      this.started = started;
+      this.updated = updated;
+    }
+
+    private Progress next(Failure failure, long now) {
+      if (failure == Failure.NONE) {
+        return new Progress(total, succeeded + 1, failed, failures, started, now);
+      }
+      synchronized (failures) {
+        failures.add(failure);
+      }
+      return new Progress(total, succeeded, failed + 1, failures, started, now);
+    }
+
+    /**
+     * Returns the number of passphrases requested.
+     */
+    public int getTotal() {
+      return total;
+    }
+
+    /**
+     * Returns the number of passphrases uploaded successfully so far.
+     */
+    public int getSucceeded() {
+      return succeeded;
+    }
+
+    /**
+     * Returns the number of passphrases that couldn't be uploaded so far.
+     */
+    public int getFailed() {
+      return failed;
+    }
+
+    /**
+     * Returns the number of uploads completed (successfully or not) so far.
+     */
+    public int getCompleted() {
+      return succeeded + failed;
+    }
+
+    /**
+     * Returns a flag indicating whether all uploads have completed.
+     */
+    public boolean isComplete() {
+      return getCompleted() == total;
+    }
+
+    /**
+     * Returns the time, in milliseconds, from the start of generation to the last completed
+     * upload.
+     */
+    public long getElapsed() {
+      return updated - started;
+    }
+
+    /**
+     * Returns the mean number of uploads completed per minute so far (or zero, if none have).
+     */
+    public double getThroughput() {
+      long elapsed = getElapsed();
+      return (elapsed > 0) ? getCompleted() * 60_000.0 / elapsed : 0;
+    }
+
+    /**
+     * Returns the uploads that had failed when this snapshot was taken, in the order they failed.
+     * The list is copied on each invocation.
+     */
+    public List<Failure> getFailures() {
+      synchronized (failures) {
+        return Collections.unmodifiableList(new ArrayList<>(failures.subList(0, failed)));
+      }
+    }
+
+  }
+
+  /**
+   * Failed upload of a generated passphrase.
+   */
+  public static class Failure {
+
+    private static final Failure NONE = new Failure(null, null);
+
+    private final String key;
+    private final Throwable error;
+
+    private Failure(String key, Throwable error) {
+      this.key = key;
+      this.error = error;
+    }
+
+    /**
+     * Returns the key of the passphrase.
+     */
+    public String getKey() {
+      return key;
+    }
+
+    /**
+     * Returns the cause of failure.
+     */
+    public Throwable getError() {
+      return error;
+    }
+
+  }
+
+  private static class InstanceHolder {
+
+    private static final BulkGenerator INSTANCE = new BulkGenerator(DicewareService.getInstance(),
+        PassphraseGenerator.getInstance(), CallScheduler.getInstance(), Schedulers.computation());
+
+  }
+
+}
@@ -0,0 +1,389 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import edu.cnm.deepdive.diceware.BuildConfig;
+import io.reactivex.CompletableTransformer;
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Observer;
+import io.reactivex.SingleTransformer;
+import io.reactivex.disposables.Disposable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import okhttp3.HttpUrl;
+
+/**
+ * Class implementing the singleton pattern, executing {@link DicewareService} calls on a bounded
+ * pool of threads, in order of {@link Priority}, with a limit on the number of calls in progress
+ * per host. (The Retrofit call adapters used execute each call synchronously on the subscribing
+ * thread, so OkHttp's own per-host limit, which only applies to asynchronous calls, doesn't apply.)
+ * One slot&mdash;in the pool, and for each host&mdash;is reserved for {@link Priority#FOREGROUND}
+ * calls, so that a burst of writes or background work never makes a user-visible read wait for more
+ * than one call to complete. Calls are admitted in priority order, and in submission order within a
+ * priority; a call is never preempted once started.
+ */
+public class CallScheduler {
+
+  /**
+   * Maximum number of calls in progress at once (and of threads in the pool).
+   */
+  public static final int MAX_THREADS = 4;
+
+  /**
+   * Maximum number of calls in progress at once to a single host.
+   */
+  public static final int MAX_PER_HOST = 4;
+
+  private static final int FOREGROUND_RESERVE = 1;
+  private static final long KEEP_ALIVE_SECONDS = 30;
+
+  private final int maxThreads;
+  private final int maxPerHost;
+  private final String defaultHost;
+  private final ExecutorService executor;
+  private final TreeSet<Task<?>> queued;
+  private final Map<String, Integer> runningPerHost;
+  private final int[] queuedPerPriority;
+
+  private long sequence;
+  private int running;
+  private int peakQueued;
+  private long completed;
+
+  /**
+   * Initializes this instance with the specified limits, and the host used by default.
+   *
+   * @param maxThreads maximum number of calls in progress (at least 2).
+   * @param maxPerHost maximum number of calls in progress per host (at least 2).
+   * @param defaultHost host of calls scheduled without an explicit host.
+   */
+  CallScheduler(int maxThreads, int maxPerHost, String defaultHost) {
+    if (maxThreads <= FOREGROUND_RESERVE || maxPerHost <= FOREGROUND_RESERVE) {
+      throw new IllegalArgumentException("Limits must leave room for non-foreground calls.");
+    }
+    this.maxThreads = maxThreads;
+    this.maxPerHost = maxPerHost;
+    this.defaultHost = defaultHost;
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads, KEEP_ALIVE_SECONDS,
+        TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new CallThreadFactory());
+    pool.allowCoreThreadTimeOut(true);
+    executor = pool;
+    queued = new TreeSet<>();
+    runningPerHost = new HashMap<>();
+    queuedPerPriority = new int[Priority.values().length];
+  }
+
+  /**
+   * Returns the singleton instance of this class, scheduling calls to the host of {@link
+   * BuildConfig#BASE_URL} by default.
+   */
+  public static CallScheduler getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Returns a transformer scheduling a {@link io.reactivex.Single} call to the default host with
+   * the specified priority. The call is subscribed to on a thread of the pool once admitted; it
+   * should not specify a scheduler of its own.
+   *
+   * @param priority priority of the call.
+   * @param <T> type of call result.
+   * @return transformer for use with {@link io.reactivex.Single#compose(SingleTransformer)}.
+   */
+  public <T> SingleTransformer<T, T> single(Priority priority) {
+    return (upstream) -> schedule(upstream.toObservable(), priority, defaultHost).singleOrError();
+  }
+
+  /**
+   * Returns a transformer scheduling a {@link io.reactivex.Completable} call to the default host
+   * with the specified priority. See {@link #single(Priority)}.
+   *
+   * @param priority priority of the call.
+   * @return transformer for use with {@link
+   * io.reactivex.Completable#compose(CompletableTransformer)}.
+   */
+  public CompletableTransformer completable(Priority priority) {
+    return (upstream) -> schedule(upstream.toObservable(), priority, defaultHost).ignoreElements();
+  }
+
+  /**
+   * Returns a transformer scheduling an {@link Observable} call (e.g. a streamed response) to the
+   * default host with the specified priority; the call occupies its slot until it terminates. See
+   * {@link #single(Priority)}.
+   *
+   * @param priority priority of the call.
+   * @param <T> type of emitted items.
+   * @return transformer for use with {@link Observable#compose(ObservableTransformer)}.
+   */
+  public <T> ObservableTransformer<T, T> observable(Priority priority) {
+    return (upstream) -> schedule(upstream, priority, defaultHost);
+  }
+
+  /**
+   * Returns an {@link Observable} that queues the specified call when subscribed to, and subscribes
+   * to the call on a thread of the pool once admitted. Disposing of the result before admission
+   * removes the call from the queue.
+   *
+   * @param call source performing the call.
+   * @param priority priority of the call.
+   * @param host host to which the call is made.
+   * @param <T> type of emitted items.
+   * @return scheduled call.
+   */
+  public <T> Observable<T> schedule(Observable<T> call, Priority priority, String host) {
+    return Observable.create((emitter) -> {
+      Task<T> task = new Task<>(call, priority, host, emitter);
+      enqueue(task);
+      emitter.setCancellable(() -> cancel(task));
+    });
+  }
+
+  /**
+   * Returns a snapshot of the current queue depth and related counters.
+   */
+  public synchronized Metrics getMetrics() {
+    return new Metrics(queuedPerPriority.clone(), running, peakQueued, completed);
+  }
+
+  private synchronized void enqueue(Task<?> task) {
+    task.sequence = sequence++;
+    queued.add(task);
+    queuedPerPriority[task.priority.ordinal()]++;
+    peakQueued = Math.max(peakQueued, queued.size());
+    promote();
+  }
+
+  private void cancel(Task<?> task) {
+    boolean dequeued;
+    synchronized (this) {
+      dequeued = queued.remove(task);
+      if (dequeued) {
+        queuedPerPriority[task.priority.ordinal()]--;
+      }
+    }
+    if (!dequeued) {
+      Disposable upstream = task.upstream.getAndSet(null);
+      if (upstream != null) {
+        upstream.dispose();
+      }
+      finish(task);
+    }
+  }
+
+  private void finish(Task<?> task) {
+    if (task.finished.compareAndSet(false, true)) {
+      synchronized (this) {
+        running--;
+        completed++;
+        int hostRunning = runningPerHost.get(task.host) - 1;
+        if (hostRunning > 0) {
+          runningPerHost.put(task.host, hostRunning);
+        } else {
+          runningPerHost.remove(task.host);
+        }
+        promote();
+      }
+    }
+  }
+
+  private void promote() {
+    for (Iterator<Task<?>> iter = queued.iterator(); iter.hasNext() && running < maxThreads; ) {
+      Task<?> task = iter.next();
+      int reserve = (task.priority == Priority.FOREGROUND) ? 0 : FOREGROUND_RESERVE;
+      Integer hostRunning = runningPerHost.get(task.host);
+      int current = (hostRunning != null) ? hostRunning : 0;
+      if (running < maxThreads - reserve && current < maxPerHost - reserve) {
+        iter.remove();
+        queuedPerPriority[task.priority.ordinal()]--;
+        running++;
+        runningPerHost.put(task.host, current + 1);
+        executor.execute(task);
+      }
+    }
+  }
+
+  /**
+   * Priority classes of calls, in descending order of priority.
+   */
+  public enum Priority {
+    /** Reads whose results are awaited by the user interface. */
+    FOREGROUND,
+    /** Writes resulting directly from user actions. */
+    INTERACTIVE,
+    /** Prefetching and synchronization. */
+    BACKGROUND
+  }
+
+  /**
+   * Snapshot of the queue depth and related counters of a {@link CallScheduler}.
+   */
+  public static class Metrics {
+
+    private final int[] queued;
+    private final int running;
+    private final int peakQueued;
+    private final long completed;
+
+    private Metrics(int[] queued, int running, int peakQueued, long completed) {
+      this.queued = queued;
+      this.running = running;
+      this.peakQueued = peakQueued;
+      this.completed = completed;
+    }
+
+    /**
+     * Returns the number of calls of the specified priority waiting to be admitted.
+     */
+    public int getQueued(Priority priority) {
+      return queued[priority.ordinal()];
+    }
+
+    /**
+     * Returns the total number of calls waiting to be admitted.
+     */
+    public int getQueued() {
+      int total = 0;
+      for (int count : queued) {
+        total += count;
+      }
+      return total;
+    }
+
+    /**
+     * Returns the number of calls in progress.
+     */
+    public int getRunning() {
+      return running;
+    }
+
+    /**
+     * Returns the largest number of calls waiting at once since the scheduler was created.
+     */
+    public int getPeakQueued() {
+      return peakQueued;
+    }
+
+    /**
+     * Returns the number of calls completed (or cancelled after admission).
+     */
+    public long getCompleted() {
+      return completed;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("queued=%d (foreground=%d, interactive=%d, background=%d), running=%d, "
+              + "peakQueued=%d, completed=%d", getQueued(), getQueued(Priority.FOREGROUND),
+          getQueued(Priority.INTERACTIVE), getQueued(Priority.BACKGROUND), running, peakQueued,
+          completed);
+    }
+
+  }
+
+  private class Task<T> implements Runnable, Comparable<Task<?>>, Observer<T> {
+
+    private final Observable<T> call;
+    private final Priority priority;
+    private final String host;
+    private final ObservableEmitter<T> emitter;
+    private final AtomicReference<Disposable> upstream = new AtomicReference<>();
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    private long sequence;
+
+    private Task(Observable<T> call, Priority priority, String host,
+        ObservableEmitter<T> emitter) {
+      this.call = call;
+      this.priority = priority;
+      this.host = host;
+      this.emitter = emitter;
+    }
+
+    @Override
+    public void run() {
+      if (emitter.isDisposed()) {
+        finish(this);
+      } else {
+        call.subscribe(this);
+      }
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+      upstream.set(d);
+      if (emitter.isDisposed() && upstream.compareAndSet(d, null)) {
+        d.dispose();
+      }
+    }
+
+    @Override
+    public void onNext(T item) {
+      emitter.onNext(item);
+    }
+
+    @Override
+    public void onError(Throwable e) {
+      finish(this);
+      emitter.tryOnError(e);
+    }
+
+    @Override
+    public void onComplete() {
+      finish(this);
+      emitter.onComplete();
+    }
+
+    @Override
+    public int compareTo(Task<?> other) {
+      int comparison = priority.compareTo(other.priority);
+      return (comparison != 0) ? comparison : Long.compare(sequence, other.sequence);
+    }
+
+  }
+
+  private static class CallThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "diceware-call-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+
+  }
+
+  private static class InstanceHolder {
+
+    private static final CallScheduler INSTANCE = new CallScheduler(MAX_THREADS, MAX_PER_HOST,
+        HttpUrl.get(BuildConfig.BASE_URL).host());
+
+  }
+
+}
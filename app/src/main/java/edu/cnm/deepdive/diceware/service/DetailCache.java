@@ -0,0 +1,118 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import io.reactivex.Scheduler;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, in-memory cache of fully populated (including words) {@link Passphrase} instances,
+ * keyed by ID. When full, the least recently used entry is evicted; entries also expire a fixed
+ * time after they are stored. All methods are thread-safe.
+ */
+class DetailCache {
+
+  private final int capacity;
+  private final long timeToLive;
+  private final Scheduler clock;
+  private final Map<Long, Entry> entries;
+
+  /**
+   * Initializes this instance with the specified size limit, time to live, and clock.
+   *
+   * @param capacity maximum number of entries.
+   * @param timeToLive time, in milliseconds, after which an entry expires.
+   * @param clock {@link Scheduler} supplying the current time.
+   */
+  DetailCache(int capacity, long timeToLive, Scheduler clock) {
+    this.capacity = capacity;
+    this.timeToLive = timeToLive;
+    this.clock = clock;
+    entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+        return size() > DetailCache.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached passphrase with the specified ID, marking it as most recently used.
+   *
+   * @param id passphrase ID.
+   * @return cached passphrase, or {@code null} if not cached (or expired).
+   */
+  synchronized Passphrase get(long id) {
+    Entry entry = entries.get(id);
+    Passphrase passphrase = null;
+    if (entry != null) {
+      if (now() - entry.stored < timeToLive) {
+        passphrase = entry.passphrase;
+      } else {
+        entries.remove(id);
+      }
+    }
+    return passphrase;
+  }
+
+  /**
+   * Stores the specified passphrase, replacing any entry with the same ID. Passphrases without
+   * words are not stored.
+   *
+   * @param passphrase passphrase to cache.
+   */
+  synchronized void put(Passphrase passphrase) {
+    if (passphrase.getWords() != null) {
+      entries.put(passphrase.getId(), new Entry(passphrase, now()));
+    }
+  }
+
+  /**
+   * Removes the entry with the specified ID, if any.
+   *
+   * @param id passphrase ID.
+   */
+  synchronized void remove(long id) {
+    entries.remove(id);
+  }
+
+  /**
+   * Removes all entries.
+   */
+  synchronized void clear() {
+    entries.clear();
+  }
+
+  private long now() {
+    return clock.now(TimeUnit.MILLISECONDS);
+  }
+
+  private static class Entry {
+
+    private final Passphrase passphrase;
+    private final long stored;
+
+    private Entry(Passphrase passphrase, long stored) {
+      this.passphrase = passphrase;
+      this.stored = stored;
+    }
+
+  }
+
+}
@@ -0,0 +1,137 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import android.app.Application;
+import android.text.TextUtils;
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.room.TypeConverter;
+import androidx.room.TypeConverters;
+import edu.cnm.deepdive.diceware.model.Mutation;
+import edu.cnm.deepdive.diceware.model.Mutation.Operation;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import edu.cnm.deepdive.diceware.model.dao.MutationDao;
+import edu.cnm.deepdive.diceware.model.dao.PassphraseDao;
+import edu.cnm.deepdive.diceware.service.DicewareDatabase.Converters;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Room database holding the on-device copy of the current user's passphrases, and the outbox of
+ * changes not yet sent to the server, with singleton-pattern-based instantiation. Since the
+ * passphrase table is only a cache, an older schema is simply discarded on upgrade.
+ */
+@Database(entities = {Passphrase.class, Mutation.class}, version = 2, exportSchema = false)
+@TypeConverters(Converters.class)
+public abstract class DicewareDatabase extends RoomDatabase {
+
+  private static final String DB_NAME = "diceware_db";
+
+  private static Application applicationContext;
+
+  /**
+   * Sets the context required to open (and create, if necessary) the database file.
+   *
+   * @param applicationContext {@link android.content.Context} used for database access.
+   */
+  public static void setApplicationContext(Application applicationContext) {
+    DicewareDatabase.applicationContext = applicationContext;
+  }
+
+  /**
+   * Returns the singleton instance of this database.
+   */
+  public static DicewareDatabase getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Returns the data access object for cached {@link Passphrase} instances.
+   */
+  public abstract PassphraseDao getPassphraseDao();
+
+  /**
+   * Returns the data access object for the outbox of pending {@link Mutation} instances.
+   */
+  public abstract MutationDao getMutationDao();
+
+  private static class InstanceHolder {
+
+    private static final DicewareDatabase INSTANCE =
+        Room.databaseBuilder(applicationContext, DicewareDatabase.class, DB_NAME)
+            .fallbackToDestructiveMigration()
+            .build();
+
+  }
+
+  /**
+   * Type converters used by Room for columns that don't map directly to SQLite types.
+   */
+  public static class Converters {
+
+    private static final String WORD_DELIMITER = " ";
+
+    /**
+     * Joins the specified words into a single, space-delimited {@link String}.
+     *
+     * @param words passphrase words (which must not contain whitespace).
+     * @return delimited representation of {@code words}.
+     */
+    @TypeConverter
+    public static String fromWords(List<String> words) {
+      return (words != null) ? TextUtils.join(WORD_DELIMITER, words) : null;
+    }
+
+    /**
+     * Splits the specified space-delimited {@link String} into a list of words.
+     *
+     * @param words delimited representation of passphrase words.
+     * @return {@link List List&lt;String&gt;} of words.
+     */
+    @TypeConverter
+    public static List<String> toWords(String words) {
+      return (words != null && !words.isEmpty())
+          ? Arrays.asList(words.split(WORD_DELIMITER))
+          : null;
+    }
+
+    /**
+     * Returns the name of the specified {@link Operation}.
+     *
+     * @param operation kind of change.
+     * @return name of {@code operation}.
+     */
+    @TypeConverter
+    public static String fromOperation(Operation operation) {
+      return (operation != null) ? operation.name() : null;
+    }
+
+    /**
+     * Returns the {@link Operation} with the specified name.
+     *
+     * @param name name of kind of change.
+     * @return {@link Operation} named {@code name}.
+     */
+    @TypeConverter
+    public static Operation toOperation(String name) {
+      return (name != null) ? Operation.valueOf(name) : null;
+    }
+
+  }
+
+}
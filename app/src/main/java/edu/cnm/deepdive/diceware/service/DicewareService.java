@@ -18,11 +18,15 @@ package edu.cnm.deepdive.diceware.service;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import edu.cnm.deepdive.diceware.BuildConfig;
+import edu.cnm.deepdive.diceware.generator.WordLists;
 import edu.cnm.deepdive.diceware.model.Passphrase;
 import io.reactivex.Completable;
 import io.reactivex.Observable;
 import io.reactivex.Single;
+import java.io.IOException;
 import java.util.List;
+import okhttp3.OkHttpClient;
+import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
 import retrofit2.converter.gson.GsonConverterFactory;
@@ -30,10 +34,12 @@ import retrofit2.http.Body;
 import retrofit2.http.DELETE;
 import retrofit2.http.GET;
 import retrofit2.http.Header;
+import retrofit2.http.Headers;
 import retrofit2.http.POST;
 import retrofit2.http.PUT;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 /**
  * Declaration of proxy methods used to connect to Diceware server application, with
@@ -42,33 +48,123 @@ import retrofit2.http.Query;
 public interface DicewareService {
 
   /**
-   * Requests all passphrases associated with the currently logged-in user.
+   * Request header forcing conditional revalidation ({@code If-None-Match} or {@code
+   * If-Modified-Since}) of any cached response.
+   */
+  String REVALIDATE_HEADER = "Cache-Control: max-age=0";
+
+  /**
+   * Request header preferring the compact encoding of passphrases (see {@link PassphraseCodec}) to
+   * JSON, for methods that return passphrases.
+   */
+  String NEGOTIATE_HEADER =
+      "Accept: " + PassphraseCodec.MEDIA_TYPE + ", application/json; q=0.5";
+
+  /**
+   * Maximum number of passphrases emitted per batch by {@link #getAll(String)}.
+   */
+  int STREAM_BATCH_SIZE = 100;
+
+  /**
+   * Read timeout, in milliseconds, for {@link #getAll(String)}; this allows for a server that
+   * pauses while assembling a large collection mid-response.
+   */
+  int STREAM_READ_TIMEOUT = 60_000;
+
+  /**
+   * Fields requested by the summary (listing) methods; passphrases returned by these methods have
+   * {@code null} words, which must be fetched individually (e.g. with {@link #get(String, long)}).
+   */
+  String SUMMARY_FIELDS = "id,key";
+
+  /**
+   * Requests all passphrases associated with the currently logged-in user. The response body is
+   * decoded incrementally, and passphrases are emitted in batches of up to {@link
+   * #STREAM_BATCH_SIZE} as they are decoded. The request is always revalidated with the server; if
+   * a cached copy exists and the collection is unchanged, no batches are emitted.
    *
    * @param token OAuth2.0 token.
-   * @return observable list of passphrases.
+   * @return observable sequence of batches of passphrases.
    */
   @GET("passphrases/")
+  @Headers({REVALIDATE_HEADER, NEGOTIATE_HEADER})
+  @ReportNotModified
+  @Streaming
+  @StreamBatches(STREAM_BATCH_SIZE)
+  @Timeouts(read = STREAM_READ_TIMEOUT)
   Observable<List<Passphrase>> getAll(@Header("Authorization") String token);
 
   /**
-   * Requests a single passphrase of the currently logged-in user, with the specified ID.
+   * Requests a page of the passphrases associated with the currently logged-in user. Passphrases
+   * are returned in ascending ID order, starting after the specified cursor ID; a page containing
+   * fewer than {@code limit} passphrases is the last. As with {@link #getAll(String)}, the request
+   * is always revalidated, and an unchanged page results in an empty {@code 304} response.
+   *
+   * @param token OAuth2.0 token.
+   * @param after ID of last passphrase on the preceding page (or zero, for the first page).
+   * @param limit maximum number of passphrases to return.
+   * @return observable response, containing the page of passphrases if modified.
+   */
+  @GET("passphrases/")
+  @Headers({REVALIDATE_HEADER, NEGOTIATE_HEADER})
+  @ReportNotModified
+  Single<Response<List<Passphrase>>> getPage(@Header("Authorization") String token,
+      @Query("after") long after, @Query("limit") int limit);
+
+  /**
+   * Requests summaries (see {@link #SUMMARY_FIELDS}) of all passphrases associated with the
+   * currently logged-in user. Apart from the projection, this behaves as {@link #getAll(String)}.
+   *
+   * @param token OAuth2.0 token.
+   * @return observable sequence of batches of passphrase summaries.
+   */
+  @GET("passphrases/?fields=" + SUMMARY_FIELDS)
+  @Headers({REVALIDATE_HEADER, NEGOTIATE_HEADER})
+  @ReportNotModified
+  @Streaming
+  @StreamBatches(STREAM_BATCH_SIZE)
+  @Timeouts(read = STREAM_READ_TIMEOUT)
+  Observable<List<Passphrase>> getAllSummaries(@Header("Authorization") String token);
+
+  /**
+   * Requests a page of summaries (see {@link #SUMMARY_FIELDS}) of the passphrases associated with
+   * the currently logged-in user. Apart from the projection, this behaves as {@link
+   * #getPage(String, long, int)}.
+   *
+   * @param token OAuth2.0 token.
+   * @param after ID of last passphrase on the preceding page (or zero, for the first page).
+   * @param limit maximum number of passphrases to return.
+   * @return observable response, containing the page of passphrase summaries if modified.
+   */
+  @GET("passphrases/?fields=" + SUMMARY_FIELDS)
+  @Headers({REVALIDATE_HEADER, NEGOTIATE_HEADER})
+  @ReportNotModified
+  Single<Response<List<Passphrase>>> getSummaryPage(@Header("Authorization") String token,
+      @Query("after") long after, @Query("limit") int limit);
+
+  /**
+   * Requests a single passphrase of the currently logged-in user, with the specified ID. The
+   * request is always revalidated with the server; the cached copy is used if unchanged.
    *
    * @param token OAuth2.0 token.
    * @param id unique numeric identifier of passphrase.
    * @return observable result.
    */
   @GET("passphrases/{id}")
+  @Headers({REVALIDATE_HEADER, NEGOTIATE_HEADER})
   Single<Passphrase> get(@Header("Authorization") String token,
       @Path("id") long id);
 
   /**
-   * Requests a single passphrase of the currently logged-in user, with the specified key.
+   * Requests a single passphrase of the currently logged-in user, with the specified key. The
+   * request is always revalidated with the server; the cached copy is used if unchanged.
    *
    * @param token OAuth2.0 token.
    * @param key unique {@link String} identifier of passphrase.
    * @return observable result.
    */
   @GET("passphrases/{key}")
+  @Headers({REVALIDATE_HEADER, NEGOTIATE_HEADER})
   Single<Passphrase> get(@Header("Authorization") String token,
       @Path("key") String key);
 
@@ -91,6 +187,7 @@ public interface DicewareService {
    * @return observable result.
    */
   @PUT("passphrases/{id}")
+  @Headers(NEGOTIATE_HEADER)
   Single<Passphrase> put(@Header("Authorization") String token, @Path("id") long id,
       @Body Passphrase passphrase, @Query("regenerate") boolean regenerate,
       @Query("length") int length);
@@ -104,6 +201,7 @@ public interface DicewareService {
    * @return observable result.
    */
   @POST("passphrases/")
+  @Headers(NEGOTIATE_HEADER)
   Single<Passphrase> post(@Header("Authorization") String token, @Body Passphrase passphrase);
 
   /**
@@ -116,21 +214,44 @@ public interface DicewareService {
     return InstanceHolder.INSTANCE;
   }
 
+  /**
+   * Creates and returns a Retrofit-generated instance of this interface, using the specified HTTP
+   * client, base URL, and codec for the compact encoding. (In general, {@link #getInstance()}
+   * should be used instead.)
+   *
+   * @param client {@link OkHttpClient} used for all requests.
+   * @param baseUrl URL of the Diceware server application.
+   * @param codec encoder and decoder of the compact encoding.
+   * @return Retrofit-generated instance.
+   */
+  static DicewareService create(OkHttpClient client, String baseUrl, PassphraseCodec codec) {
+    // TODO Investigate logging interceptor issues.
+    Gson gson = new GsonBuilder()
+        .excludeFieldsWithoutExposeAnnotation()
+        .registerTypeAdapterFactory(PassphraseAdapterFactory.create())
+        .create();
+    Retrofit retrofit = new Retrofit.Builder()
+        .client(client)
+        .addCallAdapterFactory(StreamingCallAdapterFactory.create(gson, codec))
+        .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
+        .addConverterFactory(PassphraseConverterFactory.create(codec))
+        .addConverterFactory(GsonConverterFactory.create(gson))
+        .baseUrl(baseUrl)
+        .build();
+    return retrofit.create(DicewareService.class);
+  }
+
   class InstanceHolder {
 
     private static final DicewareService INSTANCE;
 
     static {
-      // TODO Investigate logging interceptor issues.
-      Gson gson = new GsonBuilder()
-          .excludeFieldsWithoutExposeAnnotation()
-          .create();
-      Retrofit retrofit = new Retrofit.Builder()
-          .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
-          .addConverterFactory(GsonConverterFactory.create(gson))
-          .baseUrl(BuildConfig.BASE_URL)
-          .build();
-      INSTANCE = retrofit.create(DicewareService.class);
+      try {
+        INSTANCE = create(HttpTransport.getInstance().getClient(), BuildConfig.BASE_URL,
+            new PassphraseCodec(WordLists.getInstance().getIndex(WordLists.EFF_LARGE)));
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
     }
 
   }
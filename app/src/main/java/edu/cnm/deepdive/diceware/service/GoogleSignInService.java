@@ -25,6 +25,7 @@ import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
 import com.google.android.gms.auth.api.signin.GoogleSignInClient;
 import com.google.android.gms.auth.api.signin.GoogleSignInOptions;
 import com.google.android.gms.common.api.ApiException;
+import com.google.android.gms.common.api.CommonStatusCodes;
 import com.google.android.gms.tasks.Task;
 import edu.cnm.deepdive.diceware.BuildConfig;
 
@@ -76,21 +77,65 @@ public class GoogleSignInService {
 
   /**
    * Returns {@link LiveData} allowing observation of the most recent {@link Exception} caught
-   * while attempting to sign in or out.
+   * while attempting to sign in or out. Failures of {@link #refresh()} are only posted if the user
+   * must sign in again (see {@link #requiresSignIn(Exception)}).
    */
   public LiveData<Exception> getException() {
     return exception;
   }
 
   /**
-   * Refreshes the most recently logged-in credentials, if possible.
+   * Returns a flag indicating whether the specified sign-in failure can only be resolved by the
+   * user signing in again (e.g. revoked access, or a removed account), rather than being transient
+   * (e.g. no network connection).
+   *
+   * @param ex exception thrown by a sign-in operation.
+   * @return {@code true} if the user must sign in again; {@code false} otherwise.
+   */
+  public static boolean requiresSignIn(Exception ex) {
+    if (ex instanceof ApiException) {
+      int status = ((ApiException) ex).getStatusCode();
+      return status == CommonStatusCodes.SIGN_IN_REQUIRED
+          || status == CommonStatusCodes.INVALID_ACCOUNT;
+    }
+    return false;
+  }
+
+  /**
+   * Restores the most recently logged-in account from local storage, without contacting the
+   * sign-in service, if its ID token hasn't expired. If restored, the account is posted
+   * immediately; {@link #refresh()} should still be invoked to revalidate it in the background.
+   *
+   * @return {@code true} if the account was restored; {@code false} otherwise.
+   */
+  public boolean restoreLastAccount() {
+    GoogleSignInAccount last = GoogleSignIn.getLastSignedInAccount(applicationContext);
+    if (last == null) {
+      return false;
+    }
+    TokenManager tokens = TokenManager.getInstance();
+    tokens.setAccount(last);
+    if (!tokens.hasValidToken()) {
+      return false;
+    }
+    update(last);
+    return true;
+  }
+
+  /**
+   * Refreshes the most recently logged-in credentials, if possible. If the refresh fails only
+   * transiently (e.g. while offline), the current account is kept, and no exception is posted.
    *
    * @return asynchronous operation on which completion/success/failures listeners can be set.
    */
   public Task<GoogleSignInAccount> refresh() {
     return client.silentSignIn()
         .addOnSuccessListener(this::update)
-        .addOnFailureListener(this::update);
+        .addOnFailureListener((ex) -> {
+          if (requiresSignIn(ex)) {
+            update(ex);
+          }
+        });
   }
 
   /**
@@ -116,7 +161,7 @@ public class GoogleSignInService {
     Task<GoogleSignInAccount> task = null;
     try {
       task = GoogleSignIn.getSignedInAccountFromIntent(data);
-      account.setValue(task.getResult(ApiException.class));
+      update(task.getResult(ApiException.class));
     } catch (ApiException e) {
       update(e);
     }
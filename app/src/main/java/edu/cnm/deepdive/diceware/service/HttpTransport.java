@@ -0,0 +1,193 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import android.app.Application;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Class implementing the singleton pattern, providing the {@link OkHttpClient} (with a bounded,
+ * disk-backed HTTP response cache) used by {@link DicewareService}. The client keeps idle
+ * connections alive for reuse, negotiates HTTP/2 (via ALPN) with servers that support it, and
+ * applies default timeouts, which may be overridden per method with {@link Timeouts}. Response
+ * compression is handled transparently by OkHttp: {@code Accept-Encoding: gzip} is sent with each
+ * request, and compressed responses are decompressed as they are read.
+ */
+public class HttpTransport {
+
+  /**
+   * Default maximum number of idle connections retained for reuse.
+   */
+  public static final int MAX_IDLE_CONNECTIONS = 5;
+
+  /**
+   * Default time, in seconds, for which an idle connection is retained.
+   */
+  public static final long KEEP_ALIVE_SECONDS = 300;
+
+  /**
+   * Default connect timeout, in seconds.
+   */
+  public static final long CONNECT_TIMEOUT_SECONDS = 10;
+
+  /**
+   * Default read and write timeouts, in seconds.
+   */
+  public static final long IO_TIMEOUT_SECONDS = 20;
+
+  private static final String CACHE_DIRECTORY = "http_cache";
+  private static final long CACHE_SIZE = 10L * 1024 * 1024;
+
+  private static Application applicationContext;
+
+  private final Cache cache;
+  private final OkHttpClient client;
+
+  private HttpTransport() {
+    cache = new Cache(new File(applicationContext.getCacheDir(), CACHE_DIRECTORY), CACHE_SIZE);
+    client = newClientBuilder(cache).build();
+  }
+
+  /**
+   * Sets the context required to locate the HTTP cache directory.
+   *
+   * @param applicationContext {@link android.content.Context} used for cache directory access.
+   */
+  public static void setApplicationContext(Application applicationContext) {
+    HttpTransport.applicationContext = applicationContext;
+  }
+
+  /**
+   * Returns the singleton instance of this class.
+   */
+  public static HttpTransport getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Creates and returns an {@link OkHttpClient.Builder} configured with the specified response
+   * cache and a connection pool using the default pool settings. See {@link
+   * #newClientBuilder(Cache, ConnectionPool)}.
+   *
+   * @param cache HTTP response cache.
+   * @return configured builder.
+   */
+  public static OkHttpClient.Builder newClientBuilder(Cache cache) {
+    return newClientBuilder(cache,
+        new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS));
+  }
+
+  /**
+   * Creates and returns an {@link OkHttpClient.Builder} configured with the specified response
+   * cache and connection pool, the default timeouts, HTTP/2 (falling back to HTTP/1.1), and support
+   * for {@link Timeouts} and {@link ReportNotModified} service methods. The returned builder may be
+   * tuned further before use.
+   *
+   * @param cache HTTP response cache.
+   * @param pool pool of reusable connections.
+   * @return configured builder.
+   */
+  public static OkHttpClient.Builder newClientBuilder(Cache cache, ConnectionPool pool) {
+    return new OkHttpClient.Builder()
+        .cache(cache)
+        .connectionPool(pool)
+        .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+        .connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        .readTimeout(IO_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        .writeTimeout(IO_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        .addInterceptor(new TimeoutInterceptor())
+        .addInterceptor(new NotModifiedInterceptor());
+  }
+
+  /**
+   * Opens a connection to the host of the specified URL in the background, if the specified client
+   * doesn't already hold one, so that the next request doesn't wait for connection setup. A {@code
+   * HEAD} request is used for this purpose; its response is discarded.
+   *
+   * @param client client whose connection pool should be warmed.
+   * @param url URL on the host to connect to.
+   */
+  public static void preconnect(OkHttpClient client, HttpUrl url) {
+    if (client.connectionPool().connectionCount() == 0) {
+      Request request = new Request.Builder()
+          .url(url)
+          .head()
+          .cacheControl(CacheControl.FORCE_NETWORK)
+          .build();
+      client.newCall(request).enqueue(new Callback() {
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+          // The connection will be attempted again by the next request.
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+          response.close();
+        }
+
+      });
+    }
+  }
+
+  /**
+   * Returns the shared {@link OkHttpClient}.
+   */
+  public OkHttpClient getClient() {
+    return client;
+  }
+
+  /**
+   * Opens a connection to the host of the specified URL in the background, if there isn't one
+   * already. See {@link #preconnect(OkHttpClient, HttpUrl)}.
+   *
+   * @param url URL on the host to connect to.
+   */
+  public void preconnect(HttpUrl url) {
+    preconnect(client, url);
+  }
+
+  /**
+   * Removes all entries (and their validators) from the HTTP response cache. This must be invoked
+   * whenever the local copy of the data is discarded, so that subsequent conditional requests
+   * aren't answered with {@code 304 Not Modified}.
+   *
+   * @throws IOException if the cache can't be cleared.
+   */
+  public void evictAll() throws IOException {
+    cache.evictAll();
+  }
+
+  private static class InstanceHolder {
+
+    private static final HttpTransport INSTANCE = new HttpTransport();
+
+  }
+
+}
@@ -0,0 +1,416 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import android.app.Application;
+import edu.cnm.deepdive.diceware.model.Mutation;
+import edu.cnm.deepdive.diceware.model.Mutation.Operation;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import edu.cnm.deepdive.diceware.model.dao.MutationDao;
+import edu.cnm.deepdive.diceware.model.dao.PassphraseDao;
+import edu.cnm.deepdive.diceware.service.CallScheduler.Priority;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import retrofit2.HttpException;
+
+/**
+ * Class implementing the singleton pattern, holding changes to the server-based collection in a
+ * persistent outbox (see {@link MutationDao}) until they can be sent. Changes are queued on the
+ * device, so that they survive the app being stopped or killed; {@link OutboxWorker} then drains
+ * the outbox in a single pass whenever a network connection is available, retrying with
+ * exponential backoff after transient failures. Changes to the same passphrase are always sent in
+ * the order they were made; changes to different passphrases are sent in parallel, with a bounded
+ * number in progress at once, since the server has no batch endpoint.
+ */
+public class MutationOutbox {
+
+  /**
+   * Maximum number of attempts to send a mutation before it is discarded as failed.
+   */
+  public static final int MAX_ATTEMPTS = 10;
+
+  /**
+   * Maximum number of changes sent at once: every slot per host that {@link CallScheduler} doesn't
+   * reserve for foreground calls.
+   */
+  public static final int DRAIN_CONCURRENCY = CallScheduler.MAX_PER_HOST - 1;
+
+  private static final int BATCH_SIZE = 50;
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+  private static Application applicationContext;
+
+  private final DicewareService dicewareService;
+  private final PassphraseDao passphraseDao;
+  private final MutationDao mutationDao;
+  private final CallScheduler calls;
+  private final Runnable scheduler;
+  private final Subject<List<Outcome>> outcomes;
+  private final Subject<Integer> pendingCounts;
+
+  /**
+   * Initializes this instance with the specified service, data access objects, call scheduler, and
+   * means of scheduling a drain of the outbox.
+   *
+   * @param dicewareService service used to send changes.
+   * @param passphraseDao local cache of passphrases, updated as changes are accepted.
+   * @param mutationDao outbox of pending changes.
+   * @param calls scheduler on which changes are sent, as {@link Priority#INTERACTIVE} calls.
+   * @param scheduler action invoked (on a background thread) after a change is queued.
+   */
+  MutationOutbox(DicewareService dicewareService, PassphraseDao passphraseDao,
+      MutationDao mutationDao, CallScheduler calls, Runnable scheduler) {
+    this.dicewareService = dicewareService;
+    this.passphraseDao = passphraseDao;
+    this.mutationDao = mutationDao;
+    this.calls = calls;
+    this.scheduler = scheduler;
+    outcomes = PublishSubject.<List<Outcome>>create().toSerialized();
+    pendingCounts = PublishSubject.<Integer>create().toSerialized();
+  }
+
+  /**
+   * Sets the context required to schedule background work.
+   *
+   * @param applicationContext {@link android.content.Context} used for scheduling.
+   */
+  public static void setApplicationContext(Application applicationContext) {
+    MutationOutbox.applicationContext = applicationContext;
+  }
+
+  /**
+   * Returns the singleton instance of this class.
+   */
+  public static MutationOutbox getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Queues the addition of the specified passphrase to the server-based collection.
+   *
+   * @param passphrase new {@link Passphrase} instance.
+   * @return observable completion of queuing (not of sending).
+   */
+  public Completable add(Passphrase passphrase) {
+    return enqueue(Mutation.of(Operation.ADD, passphrase));
+  }
+
+  /**
+   * Queues the update of the specified passphrase in the server-based collection.
+   *
+   * @param passphrase updated {@link Passphrase} instance.
+   * @return observable completion of queuing (not of sending).
+   */
+  public Completable update(Passphrase passphrase) {
+    return enqueue(Mutation.of(Operation.UPDATE, passphrase));
+  }
+
+  /**
+   * Queues the deletion of the specified passphrase from the server-based collection.
+   *
+   * @param passphrase {@link Passphrase} instance to delete.
+   * @return observable completion of queuing (not of sending).
+   */
+  public Completable delete(Passphrase passphrase) {
+    return enqueue(Mutation.of(Operation.DELETE, passphrase));
+  }
+
+  /**
+   * Queues the update of each of the specified passphrases, in a single transaction, scheduling a
+   * single drain of the outbox for all of them.
+   *
+   * @param passphrases updated {@link Passphrase} instances.
+   * @return observable completion of queuing (not of sending).
+   */
+  public Completable updateAll(List<Passphrase> passphrases) {
+    return enqueue(Operation.UPDATE, passphrases);
+  }
+
+  /**
+   * Queues the deletion of each of the specified passphrases, in a single transaction, scheduling
+   * a single drain of the outbox for all of them.
+   *
+   * @param passphrases {@link Passphrase} instances to delete.
+   * @return observable completion of queuing (not of sending).
+   */
+  public Completable deleteAll(List<Passphrase> passphrases) {
+    return enqueue(Operation.DELETE, passphrases);
+  }
+
+  /**
+   * Returns an observable sequence of the outcomes of sending queued changes, as they are accepted
+   * by the server or discarded as failed. The outcomes of each drain are emitted together, once
+   * the drain ends, so that a bulk change can be reconciled with the displayed list in a single
+   * step; they are emitted on the thread draining the outbox.
+   */
+  public Observable<List<Outcome>> getOutcomes() {
+    return outcomes;
+  }
+
+  /**
+   * Returns an observable sequence of the number of pending changes: the current number is read
+   * (on the subscribing thread) and emitted first, followed by the new number each time changes are
+   * queued, a drain ends, or the outbox is cleared. This is intended for a non-blocking indication
+   * of unsent changes, which may remain pending indefinitely while offline.
+   */
+  public Observable<Integer> getPendingCount() {
+    return pendingCounts.mergeWith(Observable.fromCallable(mutationDao::countPending));
+  }
+
+  /**
+   * Sends all pending changes to the server, applying each accepted change to the local cache.
+   * Pending changes are read in batches; within a batch, the changes to each passphrase are sent in
+   * the order they were made, while changes to different passphrases (and all additions) are sent
+   * in parallel, up to {@link #DRAIN_CONCURRENCY} at once. After a transient failure (e.g. a
+   * network error, or a server error response), later changes to the same passphrase are held
+   * back, and the failed change is retried on the next drain; a change that is rejected by the
+   * server (or that has failed {@link #MAX_ATTEMPTS} times) is discarded, and reported as failed
+   * via {@link #getOutcomes()}. This method blocks while sending, and must be subscribed to on a
+   * background scheduler.
+   *
+   * @param token OAuth2.0 token.
+   * @return {@link Single} emitting {@code true} if the outbox was emptied, or {@code false} if
+   * any changes remain to be retried.
+   */
+  public Single<Boolean> drain(String token) {
+    return Single.fromCallable(() -> {
+      Set<Long> held = Collections.synchronizedSet(new HashSet<>());
+      List<Outcome> results = Collections.synchronizedList(new ArrayList<>());
+      boolean drained = true;
+      long after = 0;
+      List<Mutation> batch;
+      try {
+        while (!(batch = mutationDao.selectPending(after, BATCH_SIZE)).isEmpty()) {
+          after = batch.get(batch.size() - 1).getId();
+          drained &= Flowable.fromIterable(sequences(batch))
+              .flatMapSingle((sequence) -> Single.fromCallable(
+                  () -> send(token, sequence, held, results))
+                  .subscribeOn(Schedulers.io()), false, DRAIN_CONCURRENCY)
+              .reduce(true, (all, sent) -> all && sent)
+              .blockingGet();
+        }
+      } finally {
+        synchronized (results) {
+          if (!results.isEmpty()) {
+            outcomes.onNext(new ArrayList<>(results));
+          }
+        }
+        publishPendingCount();
+      }
+      // Changes queued after the last batch was read are left to the retry.
+      return drained && mutationDao.countPending() == 0;
+    });
+  }
+
+  /**
+   * Discards all pending changes (e.g. on sign-out).
+   *
+   * @return observable success/failure result.
+   */
+  public Completable clear() {
+    return Completable.fromAction(() -> {
+      mutationDao.deleteAll();
+      publishPendingCount();
+    });
+  }
+
+  private Completable enqueue(Mutation mutation) {
+    return Completable.fromAction(() -> {
+      mutationDao.enqueue(mutation);
+      publishPendingCount();
+      scheduler.run();
+    });
+  }
+
+  private Completable enqueue(Operation operation, List<Passphrase> passphrases) {
+    return Completable.fromAction(() -> {
+      List<Mutation> mutations = new ArrayList<>(passphrases.size());
+      for (Passphrase passphrase : passphrases) {
+        mutations.add(Mutation.of(operation, passphrase));
+      }
+      if (!mutations.isEmpty()) {
+        mutationDao.enqueueAll(mutations);
+        publishPendingCount();
+        scheduler.run();
+      }
+    });
+  }
+
+  private void publishPendingCount() {
+    pendingCounts.onNext(mutationDao.countPending());
+  }
+
+  private static Collection<List<Mutation>> sequences(List<Mutation> batch) {
+    Map<Long, List<Mutation>> sequences = new LinkedHashMap<>();
+    for (Mutation mutation : batch) {
+      // Additions (with no passphrase ID yet) are independent of each other, so each stands alone.
+      long key = (mutation.getOperation() != Operation.ADD)
+          ? mutation.getPassphraseId() : -mutation.getId();
+      List<Mutation> sequence = sequences.get(key);
+      if (sequence == null) {
+        sequence = new ArrayList<>();
+        sequences.put(key, sequence);
+      }
+      sequence.add(mutation);
+    }
+    return sequences.values();
+  }
+
+  private boolean send(String token, List<Mutation> sequence, Set<Long> held,
+      List<Outcome> results) {
+    boolean sent = true;
+    for (Mutation mutation : sequence) {
+      boolean ordered = mutation.getOperation() != Operation.ADD;
+      if (ordered && held.contains(mutation.getPassphraseId())) {
+        sent = false;
+      } else if (!send(token, mutation, results)) {
+        sent = false;
+        if (ordered) {
+          held.add(mutation.getPassphraseId());
+        }
+      }
+    }
+    return sent;
+  }
+
+  private boolean send(String token, Mutation mutation, List<Outcome> results) {
+    Passphrase passphrase = mutation.toPassphrase();
+    Passphrase saved = null;
+    try {
+      switch (mutation.getOperation()) {
+        case ADD:
+          saved = dicewareService.post(token, passphrase)
+              .compose(calls.<Passphrase>single(Priority.INTERACTIVE))
+              .blockingGet();
+          passphraseDao.insert(saved);
+          break;
+        case UPDATE:
+          saved = dicewareService.put(token, passphrase.getId(), passphrase, false, 0)
+              .compose(calls.<Passphrase>single(Priority.INTERACTIVE))
+              .blockingGet();
+          passphraseDao.insert(saved);
+          break;
+        case DELETE:
+          delete(token, passphrase);
+          passphraseDao.delete(passphrase);
+          break;
+      }
+    } catch (RuntimeException e) {
+      Throwable cause = (e.getCause() instanceof IOException) ? e.getCause() : e;
+      if (isTransient(cause) && mutation.getAttempts() + 1 < MAX_ATTEMPTS) {
+        mutationDao.incrementAttempts(mutation.getId());
+        return false;
+      }
+      mutationDao.delete(mutation);
+      results.add(new Outcome(mutation, null, cause));
+      return true;
+    }
+    mutationDao.delete(mutation);
+    results.add(new Outcome(mutation, saved, null));
+    return true;
+  }
+
+  private void delete(String token, Passphrase passphrase) {
+    try {
+      dicewareService.delete(token, passphrase.getId())
+          .compose(calls.completable(Priority.INTERACTIVE))
+          .blockingAwait();
+    } catch (HttpException e) {
+      if (e.code() != HttpURLConnection.HTTP_NOT_FOUND) {
+        throw e;
+      } // Otherwise, already deleted (e.g. elsewhere), which is the intended result.
+    }
+  }
+
+  private static boolean isTransient(Throwable throwable) {
+    if (throwable instanceof HttpException) {
+      int code = ((HttpException) throwable).code();
+      return code >= HttpURLConnection.HTTP_INTERNAL_ERROR
+          || code == HttpURLConnection.HTTP_UNAUTHORIZED
+          || code == HttpURLConnection.HTTP_CLIENT_TIMEOUT
+          || code == HTTP_TOO_MANY_REQUESTS;
+    }
+    return throwable instanceof IOException;
+  }
+
+  /**
+   * Result of sending a queued change to the server.
+   */
+  public static class Outcome {
+
+    private final Mutation mutation;
+    private final Passphrase saved;
+    private final Throwable error;
+
+    private Outcome(Mutation mutation, Passphrase saved, Throwable error) {
+      this.mutation = mutation;
+      this.saved = saved;
+      this.error = error;
+    }
+
+    /**
+     * Returns the change sent.
+     */
+    public Mutation getMutation() {
+      return mutation;
+    }
+
+    /**
+     * Returns the passphrase as saved by the server, for an accepted addition or update; {@code
+     * null} otherwise.
+     */
+    public Passphrase getSaved() {
+      return saved;
+    }
+
+    /**
+     * Returns the cause of failure, if the change was discarded; {@code null} otherwise.
+     */
+    public Throwable getError() {
+      return error;
+    }
+
+  }
+
+  private static class InstanceHolder {
+
+    private static final MutationOutbox INSTANCE;
+
+    static {
+      DicewareDatabase database = DicewareDatabase.getInstance();
+      INSTANCE = new MutationOutbox(DicewareService.getInstance(), database.getPassphraseDao(),
+          database.getMutationDao(), CallScheduler.getInstance(),
+          () -> OutboxWorker.schedule(applicationContext));
+    }
+
+  }
+
+}
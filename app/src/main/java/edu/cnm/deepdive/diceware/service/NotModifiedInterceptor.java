@@ -0,0 +1,64 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import retrofit2.Invocation;
+
+/**
+ * Application-level {@link Interceptor} that surfaces successful cache revalidations of methods
+ * annotated with {@link ReportNotModified}. When the network response to such a request is {@code
+ * 304 Not Modified}, the cached body is discarded unread, and an empty {@code 304} response is
+ * returned in its place, so that no conversion of the (unchanged) body takes place.
+ */
+public class NotModifiedInterceptor implements Interceptor {
+
+  private static final byte[] EMPTY = new byte[0];
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Request request = chain.request();
+    Response response = chain.proceed(request);
+    Response networkResponse = response.networkResponse();
+    if (isReportable(request)
+        && networkResponse != null
+        && networkResponse.code() == HttpURLConnection.HTTP_NOT_MODIFIED
+        && response.cacheResponse() != null) {
+      ResponseBody body = response.body();
+      if (body != null) {
+        body.close();
+      }
+      response = response.newBuilder()
+          .code(HttpURLConnection.HTTP_NOT_MODIFIED)
+          .message("Not Modified")
+          .body(ResponseBody.create(null, EMPTY))
+          .build();
+    }
+    return response;
+  }
+
+  private boolean isReportable(Request request) {
+    Invocation invocation = request.tag(Invocation.class);
+    return invocation != null
+        && invocation.method().isAnnotationPresent(ReportNotModified.class);
+  }
+
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.RxWorker;
+import androidx.work.WorkManager;
+import androidx.work.WorkerParameters;
+import com.google.android.gms.auth.api.signin.GoogleSignIn;
+import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background worker draining the {@link MutationOutbox}. Work is only run with a network
+ * connection available, so changes made while offline are sent together once the device is back
+ * online; if any changes remain after a drain, the work is retried with exponential backoff.
+ * Changes are only sent with the credentials of the account that made them (see {@link
+ * PassphraseRepository#setOwner(String)}); while another account is signed in, the work is retried
+ * until the changes are cleared, or their owner signs in again.
+ */
+public class OutboxWorker extends RxWorker {
+
+  private static final String WORK_NAME = "mutation_outbox";
+  private static final long BACKOFF_DELAY_SECONDS = 30;
+
+  /**
+   * Initializes this worker. This constructor is invoked by {@link WorkManager}.
+   *
+   * @param context application context.
+   * @param params parameters of this work.
+   */
+  public OutboxWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+    super(context, params);
+  }
+
+  /**
+   * Schedules a drain of the outbox, unless one is already pending, so that a burst of changes is
+   * sent by a single drain. A drain that ends with changes still in the outbox (including any
+   * queued while it ran) is retried.
+   *
+   * @param context {@link Context} used to access {@link WorkManager}.
+   */
+  public static void schedule(Context context) {
+    OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(OutboxWorker.class)
+        .setConstraints(new Constraints.Builder()
+            .setRequiredNetworkType(NetworkType.CONNECTED)
+            .build())
+        .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_DELAY_SECONDS, TimeUnit.SECONDS)
+        .build();
+    WorkManager.getInstance(context)
+        .enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.KEEP, request);
+  }
+
+  @NonNull
+  @Override
+  public Single<Result> createWork() {
+    return Single.fromCallable(this::isOwnerSignedIn)
+        .subscribeOn(Schedulers.io())
+        .flatMap((signedIn) -> signedIn
+            ? TokenManager.getInstance().getAuthorizationHeader()
+                .flatMap(MutationOutbox.getInstance()::drain)
+                .map((drained) -> drained ? Result.success() : Result.retry())
+            : Single.just(Result.retry()))
+        .onErrorReturnItem(Result.retry());
+  }
+
+  private boolean isOwnerSignedIn() {
+    GoogleSignInAccount account = GoogleSignIn.getLastSignedInAccount(getApplicationContext());
+    return account != null && PassphraseRepository.getInstance().isOwnedBy(account.getId());
+  }
+
+}
@@ -0,0 +1,195 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link TypeAdapterFactory} supplying hand-written, reflection-free streaming adapters for {@link
+ * Passphrase} and {@link List List&lt;Passphrase&gt;}. The adapters read and write exactly the
+ * {@link com.google.gson.annotations.Expose @Expose}-annotated fields of {@link Passphrase}, with
+ * the same names and null handling as a {@link Gson} instance configured with {@link
+ * com.google.gson.GsonBuilder#excludeFieldsWithoutExposeAnnotation()}; any other properties in the
+ * JSON are skipped. (Fields added to {@link Passphrase} must be added here as well.)
+ */
+public class PassphraseAdapterFactory implements TypeAdapterFactory {
+
+  static final String ID = "id";
+  static final String KEY = "key";
+  static final String WORDS = "words";
+
+  private PassphraseAdapterFactory() {
+  }
+
+  /**
+   * Creates and returns an instance of this factory.
+   */
+  public static PassphraseAdapterFactory create() {
+    return new PassphraseAdapterFactory();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+    TypeAdapter<T> adapter = null;
+    Class<? super T> rawType = type.getRawType();
+    if (rawType == Passphrase.class) {
+      adapter = (TypeAdapter<T>) new PassphraseAdapter().nullSafe();
+    } else if (isPassphraseList(type.getType(), rawType)) {
+      adapter = (TypeAdapter<T>) new PassphraseListAdapter(new PassphraseAdapter()).nullSafe();
+    }
+    return adapter;
+  }
+
+  private static boolean isPassphraseList(Type type, Class<?> rawType) {
+    return (rawType == List.class || rawType == Collection.class || rawType == ArrayList.class)
+        && type instanceof ParameterizedType
+        && ((ParameterizedType) type).getActualTypeArguments()[0] == Passphrase.class;
+  }
+
+  private static String readString(JsonReader in) throws IOException {
+    JsonToken token = in.peek();
+    String value;
+    if (token == JsonToken.NULL) {
+      in.nextNull();
+      value = null;
+    } else if (token == JsonToken.BOOLEAN) {
+      value = Boolean.toString(in.nextBoolean());
+    } else {
+      value = in.nextString();
+    }
+    return value;
+  }
+
+  private static List<String> readWords(JsonReader in) throws IOException {
+    List<String> words = new ArrayList<>();
+    in.beginArray();
+    while (in.hasNext()) {
+      words.add(readString(in));
+    }
+    in.endArray();
+    return words;
+  }
+
+  private static void writeWords(JsonWriter out, List<String> words) throws IOException {
+    out.beginArray();
+    for (String word : words) {
+      out.value(word);
+    }
+    out.endArray();
+  }
+
+  private static class PassphraseAdapter extends TypeAdapter<Passphrase> {
+
+    @Override
+    public void write(JsonWriter out, Passphrase passphrase) throws IOException {
+      out.beginObject();
+      out.name(ID).value(passphrase.getId());
+      out.name(KEY).value(passphrase.getKey());
+      List<String> words = passphrase.getWords();
+      if (words != null) {
+        writeWords(out.name(WORDS), words);
+      } else {
+        out.name(WORDS).nullValue();
+      }
+      out.endObject();
+    }
+
+    @Override
+    public Passphrase read(JsonReader in) throws IOException {
+      Passphrase passphrase = new Passphrase();
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (in.peek() == JsonToken.NULL) {
+          // Matches reflective binding: null leaves primitives (and the default) unchanged.
+          in.nextNull();
+          continue;
+        }
+        switch (name) {
+          case ID:
+            passphrase.setId(in.nextLong());
+            break;
+          case KEY:
+            passphrase.setKey(readString(in));
+            break;
+          case WORDS:
+            passphrase.setWords(readWords(in));
+            break;
+          default:
+            in.skipValue();
+            break;
+        }
+      }
+      in.endObject();
+      return passphrase;
+    }
+
+  }
+
+  private static class PassphraseListAdapter extends TypeAdapter<List<Passphrase>> {
+
+    private final TypeAdapter<Passphrase> elementAdapter;
+
+    private PassphraseListAdapter(TypeAdapter<Passphrase> elementAdapter) {
+      this.elementAdapter = elementAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, List<Passphrase> passphrases) throws IOException {
+      out.beginArray();
+      for (Passphrase passphrase : passphrases) {
+        if (passphrase != null) {
+          elementAdapter.write(out, passphrase);
+        } else {
+          out.nullValue();
+        }
+      }
+      out.endArray();
+    }
+
+    @Override
+    public List<Passphrase> read(JsonReader in) throws IOException {
+      List<Passphrase> passphrases = new ArrayList<>();
+      in.beginArray();
+      while (in.hasNext()) {
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+          passphrases.add(null);
+        } else {
+          passphrases.add(elementAdapter.read(in));
+        }
+      }
+      in.endArray();
+      return passphrases;
+    }
+
+  }
+
+}
@@ -0,0 +1,282 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import edu.cnm.deepdive.diceware.generator.WordIndex;
+import edu.cnm.deepdive.diceware.generator.WordList;
+import edu.cnm.deepdive.diceware.generator.WordLists;
+import edu.cnm.deepdive.diceware.model.InternedWords;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.util.ArrayList;
+import java.util.List;
+import okhttp3.MediaType;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Utf8;
+
+/**
+ * Encoder and decoder for the compact binary representation of passphrases, negotiated with the
+ * server as an alternative to JSON (see {@link DicewareService#NEGOTIATE_HEADER}). Words found in
+ * the EFF large word list are encoded by position; any other word is encoded literally.
+ * <p>All integers are unsigned base-128 varints (7 bits per byte, least significant group first,
+ * high bit set on all but the last byte). A passphrase is encoded as:</p>
+ * <ol>
+ *   <li>ID;</li>
+ *   <li>key: 0 for {@code null}; otherwise, the length in UTF-8 bytes plus 1, followed by the
+ *   UTF-8 bytes;</li>
+ *   <li>words: 0 for {@code null}; otherwise, the word count plus 1, followed by each word, as
+ *   either {@code index << 1} (dictionary word) or {@code (length << 1) | 1} followed by the UTF-8
+ *   bytes (literal word).</li>
+ * </ol>
+ * <p>A list of passphrases is encoded as the passphrase count, followed by the passphrases.</p>
+ */
+public class PassphraseCodec {
+
+  /**
+   * Media type of the compact encoding, identifying the word list against which words are encoded.
+   */
+  public static final String MEDIA_TYPE =
+      "application/x-diceware-passphrase; wordlist=" + WordLists.EFF_LARGE;
+
+  private static final String TYPE = "application";
+  private static final String SUBTYPE = "x-diceware-passphrase";
+  private static final String WORD_LIST_PARAMETER = "wordlist=" + WordLists.EFF_LARGE;
+  private static final int MAX_STRING_BYTES = 1 << 16;
+  private static final int MAX_WORDS = 1 << 10;
+  private static final int MAX_INITIAL_CAPACITY = 1 << 10;
+
+  private final WordIndex dictionary;
+  private final MediaType mediaType;
+
+  private volatile boolean negotiated;
+
+  /**
+   * Initializes this instance with the specified dictionary.
+   *
+   * @param dictionary EFF large word list (or, for testing, any word list understood by the peer).
+   */
+  public PassphraseCodec(WordList dictionary) {
+    this(new WordIndex(dictionary));
+  }
+
+  /**
+   * Initializes this instance with the specified dictionary index. Decoded words are interned (see
+   * {@link InternedWords}) against this index, so it should be the same instance used by {@link
+   * InternedWords#setDictionary(WordIndex)}.
+   *
+   * @param dictionary index over the EFF large word list.
+   */
+  public PassphraseCodec(WordIndex dictionary) {
+    this.dictionary = dictionary;
+    mediaType = MediaType.get(MEDIA_TYPE);
+  }
+
+  /**
+   * Returns the media type of the compact encoding.
+   */
+  public MediaType mediaType() {
+    return mediaType;
+  }
+
+  /**
+   * Returns a flag indicating whether the specified content type is the compact encoding, recording
+   * (if so) that the server supports it. Once recorded, {@link #isNegotiated()} returns {@code
+   * true}.
+   *
+   * @param contentType media type of a response body (may be {@code null}).
+   * @return {@code true} if the body should be decoded with this codec; {@code false} otherwise.
+   */
+  public boolean negotiate(MediaType contentType) {
+    boolean compact = contentType != null
+        && TYPE.equalsIgnoreCase(contentType.type())
+        && SUBTYPE.equalsIgnoreCase(contentType.subtype())
+        && hasWordListParameter(contentType.toString());
+    if (compact) {
+      negotiated = true;
+    }
+    return compact;
+  }
+
+  /**
+   * Returns a flag indicating whether the server has responded with the compact encoding, and may
+   * therefore be sent request bodies in that encoding.
+   */
+  public boolean isNegotiated() {
+    return negotiated;
+  }
+
+  /**
+   * Writes the specified passphrase.
+   *
+   * @param sink destination.
+   * @param passphrase passphrase to encode.
+   * @throws IOException if the passphrase can't be written.
+   */
+  public void write(BufferedSink sink, Passphrase passphrase) throws IOException {
+    writeVarint(sink, passphrase.getId());
+    writeNullableString(sink, passphrase.getKey());
+    List<String> words = passphrase.getWords();
+    if (words == null) {
+      writeVarint(sink, 0);
+    } else {
+      writeVarint(sink, words.size() + 1);
+      for (String word : words) {
+        String value = (word != null) ? word : "";
+        int index = dictionary.indexOf(value);
+        if (index >= 0) {
+          writeVarint(sink, (long) index << 1);
+        } else {
+          long length = Utf8.size(value);
+          writeVarint(sink, (length << 1) | 1);
+          sink.writeUtf8(value);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the specified list of passphrases.
+   *
+   * @param sink destination.
+   * @param passphrases passphrases to encode; none may be {@code null}.
+   * @throws IOException if the passphrases can't be written.
+   */
+  public void writeList(BufferedSink sink, List<Passphrase> passphrases) throws IOException {
+    writeVarint(sink, passphrases.size());
+    for (Passphrase passphrase : passphrases) {
+      write(sink, passphrase);
+    }
+  }
+
+  /**
+   * Reads a single passphrase.
+   *
+   * @param source encoded passphrase.
+   * @return decoded passphrase.
+   * @throws IOException if the passphrase can't be read, or isn't validly encoded.
+   */
+  public Passphrase read(BufferedSource source) throws IOException {
+    Passphrase passphrase = new Passphrase();
+    passphrase.setId(readVarint(source));
+    passphrase.setKey(readNullableString(source));
+    int count = (int) readBounded(source, MAX_WORDS + 1);
+    if (count > 0) {
+      InternedWords.Builder words = new InternedWords.Builder(dictionary, --count);
+      int dictionarySize = dictionary.getWordList().size();
+      for (int i = 0; i < count; i++) {
+        long tag = readVarint(source);
+        if ((tag & 1) == 0) {
+          long index = tag >>> 1;
+          if (index >= dictionarySize) {
+            throw new ProtocolException("Word index out of range: " + index);
+          }
+          words.addIndex((int) index);
+        } else {
+          long length = tag >>> 1;
+          if (length > MAX_STRING_BYTES) {
+            throw new ProtocolException("Word too long: " + length);
+          }
+          words.add(source.readUtf8(length));
+        }
+      }
+      passphrase.setWords(words.build());
+    }
+    return passphrase;
+  }
+
+  /**
+   * Reads the count that precedes the passphrases of an encoded list. Each of the passphrases can
+   * then be read with {@link #read(BufferedSource)}.
+   *
+   * @param source encoded passphrase list.
+   * @return number of passphrases in the list.
+   * @throws IOException if the count can't be read.
+   */
+  public int readListSize(BufferedSource source) throws IOException {
+    return (int) readBounded(source, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Reads a list of passphrases.
+   *
+   * @param source encoded passphrase list.
+   * @return decoded passphrases.
+   * @throws IOException if the passphrases can't be read, or aren't validly encoded.
+   */
+  public List<Passphrase> readList(BufferedSource source) throws IOException {
+    int size = readListSize(source);
+    List<Passphrase> passphrases = new ArrayList<>(Math.min(size, MAX_INITIAL_CAPACITY));
+    for (int i = 0; i < size; i++) {
+      passphrases.add(read(source));
+    }
+    return passphrases;
+  }
+
+  private static boolean hasWordListParameter(String mediaType) {
+    String[] parts = mediaType.split(";");
+    for (int i = 1; i < parts.length; i++) {
+      if (parts[i].trim().replace("\"", "").equalsIgnoreCase(WORD_LIST_PARAMETER)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void writeNullableString(BufferedSink sink, String value) throws IOException {
+    if (value == null) {
+      writeVarint(sink, 0);
+    } else {
+      writeVarint(sink, Utf8.size(value) + 1);
+      sink.writeUtf8(value);
+    }
+  }
+
+  private static String readNullableString(BufferedSource source) throws IOException {
+    long length = readBounded(source, MAX_STRING_BYTES + 1);
+    return (length > 0) ? source.readUtf8(length - 1) : null;
+  }
+
+  private static void writeVarint(BufferedSink sink, long value) throws IOException {
+    while ((value & ~0x7fL) != 0) {
+      sink.writeByte((int) ((value & 0x7f) | 0x80));
+      value >>>= 7;
+    }
+    sink.writeByte((int) value);
+  }
+
+  private static long readVarint(BufferedSource source) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = source.readByte();
+      value |= (long) (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new ProtocolException("Malformed varint.");
+  }
+
+  private static long readBounded(BufferedSource source, long max) throws IOException {
+    long value = readVarint(source);
+    if (value < 0 || value > max) {
+      throw new ProtocolException("Value out of range: " + value);
+    }
+    return value;
+  }
+
+}
@@ -0,0 +1,110 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * {@link Converter.Factory} for {@link Passphrase} and {@link List List&lt;Passphrase&gt;} bodies
+ * in the compact encoding implemented by {@link PassphraseCodec}, falling back to the next
+ * converter (JSON) when the compact encoding isn't in use. Response bodies are decoded according to
+ * their {@code Content-Type}; request bodies are only sent in the compact encoding once the server
+ * has responded in it, since that is the only evidence of server support available to the client.
+ * This factory must be added before the JSON converter factory.
+ */
+public class PassphraseConverterFactory extends Converter.Factory {
+
+  private final PassphraseCodec codec;
+
+  private PassphraseConverterFactory(PassphraseCodec codec) {
+    this.codec = codec;
+  }
+
+  /**
+   * Creates and returns an instance using the specified codec.
+   *
+   * @param codec encoder and decoder of the compact encoding.
+   * @return converter factory.
+   */
+  public static PassphraseConverterFactory create(PassphraseCodec codec) {
+    return new PassphraseConverterFactory(codec);
+  }
+
+  @Override
+  public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+      Retrofit retrofit) {
+    Converter<ResponseBody, ?> converter = null;
+    if (type == Passphrase.class) {
+      Converter<ResponseBody, ?> fallback =
+          retrofit.nextResponseBodyConverter(this, type, annotations);
+      converter = (ResponseBody body) -> {
+        if (!codec.negotiate(body.contentType())) {
+          return fallback.convert(body);
+        }
+        try (ResponseBody compact = body) {
+          return codec.read(compact.source());
+        }
+      };
+    } else if (isPassphraseList(type)) {
+      Converter<ResponseBody, ?> fallback =
+          retrofit.nextResponseBodyConverter(this, type, annotations);
+      converter = (ResponseBody body) -> {
+        if (!codec.negotiate(body.contentType())) {
+          return fallback.convert(body);
+        }
+        try (ResponseBody compact = body) {
+          return codec.readList(compact.source());
+        }
+      };
+    }
+    return converter;
+  }
+
+  @Override
+  public Converter<?, RequestBody> requestBodyConverter(Type type,
+      Annotation[] parameterAnnotations, Annotation[] methodAnnotations, Retrofit retrofit) {
+    Converter<?, RequestBody> converter = null;
+    if (type == Passphrase.class) {
+      Converter<Passphrase, RequestBody> fallback =
+          retrofit.nextRequestBodyConverter(this, type, parameterAnnotations, methodAnnotations);
+      converter = (Passphrase passphrase) -> {
+        if (!codec.isNegotiated()) {
+          return fallback.convert(passphrase);
+        }
+        Buffer buffer = new Buffer();
+        codec.write(buffer, passphrase);
+        return RequestBody.create(codec.mediaType(), buffer.readByteString());
+      };
+    }
+    return converter;
+  }
+
+  private static boolean isPassphraseList(Type type) {
+    return getRawType(type) == List.class
+        && type instanceof ParameterizedType
+        && getParameterUpperBound(0, (ParameterizedType) type) == Passphrase.class;
+  }
+
+}
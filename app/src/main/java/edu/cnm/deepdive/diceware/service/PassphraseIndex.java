@@ -0,0 +1,448 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+
+/**
+ * In-memory search index over the keys and words of the locally cached passphrases. Keys and words
+ * are split into tokens (runs of letters and digits, compared without regard to case); each token
+ * is held in a sorted map, with a sorted array of the IDs of the passphrases containing it. A query
+ * matches the passphrases containing all of its tokens, with the last token matched as a prefix
+ * (as the user is still typing it). It's answered by walking the smallest of the matching arrays in
+ * ID order, checking each ID against the others with galloping searches, and stopping at the
+ * result limit; the rest of the collection is never visited. The index is updated incrementally as
+ * passphrases are cached, changed, and removed. All methods are thread-safe.
+ */
+class PassphraseIndex {
+
+  /**
+   * Minimum length of the last token of a query for it to be matched as a prefix; a shorter token
+   * (which would be a prefix of a large fraction of all tokens) must match exactly.
+   */
+  static final int MIN_PREFIX_LENGTH = 2;
+
+  private static final String[] NO_TOKENS = new String[0];
+  private static final long[] NO_IDS = new long[0];
+  private static final Entry[] NO_ENTRIES = new Entry[0];
+
+  private final NavigableMap<String, Postings> tokens = new TreeMap<>();
+  private final NavigableMap<Long, Entry> entries = new TreeMap<>();
+
+  private boolean loaded;
+
+  /**
+   * Loads the index with the passphrases supplied by the specified source, if it hasn't been loaded
+   * already. Changes reported (with the other methods of this class) before the index is loaded are
+   * ignored, since they are expected to be included in the loaded collection; the source is read
+   * while holding the lock of this index, so that changes reported while loading are applied after
+   * it.
+   *
+   * @param source supplier of the locally cached passphrases.
+   * @throws Exception if thrown by {@code source}.
+   */
+  synchronized void load(Callable<List<Passphrase>> source) throws Exception {
+    if (!loaded) {
+      loaded = true;
+      try {
+        putAll(source.call());
+      } catch (Exception e) {
+        clear();
+        loaded = false;
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Adds or replaces the specified passphrase. If it has no words (i.e. it's a summary), the words
+   * already indexed for it, if any, are kept.
+   *
+   * @param passphrase passphrase (or summary) to index.
+   */
+  synchronized void put(Passphrase passphrase) {
+    if (loaded) {
+      Entry entry = entries.get(passphrase.getId());
+      if (entry == null) {
+        entry = new Entry(passphrase.getId());
+        entries.put(entry.id, entry);
+      }
+      List<String> words = (passphrase.getWords() != null) ? passphrase.getWords() : entry.words;
+      String[] added = tokenize(passphrase.getKey(), words);
+      if (!Arrays.equals(entry.tokens, added)) {
+        unindex(entry.id, entry.tokens);
+        entry.tokens = index(entry, added);
+      }
+      entry.passphrase = passphrase;
+      entry.words = words;
+    }
+  }
+
+  /**
+   * Adds or replaces the specified passphrases; see {@link #put(Passphrase)}.
+   *
+   * @param passphrases passphrases (or summaries) to index.
+   */
+  synchronized void putAll(Collection<Passphrase> passphrases) {
+    for (Passphrase passphrase : passphrases) {
+      put(passphrase);
+    }
+  }
+
+  /**
+   * Removes the passphrase with the specified ID, if indexed.
+   *
+   * @param id passphrase ID.
+   */
+  synchronized void remove(long id) {
+    Entry entry = entries.remove(id);
+    if (entry != null) {
+      unindex(id, entry.tokens);
+    }
+  }
+
+  /**
+   * Removes all passphrases except those with the specified IDs.
+   *
+   * @param retained IDs of passphrases to retain.
+   */
+  synchronized void retainOnly(Set<Long> retained) {
+    removeExcept(entries, retained);
+  }
+
+  /**
+   * Reconciles the index with a page of the server-based collection, in the same way as {@link
+   * edu.cnm.deepdive.diceware.model.dao.PassphraseDao#reconcilePage(long, List, boolean)}.
+   *
+   * @param after ID of last passphrase on the preceding page (or zero, for the first page).
+   * @param page passphrases returned by the server, in ID order.
+   * @param last flag indicating whether {@code page} is the last page.
+   */
+  synchronized void reconcilePage(long after, List<Passphrase> page, boolean last) {
+    if (loaded) {
+      long through = (last || page.isEmpty()) ? Long.MAX_VALUE : page.get(page.size() - 1).getId();
+      Set<Long> retained = new HashSet<>();
+      for (Passphrase passphrase : page) {
+        retained.add(passphrase.getId());
+      }
+      removeExcept(entries.subMap(after, false, through, true), retained);
+      putAll(page);
+    }
+  }
+
+  /**
+   * Removes all passphrases. The index remains loaded, so subsequent changes are applied.
+   */
+  synchronized void clear() {
+    entries.clear();
+    tokens.clear();
+  }
+
+  /**
+   * Returns the passphrases matching the specified query, in ID order. An empty query (one with no
+   * letters or digits) matches nothing.
+   *
+   * @param query search text.
+   * @param limit maximum number of passphrases to return.
+   * @return matching passphrases; these are the instances most recently indexed, which may be
+   * summaries.
+   */
+  synchronized List<Passphrase> search(String query, int limit) {
+    List<String> terms = new ArrayList<>();
+    split(query, terms);
+    if (terms.isEmpty()) {
+      return Collections.emptyList();
+    }
+    String last = terms.get(terms.size() - 1);
+    boolean prefix = last.length() >= MIN_PREFIX_LENGTH;
+    List<Postings> exact = new ArrayList<>();
+    for (String term : prefix ? terms.subList(0, terms.size() - 1) : terms) {
+      Postings postings = tokens.get(term);
+      if (postings == null) {
+        return Collections.emptyList();
+      }
+      exact.add(postings);
+    }
+    Collections.sort(exact, (a, b) -> Integer.compare(a.size, b.size));
+    Union range = prefix
+        ? new Union(tokens.subMap(last, true, last + Character.MAX_VALUE, false).values())
+        : null;
+    // Candidates are drawn, in ID order, from the smallest source, and looked up in the others.
+    Union candidates;
+    if (range != null && (exact.isEmpty() || range.size < exact.get(0).size)) {
+      candidates = range;
+      range = null;
+    } else {
+      candidates = new Union(exact.subList(0, 1));
+      exact = exact.subList(1, exact.size());
+    }
+    int[] positions = new int[exact.size()];
+    List<Passphrase> results = new ArrayList<>();
+    for (long id = candidates.ceiling(Long.MIN_VALUE);
+        id != Long.MAX_VALUE && results.size() < limit; id = candidates.ceiling(id + 1)) {
+      if (containsAll(exact, positions, id) && (range == null || range.ceiling(id) == id)) {
+        results.add(candidates.entry().passphrase);
+      }
+    }
+    return results;
+  }
+
+
+  /**
+   * Returns the number of passphrases indexed.
+   */
+  synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns {@code true} if all of the specified postings contain {@code id}. Each search starts at
+   * (and advances) the corresponding element of {@code positions}, so IDs must be specified in
+   * ascending order.
+   */
+  private static boolean containsAll(List<Postings> postings, int[] positions, long id) {
+    for (int i = 0; i < positions.length; i++) {
+      int position = postings.get(i).search(positions[i], id);
+      if (position < 0) {
+        positions[i] = -position - 1;
+        return false;
+      }
+      positions[i] = position;
+    }
+    return true;
+  }
+
+  private void removeExcept(Map<Long, Entry> range, Set<Long> retained) {
+    for (Iterator<Map.Entry<Long, Entry>> iter = range.entrySet().iterator(); iter.hasNext(); ) {
+      Map.Entry<Long, Entry> entry = iter.next();
+      if (!retained.contains(entry.getKey())) {
+        unindex(entry.getKey(), entry.getValue().tokens);
+        iter.remove();
+      }
+    }
+  }
+
+  private String[] index(Entry entry, String[] added) {
+    for (int i = 0; i < added.length; i++) {
+      Map.Entry<String, Postings> existing = tokens.ceilingEntry(added[i]);
+      if (existing != null && existing.getKey().equals(added[i])) {
+        added[i] = existing.getKey(); // Share one instance of each token.
+        existing.getValue().add(entry);
+      } else {
+        Postings postings = new Postings();
+        postings.add(entry);
+        tokens.put(added[i], postings);
+      }
+    }
+    return added;
+  }
+
+  private void unindex(long id, String[] removed) {
+    for (String token : removed) {
+      Postings postings = tokens.get(token);
+      if (postings != null && postings.remove(id) && postings.size == 0) {
+        tokens.remove(token);
+      }
+    }
+  }
+
+  /**
+   * Splits the specified key and words into distinct tokens, in lower case, sorted.
+   */
+  private static String[] tokenize(String key, List<String> words) {
+    List<String> found = new ArrayList<>();
+    split(key, found);
+    if (words != null) {
+      for (String word : words) {
+        split(word, found);
+      }
+    }
+    if (found.isEmpty()) {
+      return NO_TOKENS;
+    }
+    String[] tokens = found.toArray(NO_TOKENS);
+    Arrays.sort(tokens);
+    int count = 0;
+    for (String token : tokens) {
+      if (count == 0 || !token.equals(tokens[count - 1])) {
+        tokens[count++] = token;
+      }
+    }
+    return (count == tokens.length) ? tokens : Arrays.copyOf(tokens, count);
+  }
+
+  private static void split(String text, List<String> found) {
+    if (text != null) {
+      int start = -1;
+      for (int i = 0; i <= text.length(); i++) {
+        boolean inToken = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+        if (inToken && start < 0) {
+          start = i;
+        } else if (!inToken && start >= 0) {
+          found.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+          start = -1;
+        }
+      }
+    }
+  }
+
+  private static class Entry {
+
+    private final long id;
+
+    private Passphrase passphrase;
+    private List<String> words;
+    private String[] tokens = NO_TOKENS;
+
+    private Entry(long id) {
+      this.id = id;
+    }
+
+  }
+
+  /**
+   * Sorted, growable array of the IDs of the passphrases containing a token, with a parallel array
+   * of the corresponding entries, so that matches are resolved without a lookup by ID.
+   */
+  private static class Postings {
+
+    private long[] ids = NO_IDS;
+    private Entry[] entries = NO_ENTRIES;
+    private int size;
+
+    private void add(Entry entry) {
+      // IDs are assigned in increasing order, so most additions are appends.
+      int position = (size == 0 || ids[size - 1] < entry.id)
+          ? -size - 1 : Arrays.binarySearch(ids, 0, size, entry.id);
+      if (position < 0) {
+        position = -position - 1;
+        if (size == ids.length) {
+          ids = Arrays.copyOf(ids, Math.max(2 * size, 4));
+          entries = Arrays.copyOf(entries, ids.length);
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        System.arraycopy(entries, position, entries, position + 1, size - position);
+        ids[position] = entry.id;
+        entries[position] = entry;
+        size++;
+      }
+    }
+
+    private boolean remove(long id) {
+      int position = Arrays.binarySearch(ids, 0, size, id);
+      if (position >= 0) {
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        System.arraycopy(entries, position + 1, entries, position, size - position - 1);
+        entries[--size] = null;
+        if (size < ids.length / 4) {
+          ids = Arrays.copyOf(ids, size);
+          entries = Arrays.copyOf(entries, size);
+        }
+      }
+      return position >= 0;
+    }
+
+    /**
+     * Searches for the specified ID at or after the specified position, probing at exponentially
+     * increasing distances before searching the bracketed range, so that a search for an ID close
+     * to {@code from} takes only a few comparisons.
+     *
+     * @return position of {@code id}, if found; otherwise, {@code (-(insertion point) - 1)}.
+     */
+    private int search(int from, long id) {
+      int low = from;
+      int step = 1;
+      while (low + step < size && ids[low + step] < id) {
+        low += step;
+        step <<= 1;
+      }
+      return Arrays.binarySearch(ids, low, Math.min(low + step + 1, size), id);
+    }
+
+  }
+
+  /**
+   * Sorted union of the IDs in several {@link Postings}, produced lazily in ascending order, so
+   * that a query can stop once it has enough results without visiting the rest.
+   */
+  private static class Union {
+
+    private final Postings[] lists;
+    private final int[] positions;
+    private final PriorityQueue<Integer> heads;
+    private final int size;
+
+    private Union(Collection<Postings> sources) {
+      lists = sources.toArray(new Postings[0]);
+      positions = new int[lists.length];
+      int size = 0;
+      for (Postings postings : lists) {
+        size += postings.size;
+      }
+      this.size = size;
+      heads = new PriorityQueue<>(Math.max(lists.length, 1),
+          (a, b) -> Long.compare(lists[a].ids[positions[a]], lists[b].ids[positions[b]]));
+      for (int i = 0; i < lists.length; i++) {
+        heads.add(i);
+      }
+    }
+
+    /**
+     * Returns the entry with the ID most recently returned by {@link #ceiling(long)}.
+     */
+    private Entry entry() {
+      int list = heads.peek();
+      return lists[list].entries[positions[list]];
+    }
+
+    /**
+     * Returns the lowest ID in the union not less than {@code target}, or {@link Long#MAX_VALUE}
+     * if there is none. Targets must be specified in non-decreasing order.
+     */
+    private long ceiling(long target) {
+      while (!heads.isEmpty()) {
+        int list = heads.peek();
+        Postings postings = lists[list];
+        if (postings.ids[positions[list]] >= target) {
+          return postings.ids[positions[list]];
+        }
+        heads.poll();
+        int position = postings.search(positions[list], target);
+        positions[list] = (position >= 0) ? position : -position - 1;
+        if (positions[list] < postings.size) {
+          heads.add(list);
+        }
+      }
+      return Long.MAX_VALUE;
+    }
+
+  }
+
+}
@@ -0,0 +1,433 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.SharedPreferences;
+import edu.cnm.deepdive.diceware.BuildConfig;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import edu.cnm.deepdive.diceware.model.dao.PassphraseDao;
+import edu.cnm.deepdive.diceware.service.CallScheduler.Priority;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import java.net.HttpURLConnection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import okhttp3.HttpUrl;
+import retrofit2.HttpException;
+
+/**
+ * Class implementing the singleton pattern, mediating between the local {@link DicewareDatabase}
+ * cache and the server-based collection accessed via {@link DicewareService}. Listings (pages and
+ * full synchronization) retrieve only passphrase summaries (IDs and keys); the words of a
+ * passphrase are retrieved on demand with {@link #getDetails(String, long)}, and kept in a bounded,
+ * in-memory cache. Pages are in ID order (not key order), so that the ID of the last passphrase on
+ * a page serves as the cursor for the next. Changes are queued in the {@link MutationOutbox}, and
+ * sent in the background. The keys and cached words of the local collection are searchable with
+ * {@link #search(String)}, using an in-memory index that is kept current as the local cache
+ * changes. The local cache and the queued changes belong to a single account (see {@link
+ * #setOwner(String)}). None of the reactive results returned by this class specify a scheduler;
+ * consumers should subscribe on a background scheduler.
+ */
+public class PassphraseRepository {
+
+  /**
+   * Number of passphrases requested per page.
+   */
+  public static final int PAGE_SIZE = 50;
+
+  private static final int DETAIL_CACHE_SIZE = 200;
+  private static final long DETAIL_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(5);
+  private static final int PREFETCH_CONCURRENCY = 2;
+  private static final int SEARCH_LIMIT = 500;
+  private static final String PREFERENCES_NAME = "passphrase_repository";
+  private static final String OWNER_KEY = "owner";
+
+  private static Application applicationContext;
+
+  private final DicewareService dicewareService;
+  private final PassphraseDao passphraseDao;
+  private final MutationOutbox outbox;
+  private final CallScheduler calls;
+  private final DetailCache details;
+  private final PassphraseIndex index;
+  private final Map<Long, Single<Passphrase>> detailRequests;
+  private final SharedPreferences preferences;
+
+  private PassphraseRepository() {
+    dicewareService = DicewareService.getInstance();
+    passphraseDao = DicewareDatabase.getInstance().getPassphraseDao();
+    details = new DetailCache(DETAIL_CACHE_SIZE, DETAIL_TIME_TO_LIVE, Schedulers.computation());
+    detailRequests = new HashMap<>();
+    index = new PassphraseIndex();
+    outbox = MutationOutbox.getInstance();
+    calls = CallScheduler.getInstance();
+    preferences = applicationContext.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    outbox.getOutcomes().subscribe((outcomes) -> {
+      for (MutationOutbox.Outcome outcome : outcomes) {
+        if (outcome.getSaved() != null) {
+          details.put(outcome.getSaved());
+          index.put(outcome.getSaved());
+        } else {
+          details.remove(outcome.getMutation().getPassphraseId());
+          if (outcome.getError() == null) {
+            index.remove(outcome.getMutation().getPassphraseId());
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Sets the context required to record the account owning the local cache.
+   *
+   * @param applicationContext {@link android.content.Context} used for preferences access.
+   */
+  public static void setApplicationContext(Application applicationContext) {
+    PassphraseRepository.applicationContext = applicationContext;
+  }
+
+  /**
+   * Returns the singleton instance of this repository.
+   */
+  public static PassphraseRepository getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Reconciles the entire local cache with the summaries of the server-based collection. Summaries
+   * are written to the local cache (keeping any words already cached), and emitted, in batches as
+   * they are decoded from the response; once the response has been read completely, any cached
+   * passphrases not included in it are deleted. If the server reports that the collection is
+   * unchanged since it was last retrieved, no batches are emitted, and the local cache is left as
+   * is.
+   *
+   * @param token OAuth2.0 token.
+   * @return observable sequence of batches of passphrase summaries.
+   */
+  public Observable<List<Passphrase>> synchronize(String token) {
+    return Observable.defer(() -> {
+      Set<Long> retained = new HashSet<>();
+      AtomicBoolean modified = new AtomicBoolean();
+      return dicewareService.getAllSummaries(token)
+          .doOnNext((batch) -> {
+            modified.set(true);
+            passphraseDao.upsert(batch);
+            index.putAll(batch);
+            for (Passphrase passphrase : batch) {
+              retained.add(passphrase.getId());
+            }
+          })
+          .doOnComplete(() -> {
+            if (modified.get()) {
+              passphraseDao.retainOnly(retained);
+              index.retainOnly(retained);
+            }
+          });
+    });
+  }
+
+  /**
+   * Returns a page of the locally cached passphrases, without contacting the server.
+   *
+   * @param after ID of last passphrase on the preceding page (or zero, for the first page).
+   * @return cached page of passphrases.
+   */
+  public Single<List<Passphrase>> getCachedPage(long after) {
+    return Single.fromCallable(() -> passphraseDao.selectPage(after, PAGE_SIZE));
+  }
+
+  /**
+   * Retrieves a page of summaries of the server-based collection, reconciles the corresponding
+   * range of the local cache with it, and returns the page. If the server reports that the page is
+   * unchanged since it was last retrieved, the cached page is returned.
+   *
+   * @param token OAuth2.0 token.
+   * @param after ID of last passphrase on the preceding page (or zero, for the first page).
+   * @return page of passphrases; a page of fewer than {@link #PAGE_SIZE} items is the last.
+   */
+  public Single<List<Passphrase>> refreshPage(String token, long after) {
+    return dicewareService.getSummaryPage(token, after, PAGE_SIZE)
+        .map((response) -> {
+          if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            return passphraseDao.selectPage(after, PAGE_SIZE);
+          }
+          if (!response.isSuccessful()) {
+            throw new HttpException(response);
+          }
+          List<Passphrase> page = response.body();
+          passphraseDao.reconcilePage(after, page, page.size() < PAGE_SIZE);
+          index.reconcilePage(after, page, page.size() < PAGE_SIZE);
+          return page;
+        });
+  }
+
+  /**
+   * Returns the passphrase with the specified ID, including its words. A copy in the in-memory
+   * detail cache is returned if available; otherwise, the passphrase is retrieved from the server
+   * (sharing any request for the same ID already in progress), and written to both caches. If the
+   * server can't be reached, a copy in the local cache is returned, if it includes words.
+   *
+   * @param token OAuth2.0 token.
+   * @param id passphrase ID.
+   * @return passphrase with words.
+   */
+  public Single<Passphrase> getDetails(String token, long id) {
+    return Single.defer(() -> {
+      Passphrase cached = details.get(id);
+      return (cached != null) ? Single.just(cached) : fetchDetails(token, id);
+    })
+        .onErrorResumeNext((throwable) -> Maybe.fromCallable(() -> passphraseDao.select(id))
+            .filter((passphrase) -> passphrase.getWords() != null)
+            .switchIfEmpty(Single.error(throwable)));
+  }
+
+  /**
+   * Retrieves and caches the words of the passphrases with the specified IDs, with a bounded number
+   * of requests in progress at once, as {@link Priority#BACKGROUND} calls. Passphrases already in
+   * the detail cache are skipped, and failures are ignored.
+   *
+   * @param token OAuth2.0 token.
+   * @param ids passphrase IDs.
+   * @return observable completion.
+   */
+  public Completable prefetchDetails(String token, List<Long> ids) {
+    return Flowable.fromIterable(ids)
+        .filter((id) -> details.get(id) == null)
+        .flatMapCompletable((id) -> fetchDetails(token, id)
+            .compose(calls.<Passphrase>single(Priority.BACKGROUND))
+            .ignoreElement()
+            .onErrorComplete(), false, PREFETCH_CONCURRENCY);
+  }
+
+  /**
+   * Returns the locally cached passphrases whose keys and words (where cached) contain all of the
+   * words of the specified query, in ID order; the last word of the query also matches as a prefix.
+   * The search index is loaded from the local cache on first use, and updated incrementally after
+   * that, so each query only consults the index.
+   *
+   * @param query search text.
+   * @return matching passphrases (which may be summaries), up to a fixed limit.
+   */
+  public Single<List<Passphrase>> search(String query) {
+    return Single.fromCallable(() -> {
+      index.load(passphraseDao::selectAll);
+      return index.search(query, SEARCH_LIMIT);
+    });
+  }
+
+  /**
+   * Queues a new passphrase in the {@link MutationOutbox}, to be sent to the server in the
+   * background; the saved instance (as returned by the server) is added to the local cache when
+   * sent, and reported via {@link #getMutationOutcomes()}.
+   *
+   * @param passphrase new {@link Passphrase} instance.
+   * @return observable completion of queuing.
+   */
+  public Completable add(Passphrase passphrase) {
+    return outbox.add(passphrase);
+  }
+
+  /**
+   * Queues an updated passphrase in the {@link MutationOutbox}, to be sent to the server in the
+   * background; the cached instance is replaced with the one returned by the server when sent, and
+   * reported via {@link #getMutationOutcomes()}.
+   *
+   * @param passphrase updated {@link Passphrase} instance.
+   * @return observable completion of queuing.
+   */
+  public Completable update(Passphrase passphrase) {
+    return outbox.update(passphrase)
+        .doOnComplete(() -> details.put(passphrase));
+  }
+
+  /**
+   * Queues deletion of a passphrase in the {@link MutationOutbox}, to be sent to the server in the
+   * background; the passphrase is removed from the local cache when sent, and reported via {@link
+   * #getMutationOutcomes()}.
+   *
+   * @param passphrase {@link Passphrase} instance to delete.
+   * @return observable completion of queuing.
+   */
+  public Completable delete(Passphrase passphrase) {
+    return outbox.delete(passphrase)
+        .doOnComplete(() -> details.remove(passphrase.getId()));
+  }
+
+  /**
+   * Queues updated passphrases in the {@link MutationOutbox}, in a single transaction, to be sent
+   * to the server in the background with a bounded number of requests in progress at once; see
+   * {@link #update(Passphrase)}.
+   *
+   * @param passphrases updated {@link Passphrase} instances.
+   * @return observable completion of queuing.
+   */
+  public Completable updateAll(List<Passphrase> passphrases) {
+    return outbox.updateAll(passphrases)
+        .doOnComplete(() -> {
+          for (Passphrase passphrase : passphrases) {
+            details.put(passphrase);
+          }
+        });
+  }
+
+  /**
+   * Queues deletion of passphrases in the {@link MutationOutbox}, in a single transaction, to be
+   * sent to the server in the background with a bounded number of requests in progress at once;
+   * see {@link #delete(Passphrase)}.
+   *
+   * @param passphrases {@link Passphrase} instances to delete.
+   * @return observable completion of queuing.
+   */
+  public Completable deleteAll(List<Passphrase> passphrases) {
+    return outbox.deleteAll(passphrases)
+        .doOnComplete(() -> {
+          for (Passphrase passphrase : passphrases) {
+            details.remove(passphrase.getId());
+          }
+        });
+  }
+
+  /**
+   * Generates passphrases in bulk on the device, and uploads them to the server as a bounded stream
+   * (see {@link BulkGenerator}). Each passphrase saved by the server is written to the local cache
+   * and search index as it is saved.
+   *
+   * @param authorization {@link Single} emitting the current {@code Authorization} header value,
+   * subscribed to for each upload.
+   * @param count number of passphrases.
+   * @param length number of words in each passphrase.
+   * @param keyPattern pattern of passphrase keys (see {@link BulkGenerator#formatKey(String,
+   * int)}).
+   * @param maxConcurrency maximum number of uploads in progress at once.
+   * @return observable progress of generation and upload.
+   */
+  public Flowable<BulkGenerator.Progress> generateAll(Single<String> authorization, int count,
+      int length, String keyPattern, int maxConcurrency) {
+    return Flowable.defer(() -> BulkGenerator.getInstance()
+        .generate(authorization, count, length, keyPattern, maxConcurrency, this::cache));
+  }
+
+  /**
+   * Returns an observable sequence of the outcomes of queued changes, as they are sent to the
+   * server (or discarded as failed); the outcomes of each drain of the outbox are emitted together.
+   * Outcomes may be emitted on any thread.
+   */
+  public Observable<List<MutationOutbox.Outcome>> getMutationOutcomes() {
+    return outbox.getOutcomes();
+  }
+
+  /**
+   * Returns an observable sequence of the number of changes queued in the {@link MutationOutbox}
+   * and not yet sent, starting with the current number (see {@link
+   * MutationOutbox#getPendingCount()}).
+   */
+  public Observable<Integer> getPendingChangeCount() {
+    return outbox.getPendingCount();
+  }
+
+  /**
+   * Starts opening a connection to the server in the background, if one isn't already open, so that
+   * the next request doesn't wait for connection setup.
+   */
+  public void preconnect() {
+    HttpTransport.getInstance().preconnect(HttpUrl.get(BuildConfig.BASE_URL));
+  }
+
+  /**
+   * Records the specified account as the owner of the local cache and of the queued changes. If
+   * they belong to a different account (e.g. the previous user had to sign in again, but another
+   * user signed in instead), they are cleared first (see {@link #clear()}), so that the new account
+   * neither sees the previous account's passphrases, nor sends its changes.
+   *
+   * @param accountId ID of the signed-in account.
+   * @return observable success/failure result.
+   */
+  public Completable setOwner(String accountId) {
+    return Completable.defer(() -> (isOwnedBy(accountId) ? Completable.complete() : clear())
+        .andThen(Completable.fromAction(() ->
+            preferences.edit().putString(OWNER_KEY, accountId).commit())));
+  }
+
+  /**
+   * Returns a flag indicating whether the local cache and the queued changes belong to the
+   * specified account (or to no account in particular, if none has been recorded).
+   *
+   * @param accountId ID of an account.
+   * @return {@code true} if the changes may be sent with the credentials of the account.
+   */
+  public boolean isOwnedBy(String accountId) {
+    String owner = preferences.getString(OWNER_KEY, null);
+    return owner == null || owner.equals(accountId);
+  }
+
+  /**
+   * Removes all passphrases from the local cache (e.g. on sign-out), along with any cached HTTP
+   * responses and any changes not yet sent, and forgets the account that owned them.
+   *
+   * @return observable success/failure result.
+   */
+  public Completable clear() {
+    return outbox.clear().andThen(Completable.fromAction(() -> {
+      details.clear();
+      passphraseDao.deleteAll();
+      index.clear();
+      HttpTransport.getInstance().evictAll();
+      preferences.edit().remove(OWNER_KEY).commit();
+    }));
+  }
+
+  private Single<Passphrase> fetchDetails(String token, long id) {
+    synchronized (detailRequests) {
+      Single<Passphrase> request = detailRequests.get(id);
+      if (request == null) {
+        request = dicewareService.get(token, id)
+            .doOnSuccess(this::cache)
+            .doFinally(() -> {
+              synchronized (detailRequests) {
+                detailRequests.remove(id);
+              }
+            })
+            .cache();
+        detailRequests.put(id, request);
+      }
+      return request;
+    }
+  }
+
+  private void cache(Passphrase passphrase) {
+    passphraseDao.insert(passphrase);
+    details.put(passphrase);
+    index.put(passphrase);
+  }
+
+  private static class InstanceHolder {
+
+    private static final PassphraseRepository INSTANCE = new PassphraseRepository();
+
+  }
+
+}
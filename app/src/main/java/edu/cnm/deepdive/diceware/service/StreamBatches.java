@@ -0,0 +1,41 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link DicewareService} method returning a JSON array, whose elements should be decoded
+ * incrementally and emitted in batches by {@link StreamingCallAdapterFactory}. The method must
+ * declare an {@link io.reactivex.Observable Observable&lt;List&lt;T&gt;&gt;} result type, and
+ * should also be annotated with {@link retrofit2.http.Streaming}, so that the response body isn't
+ * buffered in memory before decoding starts.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface StreamBatches {
+
+  /**
+   * Maximum number of elements per emitted batch.
+   */
+  int value();
+
+}
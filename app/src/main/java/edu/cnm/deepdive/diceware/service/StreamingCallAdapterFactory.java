@@ -0,0 +1,196 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.HttpException;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+/**
+ * {@link CallAdapter.Factory} for service methods annotated with {@link StreamBatches}. Instead of
+ * buffering and converting the entire response body before emitting a single result, the JSON
+ * array in the body is read with a pull parser, and its elements are emitted in batches as they
+ * are decoded. A successful response always results in at least one (possibly empty) batch; a
+ * {@code 304 Not Modified} response (see {@link ReportNotModified}) results in no batches. A
+ * {@link Passphrase} list in the compact encoding (see {@link PassphraseCodec}) is decoded
+ * incrementally in the same way.
+ */
+public class StreamingCallAdapterFactory extends CallAdapter.Factory {
+
+  private final Gson gson;
+  private final PassphraseCodec codec;
+
+  private StreamingCallAdapterFactory(Gson gson, PassphraseCodec codec) {
+    this.gson = gson;
+    this.codec = codec;
+  }
+
+  /**
+   * Creates and returns an instance using the specified {@link Gson} for decoding JSON elements,
+   * and the specified codec for decoding compact {@link Passphrase} elements.
+   *
+   * @param gson configured {@link Gson} instance.
+   * @param codec decoder of the compact encoding.
+   * @return call adapter factory.
+   */
+  public static StreamingCallAdapterFactory create(Gson gson, PassphraseCodec codec) {
+    return new StreamingCallAdapterFactory(gson, codec);
+  }
+
+  @Override
+  public CallAdapter<?, ?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+    StreamBatches batches = null;
+    for (Annotation annotation : annotations) {
+      if (annotation instanceof StreamBatches) {
+        batches = (StreamBatches) annotation;
+        break;
+      }
+    }
+    if (batches == null) {
+      return null;
+    }
+    if (getRawType(returnType) != Observable.class
+        || !(returnType instanceof ParameterizedType)) {
+      throw new IllegalArgumentException(
+          "@StreamBatches methods must return Observable<List<T>>");
+    }
+    Type batchType = getParameterUpperBound(0, (ParameterizedType) returnType);
+    if (getRawType(batchType) != List.class || !(batchType instanceof ParameterizedType)) {
+      throw new IllegalArgumentException(
+          "@StreamBatches methods must return Observable<List<T>>");
+    }
+    Type elementType = getParameterUpperBound(0, (ParameterizedType) batchType);
+    return new BatchCallAdapter<>(gson.getAdapter(TypeToken.get(elementType)),
+        (elementType == Passphrase.class) ? codec : null, batches.value());
+  }
+
+  private static class BatchCallAdapter<T>
+      implements CallAdapter<ResponseBody, Observable<List<T>>> {
+
+    private final TypeAdapter<T> adapter;
+    private final PassphraseCodec codec;
+    private final int batchSize;
+
+    private BatchCallAdapter(TypeAdapter<T> adapter, PassphraseCodec codec, int batchSize) {
+      this.adapter = adapter;
+      this.codec = codec;
+      this.batchSize = batchSize;
+    }
+
+    @Override
+    public Type responseType() {
+      return ResponseBody.class;
+    }
+
+    @Override
+    public Observable<List<T>> adapt(Call<ResponseBody> call) {
+      return Observable.create((emitter) -> {
+        Call<ResponseBody> clone = call.clone();
+        emitter.setCancellable(clone::cancel);
+        Response<ResponseBody> response = clone.execute();
+        if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+          emitter.onComplete();
+          return;
+        }
+        if (!response.isSuccessful()) {
+          throw new HttpException(response);
+        }
+        try (ResponseBody body = response.body()) {
+          if (codec != null && codec.negotiate(body.contentType())) {
+            emitCompact(emitter, body.source());
+          } else {
+            emitJson(emitter, new JsonReader(body.charStream()));
+          }
+        }
+      });
+    }
+
+    private void emitJson(ObservableEmitter<List<T>> emitter, JsonReader reader)
+        throws IOException {
+      Batcher batcher = new Batcher(emitter);
+      reader.beginArray();
+      while (reader.hasNext() && !emitter.isDisposed()) {
+        batcher.add(adapter.read(reader));
+      }
+      if (!emitter.isDisposed()) {
+        reader.endArray();
+        batcher.complete();
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void emitCompact(ObservableEmitter<List<T>> emitter, BufferedSource source)
+        throws IOException {
+      Batcher batcher = new Batcher(emitter);
+      int size = codec.readListSize(source);
+      for (int i = 0; i < size && !emitter.isDisposed(); i++) {
+        batcher.add((T) codec.read(source));
+      }
+      if (!emitter.isDisposed()) {
+        batcher.complete();
+      }
+    }
+
+    private class Batcher {
+
+      private final ObservableEmitter<List<T>> emitter;
+
+      private List<T> batch = new ArrayList<>(batchSize);
+      private boolean emitted;
+
+      private Batcher(ObservableEmitter<List<T>> emitter) {
+        this.emitter = emitter;
+      }
+
+      private void add(T element) {
+        batch.add(element);
+        if (batch.size() == batchSize) {
+          emitter.onNext(batch);
+          emitted = true;
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+
+      private void complete() {
+        if (!emitted || !batch.isEmpty()) {
+          emitter.onNext(batch);
+        }
+        emitter.onComplete();
+      }
+
+    }
+
+  }
+
+}
@@ -0,0 +1,50 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import retrofit2.Invocation;
+
+/**
+ * Application-level {@link Interceptor} that applies the per-call timeouts declared with {@link
+ * Timeouts} on the invoked service method.
+ */
+public class TimeoutInterceptor implements Interceptor {
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Invocation invocation = chain.request().tag(Invocation.class);
+    Timeouts timeouts = (invocation != null)
+        ? invocation.method().getAnnotation(Timeouts.class)
+        : null;
+    if (timeouts != null) {
+      if (timeouts.connect() != Timeouts.DEFAULT) {
+        chain = chain.withConnectTimeout(timeouts.connect(), TimeUnit.MILLISECONDS);
+      }
+      if (timeouts.read() != Timeouts.DEFAULT) {
+        chain = chain.withReadTimeout(timeouts.read(), TimeUnit.MILLISECONDS);
+      }
+      if (timeouts.write() != Timeouts.DEFAULT) {
+        chain = chain.withWriteTimeout(timeouts.write(), TimeUnit.MILLISECONDS);
+      }
+    }
+    return chain.proceed(chain.request());
+  }
+
+}
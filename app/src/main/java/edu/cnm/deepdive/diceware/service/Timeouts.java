@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides, for a single {@link DicewareService} method, the timeouts configured by {@link
+ * HttpTransport}. The overrides are applied by {@link TimeoutInterceptor}; any element left at its
+ * default value of {@link #DEFAULT} keeps the client-wide setting.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Timeouts {
+
+  /**
+   * Element value indicating that the client-wide setting should be used.
+   */
+  int DEFAULT = -1;
+
+  /**
+   * Connect timeout, in milliseconds; applies only if a new connection must be established.
+   */
+  int connect() default DEFAULT;
+
+  /**
+   * Read timeout (maximum time between successive reads), in milliseconds.
+   */
+  int read() default DEFAULT;
+
+  /**
+   * Write timeout (maximum time between successive writes), in milliseconds.
+   */
+  int write() default DEFAULT;
+
+}
@@ -0,0 +1,235 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.service;
+
+import android.app.Application;
+import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import edu.cnm.deepdive.diceware.R;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import java.util.concurrent.TimeUnit;
+import okio.ByteString;
+
+/**
+ * Class implementing the singleton pattern, supplying the {@code Authorization} header value for
+ * requests to the Diceware service. The header is built once per ID token, and reused until shortly
+ * before the expiration time ({@code exp} claim) of the token; only then is the token refreshed
+ * (with {@link GoogleSignInService#refresh()}). A token approaching expiration is refreshed in the
+ * background, while the current header is still supplied.
+ */
+public class TokenManager {
+
+  /**
+   * Time before expiration at which a token is considered expired, allowing for clock skew and
+   * request latency.
+   */
+  public static final long EXPIRATION_SKEW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  /**
+   * Time before expiration at which a background refresh of a token is started.
+   */
+  public static final long REFRESH_MARGIN_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+  private static Application applicationContext;
+
+  private final String headerFormat;
+  private final Single<String> refresher;
+  private final Scheduler clock;
+
+  private volatile Credential credential;
+  private Single<String> refreshing;
+
+  /**
+   * Initializes this instance with the specified header format, source of refreshed tokens, and
+   * clock.
+   *
+   * @param headerFormat format string used to build a header from an ID token.
+   * @param refresher {@link Single} emitting a refreshed ID token on each subscription.
+   * @param clock {@link Scheduler} supplying the current time.
+   */
+  TokenManager(String headerFormat, Single<String> refresher, Scheduler clock) {
+    this.headerFormat = headerFormat;
+    this.refresher = refresher;
+    this.clock = clock;
+  }
+
+  /**
+   * Sets the context required to read the header format from resources.
+   *
+   * @param applicationContext {@link android.content.Context} used for resource access.
+   */
+  public static void setApplicationContext(Application applicationContext) {
+    TokenManager.applicationContext = applicationContext;
+  }
+
+  /**
+   * Returns the singleton instance of this class.
+   */
+  public static TokenManager getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Returns the expiration time, in milliseconds since the epoch, from the {@code exp} claim of the
+   * specified JSON Web Token. The token's signature is not verified; the result is only used to
+   * decide when to refresh.
+   *
+   * @param jwt encoded token.
+   * @return expiration time, or 0 if {@code jwt} can't be parsed or has no {@code exp} claim.
+   */
+  static long parseExpiration(String jwt) {
+    try {
+      String[] parts = jwt.split("\\.");
+      ByteString payload = (parts.length == 3) ? ByteString.decodeBase64(parts[1]) : null;
+      if (payload != null) {
+        JsonElement claims = JsonParser.parseString(payload.utf8());
+        if (claims.isJsonObject()) {
+          JsonElement exp = ((JsonObject) claims).get("exp");
+          if (exp != null && exp.isJsonPrimitive() && exp.getAsJsonPrimitive().isNumber()) {
+            return TimeUnit.SECONDS.toMillis(exp.getAsLong());
+          }
+        }
+      }
+    } catch (RuntimeException e) {
+      // Fall through: unparseable tokens are treated as expired.
+    }
+    return 0;
+  }
+
+  /**
+   * Replaces the current ID token (e.g. on sign-in or sign-out) with the one held by the specified
+   * account.
+   *
+   * @param account signed-in account, or {@code null} if no user is signed in.
+   */
+  public void setAccount(GoogleSignInAccount account) {
+    setIdToken((account != null) ? account.getIdToken() : null);
+  }
+
+  /**
+   * Replaces the current ID token.
+   *
+   * @param idToken encoded ID token, or {@code null} if no user is signed in.
+   */
+  void setIdToken(String idToken) {
+    update(idToken);
+  }
+
+  /**
+   * Returns the ID token most recently set or refreshed, without checking its expiration.
+   *
+   * @return encoded ID token, or {@code null} if none is available.
+   */
+  public String getIdToken() {
+    Credential current = credential;
+    return (current != null) ? current.idToken : null;
+  }
+
+  /**
+   * Returns a flag indicating whether an ID token is available, and not within {@link
+   * #EXPIRATION_SKEW_MILLIS} of its expiration time.
+   */
+  public boolean hasValidToken() {
+    Credential current = credential;
+    return current != null && now() < current.expiration - EXPIRATION_SKEW_MILLIS;
+  }
+
+  /**
+   * Returns the {@code Authorization} header value for the current ID token. If the token is valid,
+   * the cached header is emitted immediately (and if it is within {@link #REFRESH_MARGIN_MILLIS} of
+   * its expiration, a background refresh is started); otherwise, the token is refreshed first.
+   * Concurrent refreshes share a single sign-in request.
+   *
+   * @return {@link Single} emitting the header value.
+   */
+  public Single<String> getAuthorizationHeader() {
+    return Single.defer(() -> {
+      Credential current = credential;
+      long now = now();
+      if (current != null && now < current.expiration - EXPIRATION_SKEW_MILLIS) {
+        if (now >= current.expiration - REFRESH_MARGIN_MILLIS) {
+          refresh().subscribe((header) -> {}, (throwable) -> {});
+        }
+        return Single.just(current.header);
+      }
+      return refresh();
+    });
+  }
+
+  private synchronized Single<String> refresh() {
+    if (refreshing == null) {
+      refreshing = refresher
+          .map((idToken) -> update(idToken).header)
+          .doFinally(this::endRefresh)
+          .cache();
+    }
+    return refreshing;
+  }
+
+  private synchronized Credential update(String idToken) {
+    Credential current = credential;
+    if (idToken == null) {
+      current = null;
+    } else if (current == null || !idToken.equals(current.idToken)) {
+      current = new Credential(idToken, String.format(headerFormat, idToken),
+          parseExpiration(idToken));
+    }
+    credential = current;
+    return current;
+  }
+
+  private synchronized void endRefresh() {
+    refreshing = null;
+  }
+
+  private long now() {
+    return clock.now(TimeUnit.MILLISECONDS);
+  }
+
+  private static class Credential {
+
+    private final String idToken;
+    private final String header;
+    private final long expiration;
+
+    private Credential(String idToken, String header, long expiration) {
+      this.idToken = idToken;
+      this.header = header;
+      this.expiration = expiration;
+    }
+
+  }
+
+  private static class InstanceHolder {
+
+    private static final TokenManager INSTANCE = new TokenManager(
+        applicationContext.getString(R.string.oauth_header),
+        Single.<GoogleSignInAccount>create((emitter) ->
+            GoogleSignInService.getInstance().refresh()
+                .addOnSuccessListener(emitter::onSuccess)
+                .addOnFailureListener(emitter::onError))
+            // Task listeners are invoked on the main thread; requests that follow must not be.
+            .observeOn(Schedulers.io())
+            .map((account) -> (account.getIdToken() != null) ? account.getIdToken() : ""),
+        Schedulers.computation());
+
+  }
+
+}
@@ -16,48 +16,136 @@
 package edu.cnm.deepdive.diceware.view;
 
 import android.content.Context;
+import android.util.LongSparseArray;
+import android.view.ContextMenu;
+import android.view.ContextMenu.ContextMenuInfo;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import edu.cnm.deepdive.diceware.R;
 import edu.cnm.deepdive.diceware.model.Passphrase;
 import edu.cnm.deepdive.diceware.view.PassphraseAdapter.Holder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.Objects;
 
 /**
- * Simple subclass of {@link RecyclerView.Adapter} that displays {@link Passphrase#getKey()} values,
- * with the consumer providing listeners for click and long (context) press events.
+ * Subclass of {@link ListAdapter} that displays {@link Passphrase#getKey()} values, with the consumer
+ * providing listeners for click and long (context) press events. A single instance is intended to
+ * be reused for the lifetime of the {@link RecyclerView}: each list passed to {@link
+ * #submitList(List)} is diffed against the current list on a background thread, and only the
+ * resulting insertions, removals, moves, and changes are dispatched.
+ * <p>When attached to a {@link RecyclerView}, the adapter sizes the view's {@link
+ * RecyclerView.RecycledViewPool} for fast flings, and inflates a supply of item views on a
+ * background thread; {@link #onCreateViewHolder(ViewGroup, int)} only inflates on the main thread
+ * once that supply is exhausted. Holders register their listeners once, so binding allocates
+ * nothing.</p>
+ * <p>The adapter also maintains a selection of items, for operations on several passphrases at
+ * once; selected items are displayed in the activated state. The selection is kept by ID, so that
+ * it survives changes to the list, in a {@link LongSparseArray}, so that binding still allocates
+ * nothing.</p>
  */
-public class PassphraseAdapter extends RecyclerView.Adapter<Holder> {
+public class PassphraseAdapter extends ListAdapter<Passphrase, Holder> {
+
+  private static final int RECYCLED_VIEW_POOL_SIZE = 24;
+  private static final int PRE_INFLATED_VIEWS = 16;
+  private static final int MAX_INFLATIONS_IN_FLIGHT = 10; // Capacity of AsyncLayoutInflater queue.
+  private static final Object SELECTION_CHANGED = new Object();
+
+  private static final DiffUtil.ItemCallback<Passphrase> DIFF_CALLBACK =
+      new DiffUtil.ItemCallback<Passphrase>() {
+
+        @Override
+        public boolean areItemsTheSame(@NonNull Passphrase oldItem, @NonNull Passphrase newItem) {
+          return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Passphrase oldItem,
+            @NonNull Passphrase newItem) {
+          return Objects.equals(oldItem.getKey(), newItem.getKey())
+              && Objects.equals(oldItem.getWords(), newItem.getWords());
+        }
+
+      };
 
   private final Context context;
-  private final List<Passphrase> passphrases;
   private final OnClickListener clickListener;
   private final OnContextListener contextListener;
+  private final Deque<View> preInflated = new ArrayDeque<>();
+  private final LongSparseArray<Boolean> selected = new LongSparseArray<>();
+
+  private AsyncLayoutInflater inflater;
+  private RecyclerView attachedTo;
+  private int toInflate;
+  private int inflating;
 
   /**
-   * Initializes the adapter with the specified passphrases and event listeners.
+   * Initializes the adapter with the specified event listeners. Items to display are supplied via
+   * {@link #submitList(List)}.
    *
    * @param context {@link Context} object used for obtaining a {@link LayoutInflater}.
-   * @param passphrases {@link List List&lt;Passphrase&gt;} to display in {@link RecyclerView}.
    * @param clickListener {@link OnClickListener} to handle click events; may be {@code null}.
    * @param contextListener {@link OnContextListener} to handle long press events; may be {@code null}.
    */
-  public PassphraseAdapter(Context context, List<Passphrase> passphrases,
+  public PassphraseAdapter(Context context,
       OnClickListener clickListener, OnContextListener contextListener) {
+    super(DIFF_CALLBACK);
     this.context = context;
-    this.passphrases = passphrases;
     this.clickListener = clickListener;
     this.contextListener = contextListener;
+    setHasStableIds(true);
+  }
+
+  /**
+   * Sizes the {@link RecyclerView.RecycledViewPool} of the specified {@link RecyclerView} to hold
+   * enough item views for a fast fling, and starts inflating item views on a background thread
+   * for use by {@link #onCreateViewHolder(ViewGroup, int)}. Since {@link AsyncLayoutInflater}
+   * blocks the caller once its request queue is full, only a bounded number of inflations are
+   * requested at once; each completed inflation requests the next.
+   *
+   * @param recyclerView {@link RecyclerView} to which this adapter is attached.
+   */
+  @Override
+  public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+    super.onAttachedToRecyclerView(recyclerView);
+    recyclerView.getRecycledViewPool().setMaxRecycledViews(0, RECYCLED_VIEW_POOL_SIZE);
+    if (inflater == null) {
+      inflater = new AsyncLayoutInflater(context);
+    }
+    attachedTo = recyclerView;
+    // Inflations still in flight from an earlier attachment count toward the supply.
+    toInflate = Math.max(0, PRE_INFLATED_VIEWS - preInflated.size() - inflating);
+    inflateAhead();
+  }
+
+  /**
+   * Discards any item views inflated in advance but not yet used, along with those still being
+   * inflated, and stops requesting more.
+   *
+   * @param recyclerView {@link RecyclerView} from which this adapter is detached.
+   */
+  @Override
+  public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+    super.onDetachedFromRecyclerView(recyclerView);
+    attachedTo = null;
+    toInflate = 0;
+    preInflated.clear();
   }
 
   /**
    * Creates and returns a {@link Holder} that can be bound to any {@link
-   * Passphrase} in this instance's list of items.
+   * Passphrase} in this instance's list of items. An item view inflated in advance is used if one
+   * is available; otherwise, the layout is inflated synchronously.
    *
    * @param parent enclosing {@link RecyclerView}.
    * @param viewType desired view type (ignored in this implementation).
@@ -66,7 +154,10 @@ public class PassphraseAdapter extends RecyclerView.Adapter<Holder> {
   @NonNull
   @Override
   public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-    View view = LayoutInflater.from(context).inflate(R.layout.passphrase_item, parent, false);
+    View view = preInflated.poll();
+    if (view == null) {
+      view = LayoutInflater.from(context).inflate(R.layout.passphrase_item, parent, false);
+    }
     return new Holder(view);
   }
 
@@ -79,18 +170,106 @@ public class PassphraseAdapter extends RecyclerView.Adapter<Holder> {
    */
   @Override
   public void onBindViewHolder(@NonNull Holder holder, int position) {
-    Passphrase passphrase = passphrases.get(position);
-    holder.bind(position, passphrase);
+    holder.bind(getItem(position));
   }
 
   /**
-   * Returns the number of items in the this instance's list of passphrases.
+   * Binds the specified {@link Holder} to the {@link Passphrase} at the specified position in this
+   * adapter instance; if the only change to the item is its selection state, only that state is
+   * updated.
    *
-   * @return count.
+   * @param holder {@link Holder} referencing a bindable {@link View}.
+   * @param position index of item in the adapter's list to bind to {@code holder}.
+   * @param payloads partial change payloads.
    */
   @Override
-  public int getItemCount() {
-    return passphrases.size();
+  public void onBindViewHolder(@NonNull Holder holder, int position,
+      @NonNull List<Object> payloads) {
+    if (!payloads.isEmpty() && payloads.get(0) == SELECTION_CHANGED) {
+      holder.bindSelection(getItem(position));
+    } else {
+      super.onBindViewHolder(holder, position, payloads);
+    }
+  }
+
+  /**
+   * Adds the item at the specified position to the selection, or removes it if already selected.
+   *
+   * @param position index of item in the adapter's current list.
+   */
+  public void toggleSelection(int position) {
+    long id = getItem(position).getId();
+    if (isSelected(id)) {
+      selected.remove(id);
+    } else {
+      selected.put(id, Boolean.TRUE);
+    }
+    notifyItemChanged(position, SELECTION_CHANGED);
+  }
+
+  /**
+   * Returns the number of selected items.
+   */
+  public int getSelectedCount() {
+    return selected.size();
+  }
+
+  /**
+   * Returns the selected items in the adapter's current list, in list order.
+   */
+  public List<Passphrase> getSelectedItems() {
+    List<Passphrase> items = new ArrayList<>(selected.size());
+    for (Passphrase passphrase : getCurrentList()) {
+      if (isSelected(passphrase.getId())) {
+        items.add(passphrase);
+      }
+    }
+    return items;
+  }
+
+  /**
+   * Clears the selection.
+   */
+  public void clearSelection() {
+    List<Passphrase> items = getCurrentList();
+    for (int i = 0; i < items.size() && selected.size() > 0; i++) {
+      long id = items.get(i).getId();
+      if (isSelected(id)) {
+        selected.remove(id);
+        notifyItemChanged(i, SELECTION_CHANGED);
+      }
+    }
+    selected.clear();
+  }
+
+  private void inflateAhead() {
+    while (toInflate > 0 && inflating < MAX_INFLATIONS_IN_FLIGHT) {
+      toInflate--;
+      inflating++;
+      inflater.inflate(R.layout.passphrase_item, attachedTo, (view, resid, parent) -> {
+        inflating--;
+        if (attachedTo != null) {
+          preInflated.push(view);
+          inflateAhead();
+        }
+      });
+    }
+  }
+
+  private boolean isSelected(long id) {
+    return selected.indexOfKey(id) >= 0;
+  }
+
+  /**
+   * Returns the stable ID of the item at the specified position&mdash;i.e. the {@link
+   * Passphrase#getId()} value of the item.
+   *
+   * @param position index of item in the adapter's current list.
+   * @return ID of the {@link Passphrase} at {@code position}.
+   */
+  @Override
+  public long getItemId(int position) {
+    return getItem(position).getId();
   }
 
   /**
@@ -130,25 +309,48 @@ public class PassphraseAdapter extends RecyclerView.Adapter<Holder> {
 
   /**
    * Binder for {@link View} items in a {@link RecyclerView} and {@link Passphrase} items in a
-   * {@link PassphraseAdapter}.
+   * {@link PassphraseAdapter}. Click and context menu listeners are registered once, when the
+   * holder is created; the item they act on is resolved from the holder's current adapter
+   * position when the event occurs.
    */
-  public class Holder extends RecyclerView.ViewHolder {
+  public class Holder extends RecyclerView.ViewHolder
+      implements View.OnClickListener, View.OnCreateContextMenuListener {
 
-    private final View view;
+    private final TextView view;
 
     private Holder(@NonNull View itemView) {
       super(itemView);
-      view = itemView;
-    }
-
-    private void bind(int position, Passphrase passphrase) {
-      ((TextView) view).setText(passphrase.getKey());
+      view = (TextView) itemView;
       if (clickListener != null) {
-        view.setOnClickListener((v) -> clickListener.onClick(v, position, passphrase));
+        view.setOnClickListener(this);
       }
       if (contextListener != null) {
-        view.setOnCreateContextMenuListener((menu, v, menuInfo) ->
-            contextListener.onLongPress(menu, position, passphrase));
+        view.setOnCreateContextMenuListener(this);
+      }
+    }
+
+    private void bind(Passphrase passphrase) {
+      view.setText(passphrase.getKey());
+      bindSelection(passphrase);
+    }
+
+    private void bindSelection(Passphrase passphrase) {
+      view.setActivated(isSelected(passphrase.getId()));
+    }
+
+    @Override
+    public void onClick(View v) {
+      int position = getAdapterPosition();
+      if (position != RecyclerView.NO_POSITION) {
+        clickListener.onClick(v, position, getItem(position));
+      }
+    }
+
+    @Override
+    public void onCreateContextMenu(ContextMenu menu, View v, ContextMenuInfo menuInfo) {
+      int position = getAdapterPosition();
+      if (position != RecyclerView.NO_POSITION) {
+        contextListener.onLongPress(menu, position, getItem(position));
       }
     }
 
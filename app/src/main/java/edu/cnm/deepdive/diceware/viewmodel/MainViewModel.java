@@ -16,7 +16,6 @@
 package edu.cnm.deepdive.diceware.viewmodel;
 
 import android.app.Application;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.Lifecycle.Event;
@@ -25,25 +24,74 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.OnLifecycleEvent;
 import com.google.android.gms.auth.api.signin.GoogleSignInAccount;
-import edu.cnm.deepdive.diceware.R;
+import edu.cnm.deepdive.diceware.generator.PassphraseGenerator;
+import edu.cnm.deepdive.diceware.generator.WordLists;
+import edu.cnm.deepdive.diceware.generator.WordTrie;
+import edu.cnm.deepdive.diceware.model.Mutation;
+import edu.cnm.deepdive.diceware.model.Mutation.Operation;
 import edu.cnm.deepdive.diceware.model.Passphrase;
-import edu.cnm.deepdive.diceware.service.DicewareService;
+import edu.cnm.deepdive.diceware.service.BulkGenerator;
+import edu.cnm.deepdive.diceware.service.BulkGenerator.Progress;
+import edu.cnm.deepdive.diceware.service.CallScheduler;
+import edu.cnm.deepdive.diceware.service.CallScheduler.Priority;
+import edu.cnm.deepdive.diceware.service.MutationOutbox.Outcome;
+import edu.cnm.deepdive.diceware.service.PassphraseRepository;
+import edu.cnm.deepdive.diceware.service.TokenManager;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
 import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import retrofit2.HttpException;
 
 /**
  * Supplier of {@link LiveData} intended to be consumed by an instance of {@link
- * edu.cnm.deepdive.diceware.controller.MainActivity} (and any hosted fragments within).
+ * edu.cnm.deepdive.diceware.controller.MainActivity} (and any hosted fragments within). Server
+ * calls are executed by the {@link CallScheduler}, with reads awaited by the UI given priority over
+ * prefetching and synchronization.
  */
 public class MainViewModel extends AndroidViewModel implements LifecycleObserver {
 
-  private final DicewareService dicewareService;
+  private static final int DEFAULT_LENGTH = 6;
+  private static final long PROGRESS_INTERVAL = 250;
+  private static final int REGENERATE_CONCURRENCY = 2;
+
+  private final PassphraseRepository repository;
   private final MutableLiveData<List<Passphrase>> passphrases;
+  private final MutableLiveData<Passphrase> details;
+  private final MutableLiveData<List<Passphrase>> searchResults;
+  private final MutableLiveData<WordTrie> wordTrie;
+  private final MutableLiveData<Progress> bulkProgress;
+  private final MutableLiveData<Boolean> queuing;
+  private final MutableLiveData<Integer> pendingChanges;
   private final MutableLiveData<GoogleSignInAccount> account;
   private final MutableLiveData<Throwable> throwable;
   private final CompositeDisposable pending;
+  private final CompositeDisposable paging;
+  private final PassphrasePager pager;
+  private final RefreshCoordinator refresh;
+  private final TokenManager tokens;
+  private final CallScheduler calls;
+  private final Disposable outcomes;
+  private final Disposable pendingCounts;
+  private final Subject<String> queries;
+  private final Disposable searches;
+
+  private boolean stale;
+  private String searchQuery;
+  private boolean trieRequested;
+  private int queuingCount;
+  private Disposable bulkGeneration = Disposables.disposed();
 
   //use this as livedata example
 
@@ -55,20 +103,113 @@ public class MainViewModel extends AndroidViewModel implements LifecycleObserver
    */
   public MainViewModel(@NonNull Application application) {
     super(application);
-    dicewareService = DicewareService.getInstance();
+    repository = PassphraseRepository.getInstance();
     passphrases = new MutableLiveData<>();
+    details = new MutableLiveData<>();
+    searchResults = new MutableLiveData<>();
+    wordTrie = new MutableLiveData<>();
+    bulkProgress = new MutableLiveData<>();
+    queuing = new MutableLiveData<>(false);
+    pendingChanges = new MutableLiveData<>(0);
     account = new MutableLiveData<>();
     throwable = new MutableLiveData<>();
     pending = new CompositeDisposable();
+    paging = new CompositeDisposable();
+    pager = new PassphrasePager(PassphraseRepository.PAGE_SIZE);
+    refresh = new RefreshCoordinator();
+    tokens = TokenManager.getInstance();
+    calls = CallScheduler.getInstance();
+    outcomes = repository.getMutationOutcomes()
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(this::applyOutcomes);
+    pendingCounts = repository.getPendingChangeCount()
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(pendingChanges::setValue, throwable::setValue);
+    queries = PublishSubject.<String>create().toSerialized();
+    searches = queries
+        .switchMapMaybe((query) -> query.isEmpty()
+            ? Maybe.<List<Passphrase>>empty()
+            : repository.search(query)
+                .subscribeOn(Schedulers.computation())
+                .toMaybe())
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(
+            (results) -> {
+              if (searchQuery != null) {
+                searchResults.setValue(results);
+              }
+            },
+            throwable::setValue
+        );
   }
 
   /**
-   * Returns the observable list of {@link Passphrase} instances from the server-based collection.
+   * Returns the observable list of {@link Passphrase} instances loaded so far, in ID order. As each
+   * page is loaded (starting with the first page, on refresh), the locally cached page is posted
+   * first, followed by the corresponding page of the server-based collection.
    */
   public LiveData<List<Passphrase>> getPassphrases() {
     return passphrases;
   }
 
+  /**
+   * Returns the most recently loaded passphrase with words, as requested by {@link
+   * #loadDetails(long)}. Observers should check the ID of the posted passphrase, since it may be
+   * one requested earlier.
+   */
+  public LiveData<Passphrase> getDetails() {
+    return details;
+  }
+
+  /**
+   * Returns the observable list of {@link Passphrase} instances matching the current search query
+   * (see {@link #search(String)}), in ID order; the value is {@code null} when no search is active.
+   */
+  public LiveData<List<Passphrase>> getSearchResults() {
+    return searchResults;
+  }
+
+  /**
+   * Returns the prefix tree over the word list used for generating passphrases, for validating and
+   * completing words as they're typed. The tree is built in the background the first time this
+   * method is invoked; until then, the value is {@code null}.
+   */
+  public LiveData<WordTrie> getWordTrie() {
+    if (!trieRequested) {
+      trieRequested = true;
+      Single.fromCallable(() -> WordLists.getInstance().getTrie(WordLists.EFF_LARGE))
+          .subscribeOn(Schedulers.io())
+          .subscribe(wordTrie::postValue, throwable::postValue);
+    }
+    return wordTrie;
+  }
+
+  /**
+   * Returns the progress of the current (or most recent) bulk generation started by {@link
+   * #generatePassphrases(int, int, String, int)}, updated a few times per second while it runs.
+   */
+  public LiveData<Progress> getBulkProgress() {
+    return bulkProgress;
+  }
+
+  /**
+   * Returns a flag indicating whether changes requested by the user are still being prepared and
+   * queued. Queuing doesn't wait for the server, so this is cleared promptly, even while offline;
+   * changes queued but not yet sent are reported by {@link #getPendingChanges()} instead.
+   */
+  public LiveData<Boolean> getQueuing() {
+    return queuing;
+  }
+
+  /**
+   * Returns the number of queued changes not yet sent to the server. Changes remain pending while
+   * offline, until they can be sent.
+   */
+  public LiveData<Integer> getPendingChanges() {
+    return pendingChanges;
+  }
+
   /**
    * Returns the most recently thrown exception or error.
    */
@@ -77,88 +218,471 @@ public class MainViewModel extends AndroidViewModel implements LifecycleObserver
   }
 
   /**
-   * Sets the currently logged-in user.
+   * Sets the currently logged-in user. If the local cache belongs to a different user, it is
+   * cleared (along with any changes that user had queued) before the list is refreshed.
    */
   public void setAccount(GoogleSignInAccount account) {
+    GoogleSignInAccount previous = this.account.getValue();
+    tokens.setAccount(account);
     this.account.setValue(account);
-    refreshPassphrases();
+    if (account == null) {
+      refreshPassphrases();
+    } else if (previous == null || !previous.getId().equals(account.getId())) {
+      // Only a change of user requires a refresh; a refreshed token for the same user doesn't.
+      // The local cache is read only once it's known to belong to this user.
+      repository.setOwner(account.getId())
+          .subscribeOn(Schedulers.io())
+          .observeOn(AndroidSchedulers.mainThread())
+          .subscribe(this::refreshPassphrases, throwable::setValue);
+    }
   }
 
   /**
-   * Deletes the specified {@link Passphrase} from the server-based collection.
+   * Queues deletion of the specified {@link Passphrase} from the server-based collection; it is
+   * removed from the local list once the deletion has been sent. Queued changes are sent even if
+   * the host activity stops (or the app is killed) first.
    */
   public void deletePassphrase(Passphrase passphrase) {
     GoogleSignInAccount account = this.account.getValue();
     if (passphrase != null && passphrase.getId() > 0 && account != null) {
-      String token = getAuthorizationHeader(account);
+      queue(repository.delete(passphrase));
+    }
+  }
+
+  /**
+   * Queues deletion of the specified {@link Passphrase} instances from the server-based collection,
+   * in a single transaction; the deletions are sent together, with a bounded number of requests in
+   * progress at once, and the local list is updated once, when all have been sent.
+   */
+  public void deletePassphrases(List<Passphrase> passphrases) {
+    GoogleSignInAccount account = this.account.getValue();
+    List<Passphrase> deleted = new ArrayList<>();
+    for (Passphrase passphrase : passphrases) {
+      if (passphrase.getId() > 0) {
+        deleted.add(passphrase);
+      }
+    }
+    if (account != null && !deleted.isEmpty()) {
+      queue(repository.deleteAll(deleted));
+    }
+  }
+
+  /**
+   * Queues updates of the specified {@link Passphrase} instances in the server-based collection,
+   * with new words generated on-device for each, keeping its number of words (read from its
+   * details, since the listed passphrases are summaries). The details are read with a bounded
+   * number of requests in progress at once; a passphrase whose details can't be read is skipped,
+   * and the first such failure is reported once the others have been queued. The specified
+   * instances aren't modified; updated copies are queued. As with {@link
+   * #deletePassphrases(List)}, the updates are sent together, and the local list is updated once,
+   * when all have been sent.
+   */
+  public void regeneratePassphrases(List<Passphrase> passphrases) {
+    GoogleSignInAccount account = this.account.getValue();
+    if (account != null && !passphrases.isEmpty()) {
+      List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+      queue(tokens.getAuthorizationHeader()
+          .flatMap((token) -> Flowable.fromIterable(passphrases)
+              .flatMapMaybe((passphrase) -> repository.getDetails(token, passphrase.getId())
+                  .compose(calls.<Passphrase>single(Priority.INTERACTIVE))
+                  .toMaybe()
+                  .doOnError(failures::add)
+                  .onErrorComplete(), false, REGENERATE_CONCURRENCY)
+              .map(this::regenerate)
+              .toList())
+          .flatMapCompletable((regenerated) -> regenerated.isEmpty()
+              ? Completable.complete()
+              : repository.updateAll(regenerated))
+          .andThen(Completable.defer(() -> failures.isEmpty()
+              ? Completable.complete()
+              : Completable.error(failures.get(0)))));
+    }
+  }
+
+  /**
+   * Requests the passphrase with the specified ID, including its words (which aren't included in
+   * the list returned by {@link #getPassphrases()}), posting it to {@link #getDetails()} when
+   * loaded.
+   */
+  public void loadDetails(long id) {
+    GoogleSignInAccount account = this.account.getValue();
+    if (account != null) {
       pending.add(
-          dicewareService.delete(token, passphrase.getId())
-              .subscribeOn(Schedulers.io())
-              .subscribe(() -> refreshPassphrases(account), this.throwable::postValue)
+          tokens.getAuthorizationHeader()
+              .flatMap((token) -> repository.getDetails(token, id)
+                  .compose(calls.<Passphrase>single(Priority.FOREGROUND)))
+              .observeOn(AndroidSchedulers.mainThread())
+              .subscribe(
+                  details::setValue,
+                  throwable::setValue
+              )
       );
     }
   }
 
   /**
-   * Request a refresh from the server of the collection of {@link Passphrase} instances.
+   * Loads the words of the specified passphrases in the background, where not already loaded, so
+   * that {@link #loadDetails(long)} can complete without waiting for the server. This is intended
+   * to be invoked for the passphrases in (and near) the visible part of the list.
+   */
+  public void prefetchDetails(List<Passphrase> passphrases) {
+    GoogleSignInAccount account = this.account.getValue();
+    List<Long> ids = new ArrayList<>();
+    for (Passphrase passphrase : passphrases) {
+      if (passphrase.getWords() == null) {
+        ids.add(passphrase.getId());
+      }
+    }
+    if (account != null && !ids.isEmpty()) {
+      pending.add(
+          tokens.getAuthorizationHeader()
+              .flatMapCompletable((token) -> repository.prefetchDetails(token, ids))
+              .subscribe(() -> {}, (ex) -> {})
+      );
+    }
+  }
+
+  /**
+   * Searches the keys and cached words of the local collection for the specified query, posting
+   * the matches to {@link #getSearchResults()}. This is intended to be invoked as the user types;
+   * each query is answered from an in-memory index on a background thread, and supersedes any query
+   * still in progress. Results are updated as the collection changes, until the search is ended by
+   * invoking this method with a {@code null} or empty query.
+   */
+  public void search(String query) {
+    if (query == null || query.trim().isEmpty()) {
+      searchQuery = null;
+      queries.onNext("");
+      searchResults.setValue(null);
+    } else {
+      searchQuery = query;
+      queries.onNext(query);
+    }
+  }
+
+  /**
+   * Request a refresh from the server of the collection of {@link Passphrase} instances, starting
+   * from the first page. If a refresh started since the last local change is already in progress,
+   * no additional refresh is started.
    */
   public void refreshPassphrases() {
     GoogleSignInAccount account = this.account.getValue();
     if (account != null) {
-      refreshPassphrases(account);
+      startRefresh();
     } else {
       passphrases.setValue(Collections.EMPTY_LIST);
     }
   }
 
   /**
-   * Adds the specified {@link Passphrase} instance to the server-based collection.
+   * Queues addition of the specified {@link Passphrase} instance to the server-based collection;
+   * the saved instance is inserted into the local list once the addition has been sent. If the
+   * passphrase has no words, they are generated on-device before it is queued.
    */
   public void addPassphrase(Passphrase passphrase) {
     GoogleSignInAccount account = this.account.getValue();
     if (account != null) {
-      String token = getAuthorizationHeader(account);
-      pending.add(
-          dicewareService.post(token, passphrase)
-              .subscribeOn(Schedulers.io())
-              .subscribe((p) -> refreshPassphrases(account), this.throwable::postValue)
-      );
+      boolean generate = passphrase.getWords() == null || passphrase.getWords().isEmpty();
+      queue(generateWords(passphrase, generate, DEFAULT_LENGTH)
+          .flatMapCompletable(repository::add));
+    }
+  }
+
+  /**
+   * Generates the specified number of passphrases on-device, and uploads them to the server as they
+   * are generated, posting progress (including throughput and any failed uploads) to {@link
+   * #getBulkProgress()}. The local list is reloaded once, when all uploads have completed. Only one
+   * bulk generation runs at a time; it continues if the host activity stops, until completed or
+   * cancelled with {@link #cancelBulkGeneration()}.
+   *
+   * @param count number of passphrases.
+   * @param length number of words in each passphrase.
+   * @param keyPattern pattern of passphrase keys (see {@link BulkGenerator#formatKey(String,
+   * int)}).
+   * @param maxConcurrency maximum number of uploads in progress at once.
+   */
+  public void generatePassphrases(int count, int length, String keyPattern, int maxConcurrency) {
+    GoogleSignInAccount account = this.account.getValue();
+    if (account != null && count > 0 && bulkGeneration.isDisposed()) {
+      bulkGeneration = repository.generateAll(tokens.getAuthorizationHeader(), count, length,
+          keyPattern, maxConcurrency)
+          .subscribeOn(Schedulers.io())
+          .throttleLatest(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS, true)
+          .observeOn(AndroidSchedulers.mainThread())
+          .subscribe(
+              bulkProgress::setValue,
+              (ex) -> {
+                throwable.setValue(ex);
+                reloadAfterBulkChange();
+              },
+              this::reloadAfterBulkChange
+          );
     }
   }
 
   /**
-   * Updates the specified {@link Passphrase} instance in the server-based collection.
+   * Stops the bulk generation in progress, if any; passphrases already uploaded are kept.
+   */
+  public void cancelBulkGeneration() {
+    if (!bulkGeneration.isDisposed()) {
+      bulkGeneration.dispose();
+      reloadAfterBulkChange();
+    }
+  }
+
+  /**
+   * Queues an update of the specified {@link Passphrase} instance in the server-based collection;
+   * it is replaced in the local list with the saved instance once the update has been sent. If
+   * {@code regenerate} is {@code true}, new words are generated on-device; the server is only used
+   * to persist the result.
    */
   public void updatePassphrase(Passphrase passphrase, boolean regenerate, int length) {
     GoogleSignInAccount account = this.account.getValue();
     if (account != null) {
-      String token = getAuthorizationHeader(account);
-      pending.add(
-          dicewareService.put(token, passphrase.getId(), passphrase, regenerate, length)
-              .subscribeOn(Schedulers.io())
-              .subscribe((p) -> refreshPassphrases(account), this.throwable::postValue)
-      );
+      queue(generateWords(passphrase, regenerate, length)
+          .flatMapCompletable(repository::update));
+    }
+  }
+
+  /**
+   * Discards the local cache of passphrases, along with the currently displayed list. The cache is
+   * cleared even if the host activity stops before the operation completes.
+   */
+  public void clearPassphrases() {
+    resetPassphrases();
+    repository.clear()
+        .subscribeOn(Schedulers.io())
+        .subscribe(() -> {}, this.throwable::postValue);
+  }
+
+  /**
+   * Discards the currently displayed list, keeping the local cache of passphrases and any changes
+   * not yet sent (e.g. when the session has expired, and the user must sign in again).
+   */
+  public void resetPassphrases() {
+    paging.clear();
+    refresh.endRefresh();
+    pager.reset();
+    passphrases.setValue(Collections.EMPTY_LIST);
+  }
+
+  /**
+   * Requests the next page of {@link Passphrase} instances, if the last page hasn't already been
+   * loaded, and no page is currently loading. This is intended to be invoked as the end of the
+   * displayed list is approached.
+   */
+  public void loadMorePassphrases() {
+    GoogleSignInAccount account = this.account.getValue();
+    if (account != null && pager.canLoadMore()) {
+      loadPage(pager.getCursor());
+    }
+  }
+
+  private void startRefresh() {
+    if (refresh.beginRefresh()) {
+      reload();
     }
   }
 
-  private void refreshPassphrases(GoogleSignInAccount account) {
-    String token = getAuthorizationHeader(account);
-    pending.add(
-        dicewareService.getAll(token)
+  private void reload() {
+    paging.clear();
+    pager.reset();
+    loadPage(0);
+  }
+
+  private void loadPage(long after) {
+    long version = refresh.getVersion();
+    pager.setLoading(true);
+    paging.add(
+        repository.getCachedPage(after)
             .subscribeOn(Schedulers.io())
-            .subscribe(this.passphrases::postValue, this.throwable::postValue)
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(
+                (page) -> {
+                  if (!refresh.isCurrent(version)) {
+                    // Cache was read before a local change was applied; read it again.
+                    loadPage(after);
+                    return;
+                  }
+                  boolean offline = pager.isOffline();
+                  passphrases.setValue(pager.merge(after, page, offline));
+                  if (offline) {
+                    pager.setLoading(false);
+                  } else {
+                    fetchPage(after);
+                  }
+                },
+                this::handlePageError
+            )
     );
   }
 
-  private String getAuthorizationHeader(GoogleSignInAccount account) {
-    String token = getApplication().getString(R.string.oauth_header, account.getIdToken());
-    Log.d("OAuth2.0 token", token); // FIXME Remove before shipping.
-    return token;
+  private void fetchPage(long after) {
+    long version = refresh.getVersion();
+    paging.add(
+        tokens.getAuthorizationHeader()
+            .flatMap((token) -> repository.refreshPage(token, after)
+                .compose(calls.<List<Passphrase>>single(Priority.FOREGROUND)))
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(
+                (page) -> {
+                  if (!refresh.isCurrent(version)) {
+                    // Response may predate a local change; don't let it overwrite newer state.
+                    fetchPage(after);
+                    return;
+                  }
+                  passphrases.setValue(pager.merge(after, page, true));
+                  pager.setLoading(false);
+                  updateSearch();
+                  if (after == 0) {
+                    stale = false;
+                    refresh.endRefresh();
+                  }
+                },
+                this::handlePageError
+            )
+    );
+  }
+
+  private void handlePageError(Throwable ex) {
+    refresh.endRefresh();
+    pager.setLoading(false);
+    pager.setOffline(true);
+    stale = true;
+    throwable.setValue(ex);
+  }
+
+  private void synchronizePassphrases() {
+    if (!refresh.beginRefresh()) {
+      return; // A refresh started since the last local change will reconcile the list.
+    }
+    paging.clear();
+    pager.setLoading(true);
+    paging.add(
+        tokens.getAuthorizationHeader()
+            .flatMapObservable((token) -> repository.synchronize(token)
+                .compose(calls.<List<Passphrase>>observable(Priority.BACKGROUND)))
+            .ignoreElements()
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(this::reload, this::handlePageError)
+    );
+  }
+
+  private void applyOutcomes(List<Outcome> outcomes) {
+    List<Passphrase> removed = new ArrayList<>(outcomes.size());
+    List<Passphrase> added = new ArrayList<>(outcomes.size());
+    Throwable error = null;
+    for (Outcome outcome : outcomes) {
+      Mutation mutation = outcome.getMutation();
+      if (outcome.getError() != null) {
+        error = outcome.getError();
+      } else {
+        removed.add((mutation.getOperation() != Operation.ADD) ? mutation.toPassphrase() : null);
+        added.add(outcome.getSaved());
+      }
+    }
+    if (error instanceof HttpException) {
+      // The synchronization started for the rejected change also reconciles the accepted ones.
+      handleMutationError(error);
+    } else {
+      if (!removed.isEmpty()) {
+        applyMutations(removed, added);
+      }
+      if (error != null) {
+        handleMutationError(error);
+      }
+    }
+  }
+
+  private void applyMutations(List<Passphrase> removed, List<Passphrase> added) {
+    boolean superseded = refresh.invalidate();
+    if (stale) {
+      synchronizePassphrases();
+    } else {
+      passphrases.setValue(pager.update(removed, added));
+      updateSearch();
+      if (superseded) {
+        // The refresh in flight started before this change; replace it with a current one.
+        startRefresh();
+      }
+    }
+  }
+
+  private void queue(Completable change) {
+    queuingCount++;
+    queuing.setValue(true);
+    change
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .doFinally(() -> {
+          if (--queuingCount == 0) {
+            queuing.setValue(false);
+          }
+        })
+        .subscribe(() -> {}, throwable::setValue);
+  }
+
+  private void reloadAfterBulkChange() {
+    refresh.invalidate();
+    refreshPassphrases();
+    updateSearch();
+  }
+
+  private void updateSearch() {
+    if (searchQuery != null) {
+      queries.onNext(searchQuery);
+    }
+  }
+
+  private Single<Passphrase> generateWords(Passphrase passphrase, boolean generate, int length) {
+    return generate
+        ? Single.fromCallable(() -> {
+          passphrase.setWords(PassphraseGenerator.getInstance().generate(length));
+          return passphrase;
+        })
+        : Single.just(passphrase);
+  }
+
+  private Passphrase regenerate(Passphrase details) {
+    List<String> words = details.getWords();
+    Passphrase regenerated = new Passphrase();
+    regenerated.setId(details.getId());
+    regenerated.setKey(details.getKey());
+    regenerated.setWords(PassphraseGenerator.getInstance().generate(
+        (words != null && !words.isEmpty()) ? words.size() : DEFAULT_LENGTH));
+    return regenerated;
+  }
+
+  private void handleMutationError(Throwable ex) {
+    throwable.setValue(ex);
+    if (ex instanceof HttpException) {
+      // Server rejected the change (e.g. item already deleted elsewhere), so local list is suspect.
+      refresh.invalidate();
+      stale = true;
+      synchronizePassphrases();
+    }
+  }
+
+  @OnLifecycleEvent(Event.ON_START)
+  private void preconnect() {
+    repository.preconnect();
+  }
+
+  @Override
+  protected void onCleared() {
+    super.onCleared();
+    outcomes.dispose();
+    pendingCounts.dispose();
+    searches.dispose();
+    bulkGeneration.dispose();
   }
 
   @OnLifecycleEvent(Event.ON_STOP)
   private void clearPending() {
     pending.clear();
+    paging.clear();
+    refresh.endRefresh();
+    pager.setLoading(false);
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.viewmodel;
+
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Paging state for a list of {@link Passphrase} instances loaded page by page, in ascending ID
+ * order, using the ID of the last loaded passphrase as the cursor for the next page. Each merge or
+ * update returns a new snapshot of the loaded passphrases, suitable for posting to {@link
+ * androidx.lifecycle.LiveData}. Instances are not thread-safe, and are intended to be accessed only
+ * from the main thread.
+ */
+class PassphrasePager {
+
+  private final int pageSize;
+  private final List<Passphrase> loaded;
+
+  private long cursor;
+  private boolean complete;
+  private boolean loading;
+  private boolean offline;
+
+  /**
+   * Initializes an empty pager.
+   *
+   * @param pageSize maximum number of items per page.
+   */
+  PassphrasePager(int pageSize) {
+    this.pageSize = pageSize;
+    loaded = new ArrayList<>();
+  }
+
+  /**
+   * Discards all loaded passphrases and paging state, in preparation for loading from the first
+   * page.
+   */
+  void reset() {
+    loaded.clear();
+    cursor = 0;
+    complete = false;
+    loading = false;
+    offline = false;
+  }
+
+  /**
+   * Returns the cursor (the ID of the last loaded passphrase) for the next page.
+   */
+  long getCursor() {
+    return cursor;
+  }
+
+  /**
+   * Returns a flag indicating whether another page may be requested&mdash;i.e. the last page has
+   * not yet been loaded, and no page is currently loading.
+   */
+  boolean canLoadMore() {
+    return !complete && !loading;
+  }
+
+  /**
+   * Sets a flag indicating whether a page is currently loading.
+   */
+  void setLoading(boolean loading) {
+    this.loading = loading;
+  }
+
+  /**
+   * Returns a flag indicating whether a server request failed since the last {@link #reset()}, so
+   * that subsequent pages should be read from the local cache only.
+   */
+  boolean isOffline() {
+    return offline;
+  }
+
+  /**
+   * Sets a flag indicating whether subsequent pages should be read from the local cache only.
+   */
+  void setOffline(boolean offline) {
+    this.offline = offline;
+  }
+
+  /**
+   * Merges a page into the loaded passphrases, replacing any loaded passphrases in the ID range
+   * covered by the page. If the page is authoritative (i.e. it reflects the current server-based
+   * collection, or the local cache when no server is available) and contains fewer than the page
+   * size, it is treated as the last page, and the range extends past the last ID.
+   *
+   * @param after cursor ID used to request the page.
+   * @param page passphrases in the page, in ascending ID order.
+   * @param authoritative flag indicating whether the page is authoritative.
+   * @return snapshot of loaded passphrases.
+   */
+  List<Passphrase> merge(long after, List<Passphrase> page, boolean authoritative) {
+    boolean last = authoritative && page.size() < pageSize;
+    if (last || !page.isEmpty()) {
+      long through = last ? Long.MAX_VALUE : page.get(page.size() - 1).getId();
+      int start = indexAfter(after);
+      int end = indexAfter(through);
+      loaded.subList(start, end).clear();
+      loaded.addAll(start, page);
+      if (last) {
+        complete = true;
+        cursor = page.isEmpty() ? after : page.get(page.size() - 1).getId();
+      } else if (authoritative) {
+        cursor = through;
+      } else {
+        cursor = Math.max(cursor, through);
+      }
+    }
+    return snapshot();
+  }
+
+  /**
+   * Applies the result of a mutation to the loaded passphrases. An added passphrase is only
+   * inserted if its ID falls within the range already loaded; otherwise, it will be included when
+   * the corresponding page is loaded.
+   *
+   * @param removed passphrase to remove (may be {@code null}).
+   * @param added passphrase to add (may be {@code null}).
+   * @return snapshot of loaded passphrases.
+   */
+  List<Passphrase> update(Passphrase removed, Passphrase added) {
+    apply(removed, added);
+    return snapshot();
+  }
+
+  /**
+   * Applies the results of a sequence of mutations to the loaded passphrases, in order, as if by
+   * {@link #update(Passphrase, Passphrase)}, but returning a single snapshot.
+   *
+   * @param removed passphrases to remove (with {@code null} elements for mutations that remove
+   * nothing).
+   * @param added passphrases to add, in parallel with {@code removed} (with {@code null} elements
+   * for mutations that add nothing).
+   * @return snapshot of loaded passphrases.
+   */
+  List<Passphrase> update(List<Passphrase> removed, List<Passphrase> added) {
+    for (int i = 0; i < removed.size(); i++) {
+      apply(removed.get(i), added.get(i));
+    }
+    return snapshot();
+  }
+
+  private void apply(Passphrase removed, Passphrase added) {
+    if (removed != null) {
+      int index = indexAfter(removed.getId() - 1);
+      if (index < loaded.size() && loaded.get(index).getId() == removed.getId()) {
+        loaded.remove(index);
+      }
+    }
+    if (added != null && (complete || added.getId() <= cursor)) {
+      int index = indexAfter(added.getId() - 1);
+      if (index < loaded.size() && loaded.get(index).getId() == added.getId()) {
+        loaded.set(index, added);
+      } else {
+        loaded.add(index, added);
+      }
+    }
+  }
+
+  private int indexAfter(long id) {
+    int low = 0;
+    int high = loaded.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (loaded.get(mid).getId() <= id) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private List<Passphrase> snapshot() {
+    return new ArrayList<>(loaded);
+  }
+
+}
@@ -0,0 +1,90 @@
+/*
+ *  Copyright 2019 Nicholas Bennett & Deep Dive Coding/CNM Ingenuity
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package edu.cnm.deepdive.diceware.viewmodel;
+
+/**
+ * Single-flight, latest-wins coordination of list refreshes. Refresh requests made while a refresh
+ * is in flight share that refresh, rather than starting another; however, each local mutation
+ * advances a version number, so that a refresh (or any page load) started before the mutation is
+ * recognized as stale, and superseded by a new one. Instances are not thread-safe, and are intended
+ * to be accessed only from the main thread.
+ */
+class RefreshCoordinator {
+
+  private long version;
+  private boolean refreshing;
+  private long refreshVersion;
+
+  /**
+   * Returns the current version. A response to a request started now is current until the next
+   * invocation of {@link #invalidate()}.
+   */
+  long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns a flag indicating whether no mutation has been recorded since the specified version was
+   * obtained.
+   *
+   * @param version value returned by {@link #getVersion()} when a request was started.
+   */
+  boolean isCurrent(long version) {
+    return this.version == version;
+  }
+
+  /**
+   * Returns a flag indicating whether a refresh is in flight.
+   */
+  boolean isRefreshing() {
+    return refreshing;
+  }
+
+  /**
+   * Requests a refresh. If a refresh started since the last mutation is already in flight, the
+   * request is satisfied by that refresh; otherwise, the caller must start a new refresh (after
+   * cancelling any stale one).
+   *
+   * @return {@code true} if a new refresh should be started; {@code false} otherwise.
+   */
+  boolean beginRefresh() {
+    if (refreshing && refreshVersion == version) {
+      return false;
+    }
+    refreshing = true;
+    refreshVersion = version;
+    return true;
+  }
+
+  /**
+   * Records the completion, failure, or cancellation of the refresh in flight.
+   */
+  void endRefresh() {
+    refreshing = false;
+  }
+
+  /**
+   * Records a local mutation, making responses to all requests started before now stale.
+   *
+   * @return {@code true} if a refresh was in flight (and should be superseded); {@code false}
+   * otherwise.
+   */
+  boolean invalidate() {
+    version++;
+    return refreshing;
+  }
+
+}
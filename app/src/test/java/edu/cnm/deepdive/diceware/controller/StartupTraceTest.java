@@ -0,0 +1,60 @@
+package edu.cnm.deepdive.diceware.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for launch-to-first-frame measurement by {@link StartupTrace}, simulating the calls
+ * made during a cold start: {@code DicewareApplication} marks the launch, {@code LoginActivity}
+ * records the path taken, and {@code MainActivity} marks each frame of the passphrase list.
+ */
+public class StartupTraceTest {
+
+  private long now;
+  private StartupTrace trace;
+
+  @Before
+  public void setUp() {
+    now = 5_000; // Monotonic clocks start at an arbitrary origin (e.g. boot).
+    trace = new StartupTrace(() -> now);
+  }
+
+  @Test
+  public void coldStart_fastPath_measuresLaunchToFirstFrame() {
+    trace.markLaunch();
+    now += 120;
+    trace.setFastPath(true);
+    now += 230;
+    assertFalse(trace.isComplete());
+    assertTrue(trace.markFirstFrame());
+    assertTrue(trace.isComplete());
+    assertTrue(trace.isFastPath());
+    assertEquals(350, trace.getTimeToFirstFrame());
+  }
+
+  @Test
+  public void coldStart_laterLaunchesAndFrames_ignored() {
+    trace.markLaunch();
+    trace.setFastPath(false);
+    now += 900;
+    trace.markLaunch(); // E.g. a second activity created in the same process.
+    now += 100;
+    assertTrue(trace.markFirstFrame());
+    now += 1_000;
+    assertFalse(trace.markFirstFrame()); // E.g. the list refreshed from the server.
+    assertFalse(trace.isFastPath());
+    assertEquals(1_000, trace.getTimeToFirstFrame());
+  }
+
+  @Test
+  public void markFirstFrame_withoutLaunch_ignored() {
+    assertFalse(trace.markFirstFrame());
+    assertFalse(trace.isComplete());
+    assertEquals(-1, trace.getTimeToFirstFrame());
+  }
+
+}
@@ -0,0 +1,99 @@
+package edu.cnm.deepdive.diceware.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.security.SecureRandom;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Measures bulk dice-rolling throughput (rolls per second) and steady-state allocation of {@link
+ * DiceRoller}, against a baseline that requests one byte of entropy from {@link SecureRandom} per
+ * die. Excluded from the default test run; use {@code ./gradlew testDebugUnitTest -Pbenchmark}.
+ */
+public class DiceRollerBenchmark {
+
+  private static final int PASSPHRASES = 1_000;
+  private static final int LENGTH = 6;
+  private static final int DICE = 5;
+  private static final int ROLLS = PASSPHRASES * LENGTH * DICE;
+  private static final int WARM_UP = 20;
+  private static final int ITERATIONS = 20;
+
+  @Test
+  public void bulkThroughput() {
+    DiceRoller roller = new DiceRoller();
+    int[] indices = new int[PASSPHRASES * LENGTH];
+    for (int i = 0; i < WARM_UP; i++) {
+      roller.rollIndices(indices, 0, indices.length, DICE);
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      roller.rollIndices(indices, 0, indices.length, DICE);
+    }
+    double bulkRate = rate(start);
+
+    SecureRandom rng = new SecureRandom();
+    byte[] single = new byte[1];
+    for (int i = 0; i < WARM_UP; i++) {
+      rollUnbuffered(rng, single);
+    }
+    start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      rollUnbuffered(rng, single);
+    }
+    double baselineRate = rate(start);
+    System.out.printf("Rolls/sec: bulk %,.0f; one SecureRandom call per die %,.0f%n",
+        bulkRate, baselineRate);
+    assertTrue(bulkRate > baselineRate);
+  }
+
+  @Test
+  public void bulkRolling_allocatesNothing() {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    // java.util.Random fills blocks without allocating, which isolates the roller's own allocation.
+    DiceRoller roller = new DiceRoller(new Random());
+    int[] indices = new int[PASSPHRASES * LENGTH];
+    for (int i = 0; i < WARM_UP; i++) {
+      roller.rollIndices(indices, 0, indices.length, DICE);
+    }
+    long before = threads.getThreadAllocatedBytes(thread);
+    for (int i = 0; i < ITERATIONS; i++) {
+      roller.rollIndices(indices, 0, indices.length, DICE);
+    }
+    long allocated = threads.getThreadAllocatedBytes(thread) - before;
+    // Measure the measurement overhead itself, so it can be discounted.
+    before = threads.getThreadAllocatedBytes(thread);
+    long overhead = threads.getThreadAllocatedBytes(thread) - before;
+
+    DiceRoller secure = new DiceRoller();
+    for (int i = 0; i < WARM_UP; i++) {
+      secure.rollIndices(indices, 0, indices.length, DICE);
+    }
+    before = threads.getThreadAllocatedBytes(thread);
+    for (int i = 0; i < ITERATIONS; i++) {
+      secure.rollIndices(indices, 0, indices.length, DICE);
+    }
+    long secureAllocated = threads.getThreadAllocatedBytes(thread) - before;
+    System.out.printf("Bytes allocated per %,d rolls: roller %,d; with SecureRandom %,d%n",
+        ROLLS, (allocated - overhead) / ITERATIONS, (secureAllocated - overhead) / ITERATIONS);
+    assertEquals(0, allocated - overhead);
+  }
+
+  private static void rollUnbuffered(SecureRandom rng, byte[] single) {
+    for (int i = 0; i < ROLLS; i++) {
+      do {
+        rng.nextBytes(single);
+      } while ((single[0] & 0xff) >= 252);
+    }
+  }
+
+  private static double rate(long start) {
+    return (double) ROLLS * ITERATIONS * 1e9 / (System.nanoTime() - start);
+  }
+
+}
@@ -0,0 +1,106 @@
+package edu.cnm.deepdive.diceware.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * Unit tests for on-device generation with {@link PassphraseGenerator} and {@link DiceRoller}.
+ */
+public class PassphraseGeneratorTest {
+
+  private static final String WORD_LIST = "src/main/wordlists/eff_large.txt";
+
+  @Test
+  public void generate_bundledList_selectsListedWords() throws Exception {
+    WordList wordList = ArrayWordList.read(new FileInputStream(WORD_LIST));
+    assertEquals(7776, wordList.size());
+    Set<String> words = new HashSet<>();
+    for (int i = 0; i < wordList.size(); i++) {
+      words.add(wordList.get(i));
+    }
+    PassphraseGenerator generator = new PassphraseGenerator(wordList, new DiceRoller());
+    assertEquals(5, generator.getDicePerWord());
+    List<String> passphrase = generator.generate(6);
+    assertEquals(6, passphrase.size());
+    assertTrue(words.containsAll(passphrase));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_sizeNotPowerOfSix_fails() {
+    new PassphraseGenerator(new ArrayWordList(new String[]{"a", "b", "c", "d"}), new DiceRoller());
+  }
+
+  @Test
+  public void generate_mapsDiceToIndex() {
+    String[] words = new String[36];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = String.valueOf(i);
+    }
+    // Bytes 0..5 map to faces 1..6; 252..255 must be rejected.
+    byte[] bytes = {(byte) 252, 2, (byte) 255, 5, 0, 0};
+    PassphraseGenerator generator =
+        new PassphraseGenerator(new ArrayWordList(words), new DiceRoller(new FixedRandom(bytes)));
+    assertEquals(Arrays.asList("17", "0"), generator.generate(2));
+  }
+
+  @Test
+  public void packedWordList_matchesText() throws Exception {
+    WordList text = ArrayWordList.read(new FileInputStream(WORD_LIST));
+    List<String> words = new ArrayList<>();
+    for (int i = 0; i < text.size(); i++) {
+      words.add(text.get(i));
+    }
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    PackedWordList.write(words, output);
+    PackedWordList packed = new PackedWordList(ByteBuffer.wrap(output.toByteArray()));
+    assertEquals(text.size(), packed.size());
+    for (int i = 0; i < packed.size(); i++) {
+      assertEquals(words.get(i), packed.get(i));
+      assertEquals(words.get(i).length(), packed.byteLength(i));
+    }
+  }
+
+  @Test
+  public void roll_isUniform() {
+    DiceRoller roller = new DiceRoller(new Random(42));
+    int[] counts = new int[DiceRoller.FACES + 1];
+    int rolls = 60_000;
+    for (int i = 0; i < rolls; i++) {
+      counts[roller.roll()]++;
+    }
+    assertEquals(0, counts[0]);
+    for (int face = 1; face <= DiceRoller.FACES; face++) {
+      assertEquals(rolls / DiceRoller.FACES, counts[face], rolls / 100.0);
+    }
+  }
+
+  private static class FixedRandom extends Random {
+
+    private final byte[] values;
+    private int position;
+
+    private FixedRandom(byte[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public void nextBytes(byte[] bytes) {
+      for (int i = 0; i < bytes.length; i++) {
+        bytes[i] = values[position++ % values.length];
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,36 @@
+package edu.cnm.deepdive.diceware.generator;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import org.junit.Test;
+
+/**
+ * Unit tests for reverse lookup of words by {@link WordIndex}.
+ */
+public class WordIndexTest {
+
+  private static final String WORD_LIST = "src/main/wordlists/eff_large.txt";
+
+  @Test
+  public void indexOf_findsEveryWordOfUnsortedList() throws IOException {
+    // The EFF list is in dice order, which isn't strictly alphabetical ("zoologist", "zookeeper",
+    // "zoology").
+    WordList wordList = ArrayWordList.read(new FileInputStream(WORD_LIST));
+    WordIndex index = new WordIndex(wordList);
+    for (int i = 0; i < wordList.size(); i++) {
+      assertEquals(i, index.indexOf(wordList.get(i)));
+    }
+    assertEquals(-1, index.indexOf("zz"));
+    assertEquals(-1, index.indexOf(""));
+  }
+
+  @Test
+  public void indexOf_duplicates_firstOccurrence() {
+    WordIndex index = new WordIndex(new ArrayWordList(new String[]{"b", "a", "b"}));
+    assertEquals(0, index.indexOf("b"));
+    assertEquals(1, index.indexOf("a"));
+  }
+
+}
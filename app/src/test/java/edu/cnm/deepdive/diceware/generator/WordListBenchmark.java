@@ -0,0 +1,104 @@
+package edu.cnm.deepdive.diceware.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Compares load time and retained heap of the plain-text ({@link ArrayWordList}) and packed,
+ * memory-mapped ({@link PackedWordList}) word list representations. Excluded from the default test
+ * run; use {@code ./gradlew testDebugUnitTest -Pbenchmark}.
+ */
+public class WordListBenchmark {
+
+  private static final String WORD_LIST = "src/main/wordlists/eff_large.txt";
+  private static final int ITERATIONS = 50;
+
+  private static File packed;
+
+  @BeforeClass
+  public static void pack() throws IOException {
+    ArrayWordList text = ArrayWordList.read(new FileInputStream(WORD_LIST));
+    List<String> words = new ArrayList<>(text.size());
+    for (int i = 0; i < text.size(); i++) {
+      words.add(text.get(i));
+    }
+    packed = File.createTempFile("eff_large", ".dwl");
+    try (OutputStream output = new FileOutputStream(packed)) {
+      PackedWordList.write(words, output);
+    }
+  }
+
+  @AfterClass
+  public static void cleanUp() {
+    packed.delete();
+  }
+
+  @Test
+  public void compareLoadTime() throws IOException {
+    for (int i = 0; i < ITERATIONS; i++) { // Warm-up.
+      loadText();
+      loadPacked();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      loadText();
+    }
+    long textNanos = (System.nanoTime() - start) / ITERATIONS;
+    start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      loadPacked();
+    }
+    long packedNanos = (System.nanoTime() - start) / ITERATIONS;
+    System.out.printf("Load time: text %,d us; packed %,d us%n",
+        textNanos / 1000, packedNanos / 1000);
+    assertTrue(packedNanos < textNanos);
+  }
+
+  @Test
+  public void compareRetainedHeap() throws IOException {
+    long baseline = usedHeap();
+    WordList text = loadText();
+    long textBytes = usedHeap() - baseline;
+    assertEquals(7776, text.size());
+    text = null;
+    baseline = usedHeap();
+    WordList packedList = loadPacked();
+    long packedBytes = usedHeap() - baseline;
+    assertEquals(7776, packedList.size());
+    System.out.printf("Retained heap: text %,d bytes; packed %,d bytes%n", textBytes, packedBytes);
+    assertTrue(packedBytes * 10 < textBytes);
+  }
+
+  private static WordList loadText() throws IOException {
+    return ArrayWordList.read(new FileInputStream(WORD_LIST));
+  }
+
+  private static WordList loadPacked() throws IOException {
+    try (FileInputStream input = new FileInputStream(packed)) {
+      FileChannel channel = input.getChannel();
+      return new PackedWordList(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 4; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+}
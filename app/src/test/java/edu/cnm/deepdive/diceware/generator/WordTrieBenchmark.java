@@ -0,0 +1,105 @@
+package edu.cnm.deepdive.diceware.generator;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Measures the build time of a {@link WordTrie} over the packed EFF large word list, and the
+ * latency and allocation of the lookups made on each keystroke (validation of the word typed so
+ * far, and its first few completions). Excluded from the default test run; use {@code ./gradlew
+ * testDebugUnitTest -Pbenchmark}.
+ */
+public class WordTrieBenchmark {
+
+  private static final String WORD_LIST = "src/main/wordlists/eff_large.txt";
+  private static final int WARM_UP = 5;
+  private static final int ITERATIONS = 20;
+  private static final int TYPED_WORDS = 1_000;
+  private static final int SUGGESTIONS = 3;
+
+  private static PackedWordList wordList;
+  private static String[] typed;
+
+  @BeforeClass
+  public static void pack() throws IOException {
+    WordList text = ArrayWordList.read(new FileInputStream(WORD_LIST));
+    List<String> words = new ArrayList<>(text.size());
+    for (int i = 0; i < text.size(); i++) {
+      words.add(text.get(i));
+    }
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    PackedWordList.write(words, output);
+    wordList = new PackedWordList(ByteBuffer.wrap(output.toByteArray()));
+    Random rng = new Random(0);
+    typed = new String[TYPED_WORDS];
+    for (int i = 0; i < typed.length; i++) {
+      // Mostly dictionary words, with some misspellings.
+      String word = words.get(rng.nextInt(words.size()));
+      typed[i] = (rng.nextInt(10) == 0) ? word.substring(0, word.length() - 1) + "q" : word;
+    }
+  }
+
+  @Test
+  public void build() {
+    for (int i = 0; i < WARM_UP; i++) {
+      new WordTrie(wordList);
+    }
+    long start = System.nanoTime();
+    WordTrie trie = null;
+    for (int i = 0; i < ITERATIONS; i++) {
+      trie = new WordTrie(wordList);
+    }
+    System.out.printf("Build: %,d us; %,d nodes%n",
+        (System.nanoTime() - start) / ITERATIONS / 1000, trie.getNodeCount());
+  }
+
+  @Test
+  public void keystrokeLookups() {
+    WordTrie trie = new WordTrie(wordList);
+    int[] completions = new int[SUGGESTIONS];
+    for (int i = 0; i < WARM_UP; i++) {
+      typeAll(trie, completions);
+    }
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    long allocated = threads.getThreadAllocatedBytes(thread);
+    long start = System.nanoTime();
+    long keystrokes = 0;
+    for (int i = 0; i < ITERATIONS; i++) {
+      keystrokes += typeAll(trie, completions);
+    }
+    long nanos = System.nanoTime() - start;
+    allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+    System.out.printf("Keystroke lookups: %,d ns each; %,d bytes allocated in %,d keystrokes%n",
+        nanos / keystrokes, allocated, keystrokes);
+    assertTrue(nanos / keystrokes < 10_000);
+    // A few bytes are allocated by the measurement itself; none per keystroke.
+    assertTrue(allocated < keystrokes);
+  }
+
+  private static long typeAll(WordTrie trie, int[] completions) {
+    long keystrokes = 0;
+    for (String word : typed) {
+      for (int end = 1; end <= word.length(); end++) {
+        if (trie.indexOf(word, 0, end) < 0 && !trie.isPrefix(word, 0, end)) {
+          completions[0] = -1;
+        }
+        trie.complete(word, 0, end, completions);
+        keystrokes++;
+      }
+    }
+    return keystrokes;
+  }
+
+}
@@ -0,0 +1,71 @@
+package edu.cnm.deepdive.diceware.generator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Unit tests for word lookup and completion by {@link WordTrie}.
+ */
+public class WordTrieTest {
+
+  private static final String WORD_LIST = "src/main/wordlists/eff_large.txt";
+
+  @Test
+  public void indexOf_packedList_findsEveryWord() throws IOException {
+    WordList text = ArrayWordList.read(new FileInputStream(WORD_LIST));
+    List<String> words = new ArrayList<>(text.size());
+    for (int i = 0; i < text.size(); i++) {
+      words.add(text.get(i));
+    }
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    PackedWordList.write(words, output);
+    WordTrie trie = new WordTrie(new PackedWordList(ByteBuffer.wrap(output.toByteArray())));
+    for (int i = 0; i < words.size(); i++) {
+      assertEquals(i, trie.indexOf(words.get(i), 0, words.get(i).length()));
+    }
+    assertEquals(-1, trie.indexOf("zz", 0, 2));
+    assertEquals(-1, trie.indexOf("", 0, 0));
+    assertTrue(trie.isPrefix("zoolo", 0, 5));
+  }
+
+  @Test
+  public void complete_prefix_alphabeticalAndBounded() {
+    WordTrie trie = new WordTrie(
+        new ArrayWordList(new String[]{"abide", "abacus", "abdomen", "able", "zebra", "ab"}));
+    int[] positions = new int[3];
+    assertEquals(3, trie.complete("x ab", 2, 4, positions));
+    assertArrayEquals(new int[]{5, 1, 2}, positions);
+    assertEquals(1, trie.complete("zeb", 0, 3, positions));
+    assertEquals(4, positions[0]);
+    assertEquals(0, trie.complete("abz", 0, 3, positions));
+    assertEquals(5, trie.indexOf("ab", 0, 2));
+    assertFalse(trie.isPrefix("abx", 0, 3));
+    assertTrue(trie.isPrefix("", 0, 0));
+  }
+
+  @Test
+  public void indexOf_nonAscii_duplicates() {
+    String[] words = {"caf\u00e9", "na\u00efve", "\u20ac", "\ud83c\udfb2dice", "cafe", "cafe"};
+    WordTrie trie = new WordTrie(new ArrayWordList(words));
+    for (int i = 0; i < 5; i++) {
+      assertEquals(i, trie.indexOf(words[i], 0, words[i].length()));
+    }
+    assertTrue(trie.isPrefix("\ud83c\udfb2", 0, 2));
+    assertFalse(trie.isPrefix("\ud83c", 0, 1));
+    int[] positions = new int[4];
+    assertEquals(2, trie.complete("caf", 0, 3, positions));
+    assertEquals(Arrays.asList(4, 0), Arrays.asList(positions[0], positions[1]));
+  }
+
+}
@@ -0,0 +1,119 @@
+package edu.cnm.deepdive.diceware.model;
+
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.diceware.generator.ArrayWordList;
+import edu.cnm.deepdive.diceware.generator.WordIndex;
+import edu.cnm.deepdive.diceware.generator.WordList;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Measures the retained heap of 10,000- and 100,000-passphrase collections, with words held as
+ * {@link String} lists (as decoded from JSON, one instance per word) and as {@link InternedWords}.
+ * Excluded from the default test run; use {@code ./gradlew testDebugUnitTest -Pbenchmark}.
+ */
+public class InternedWordsBenchmark {
+
+  private static final String WORD_LIST = "src/main/wordlists/eff_large.txt";
+  private static final int WORDS = 6;
+  private static final int CUSTOM_PERCENT = 5;
+
+  private static WordList wordList;
+
+  @BeforeClass
+  public static void loadDictionary() throws IOException {
+    wordList = ArrayWordList.read(new FileInputStream(WORD_LIST));
+    InternedWords.setDictionary(new WordIndex(wordList));
+  }
+
+  @AfterClass
+  public static void clearDictionary() {
+    InternedWords.setDictionary(null);
+  }
+
+  @Test
+  public void compareRetainedHeap_10k() {
+    compareRetainedHeap(10_000);
+  }
+
+  @Test
+  public void compareRetainedHeap_100k() {
+    compareRetainedHeap(100_000);
+  }
+
+  private static void compareRetainedHeap(int count) {
+    long baseline = usedHeap();
+    List<Passphrase> passphrases = build(count, Storage.NONE);
+    long noWordsBytes = usedHeap() - baseline;
+    passphrases = null;
+    baseline = usedHeap();
+    passphrases = build(count, Storage.STRINGS);
+    long stringBytes = usedHeap() - baseline - noWordsBytes;
+    passphrases = null;
+    baseline = usedHeap();
+    passphrases = build(count, Storage.INTERNED);
+    long internedBytes = usedHeap() - baseline - noWordsBytes;
+    System.out.printf(
+        "Retained heap of words, %,d passphrases: strings %,d bytes; interned %,d bytes%n",
+        passphrases.size(), stringBytes, internedBytes);
+    assertTrue(internedBytes * 3 < stringBytes);
+  }
+
+  private static List<Passphrase> build(int count, Storage storage) {
+    Random rng = new Random(0);
+    List<Passphrase> passphrases = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Passphrase passphrase = new Passphrase();
+      passphrase.setId(i + 1);
+      passphrase.setKey("passphrase-" + i);
+      if (storage != Storage.NONE) {
+        List<String> words = new ArrayList<>(WORDS);
+        for (int j = 0; j < WORDS; j++) {
+          String word = (rng.nextInt(100) < CUSTOM_PERCENT)
+              ? "custom" + rng.nextInt(1000)
+              : wordList.get(rng.nextInt(wordList.size()));
+          // A new instance (with its own character data), as a JSON decoder would create it.
+          words.add(new String(word.toCharArray()));
+        }
+        if (storage == Storage.INTERNED) {
+          passphrase.setWords(words);
+        } else {
+          setRawWords(passphrase, words);
+        }
+      }
+      passphrases.add(passphrase);
+    }
+    return passphrases;
+  }
+
+  private static void setRawWords(Passphrase passphrase, List<String> words) {
+    try {
+      Field field = Passphrase.class.getDeclaredField("words");
+      field.setAccessible(true);
+      field.set(passphrase, words);
+    } catch (ReflectiveOperationException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 4; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private enum Storage {
+    NONE, STRINGS, INTERNED
+  }
+
+}
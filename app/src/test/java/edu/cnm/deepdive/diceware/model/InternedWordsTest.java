@@ -0,0 +1,95 @@
+package edu.cnm.deepdive.diceware.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.diceware.generator.ArrayWordList;
+import edu.cnm.deepdive.diceware.generator.WordIndex;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the compact word storage of {@link InternedWords} and {@link Passphrase}.
+ */
+public class InternedWordsTest {
+
+  private WordIndex dictionary;
+
+  @Before
+  public void setUp() {
+    dictionary = new WordIndex(
+        new ArrayWordList(new String[]{"abacus", "abdomen", "abdominal", "abide"}));
+    InternedWords.setDictionary(dictionary);
+  }
+
+  @After
+  public void tearDown() {
+    InternedWords.setDictionary(null);
+  }
+
+  @Test
+  public void of_mixedWords_preservesContentAndOrder() {
+    List<String> source = Arrays.asList("abide", "custom", "abacus", null, "other", "abide");
+    List<String> interned = InternedWords.of(source);
+    assertTrue(interned instanceof InternedWords);
+    assertEquals(source, interned);
+    assertEquals(source.hashCode(), interned.hashCode());
+    assertEquals(source.toString(), interned.toString());
+    assertSame(interned, InternedWords.of(interned));
+    assertNull(InternedWords.of(null));
+  }
+
+  @Test
+  public void equals_sameDictionary_comparesCodes() {
+    List<String> first = InternedWords.of(Arrays.asList("abacus", "custom"));
+    List<String> second = InternedWords.of(Arrays.asList("abacus", "custom"));
+    List<String> third = InternedWords.of(Arrays.asList("abacus", "abide"));
+    assertEquals(first, second);
+    assertNotEquals(first, third);
+    assertEquals(Arrays.asList("abacus", "custom"), first);
+  }
+
+  @Test
+  public void builder_addIndex_matchesAdd() {
+    InternedWords built = new InternedWords.Builder(dictionary, 3)
+        .addIndex(3)
+        .add("custom")
+        .addIndex(0)
+        .build();
+    assertEquals(InternedWords.of(Arrays.asList("abide", "custom", "abacus")), built);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void builder_addIndex_outOfRange() {
+    new InternedWords.Builder(dictionary, 1).addIndex(4);
+  }
+
+  @Test
+  public void passphrase_serialization_roundTrips() throws Exception {
+    Passphrase passphrase = new Passphrase();
+    passphrase.setKey("alpha");
+    passphrase.setWords(Arrays.asList("abdomen", "custom"));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+      output.writeObject(passphrase);
+    }
+    Passphrase copy;
+    try (ObjectInputStream input =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      copy = (Passphrase) input.readObject();
+    }
+    assertTrue(copy.getWords() instanceof InternedWords);
+    assertEquals(passphrase.getWords(), copy.getWords());
+  }
+
+}
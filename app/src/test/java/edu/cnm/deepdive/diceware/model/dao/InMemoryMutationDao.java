@@ -0,0 +1,86 @@
+package edu.cnm.deepdive.diceware.model.dao;
+
+import edu.cnm.deepdive.diceware.model.Mutation;
+import edu.cnm.deepdive.diceware.model.Mutation.Operation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@link MutationDao} backed by a {@link TreeMap}, for tests that don't need Room.
+ */
+public class InMemoryMutationDao extends MutationDao {
+
+  private final Map<Long, Mutation> mutations = new TreeMap<>();
+
+  private long nextId = 1;
+
+  @Override
+  public synchronized long insert(Mutation mutation) {
+    mutation.setId(nextId++);
+    mutations.put(mutation.getId(), mutation);
+    return mutation.getId();
+  }
+
+  @Override
+  public synchronized int delete(Mutation mutation) {
+    return (mutations.remove(mutation.getId()) != null) ? 1 : 0;
+  }
+
+  @Override
+  public synchronized void deleteAll() {
+    mutations.clear();
+  }
+
+  @Override
+  public synchronized int deleteFor(long passphraseId, Operation operation) {
+    int size = mutations.size();
+    mutations.values().removeIf((mutation) -> mutation.getPassphraseId() == passphraseId
+        && mutation.getOperation() == operation);
+    return size - mutations.size();
+  }
+
+  @Override
+  public synchronized List<Mutation> selectPending(long after, int limit) {
+    List<Mutation> pending = new ArrayList<>();
+    for (Mutation mutation : mutations.values()) {
+      if (mutation.getId() > after && pending.size() < limit) {
+        pending.add(copy(mutation));
+      }
+    }
+    return pending;
+  }
+
+  @Override
+  public synchronized int countPending() {
+    return mutations.size();
+  }
+
+  @Override
+  public synchronized void incrementAttempts(long id) {
+    Mutation mutation = mutations.get(id);
+    if (mutation != null) {
+      mutation.setAttempts(mutation.getAttempts() + 1);
+    }
+  }
+
+  @Override
+  public synchronized long enqueue(Mutation mutation) {
+    return super.enqueue(mutation);
+  }
+
+  @Override
+  public synchronized void enqueueAll(List<Mutation> mutations) {
+    super.enqueueAll(mutations);
+  }
+
+  private static Mutation copy(Mutation mutation) {
+    // Rows read from Room are detached from the table; mirror that.
+    Mutation copy = Mutation.of(mutation.getOperation(), mutation.toPassphrase());
+    copy.setId(mutation.getId());
+    copy.setAttempts(mutation.getAttempts());
+    return copy;
+  }
+
+}
@@ -0,0 +1,91 @@
+package edu.cnm.deepdive.diceware.model.dao;
+
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@link PassphraseDao} backed by a {@link TreeMap}, for tests that don't need Room.
+ */
+public class InMemoryPassphraseDao extends PassphraseDao {
+
+  private final Map<Long, Passphrase> passphrases = new TreeMap<>();
+
+  @Override
+  public synchronized void insert(List<Passphrase> passphrases) {
+    for (Passphrase passphrase : passphrases) {
+      insert(passphrase);
+    }
+  }
+
+  @Override
+  public synchronized void insert(Passphrase passphrase) {
+    passphrases.put(passphrase.getId(), passphrase);
+  }
+
+  @Override
+  public synchronized void insertIfAbsent(List<Passphrase> passphrases) {
+    for (Passphrase passphrase : passphrases) {
+      if (!this.passphrases.containsKey(passphrase.getId())) {
+        insert(passphrase);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void updateKey(long id, String key) {
+    Passphrase passphrase = passphrases.get(id);
+    if (passphrase != null) {
+      passphrase.setKey(key);
+    }
+  }
+
+  @Override
+  public synchronized Passphrase select(long id) {
+    return passphrases.get(id);
+  }
+
+  @Override
+  public synchronized int delete(Passphrase passphrase) {
+    return (passphrases.remove(passphrase.getId()) != null) ? 1 : 0;
+  }
+
+  @Override
+  public synchronized void deleteAll() {
+    passphrases.clear();
+  }
+
+  @Override
+  public synchronized List<Passphrase> selectAll() {
+    return new ArrayList<>(passphrases.values());
+  }
+
+  @Override
+  public synchronized List<Passphrase> selectPage(long after, int limit) {
+    List<Passphrase> page = new ArrayList<>();
+    for (Passphrase passphrase : passphrases.values()) {
+      if (passphrase.getId() > after && page.size() < limit) {
+        page.add(passphrase);
+      }
+    }
+    return page;
+  }
+
+  @Override
+  public synchronized void deleteRangeExcept(long after, long through, List<Long> retained) {
+    passphrases.keySet().removeIf((id) -> id > after && id <= through && !retained.contains(id));
+  }
+
+  @Override
+  public synchronized List<Long> selectIds() {
+    return new ArrayList<>(passphrases.keySet());
+  }
+
+  @Override
+  public synchronized void deleteIds(List<Long> ids) {
+    passphrases.keySet().removeAll(ids);
+  }
+
+}
@@ -0,0 +1,87 @@
+package edu.cnm.deepdive.diceware.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.diceware.generator.ArrayWordList;
+import edu.cnm.deepdive.diceware.generator.DiceRoller;
+import edu.cnm.deepdive.diceware.generator.PassphraseGenerator;
+import edu.cnm.deepdive.diceware.generator.WordList;
+import edu.cnm.deepdive.diceware.service.BulkGenerator.Progress;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import java.io.FileInputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Measures the upload throughput and peak concurrency of {@link BulkGenerator} generating 1,000
+ * passphrases against a local mock server that takes a few milliseconds per request. Excluded from
+ * the default test run; use {@code ./gradlew testDebugUnitTest -Pbenchmark}.
+ */
+public class BulkGeneratorBenchmark {
+
+  private static final String WORD_LIST = "src/main/wordlists/eff_large.txt";
+  private static final String TOKEN = "Bearer test";
+  private static final int COUNT = 1_000;
+  private static final long LATENCY = 5;
+
+  private MockWebServer server;
+  private BulkGenerator bulkGenerator;
+  private AtomicInteger peak;
+
+  @Before
+  public void setUp() throws Exception {
+    WordList wordList = ArrayWordList.read(new FileInputStream(WORD_LIST));
+    AtomicInteger active = new AtomicInteger();
+    AtomicInteger ids = new AtomicInteger();
+    peak = new AtomicInteger();
+    server = new MockWebServer();
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+        Thread.sleep(LATENCY);
+        active.decrementAndGet();
+        return new MockResponse()
+            .setHeader("Content-Type", "application/json")
+            .setBody(request.getBody().readUtf8()
+                .replaceFirst("\\{", "{\"id\":" + ids.incrementAndGet() + ","));
+      }
+    });
+    server.start();
+    DicewareService service = DicewareService.create(new OkHttpClient(),
+        server.url("/diceware/").toString(), new PassphraseCodec(wordList));
+    bulkGenerator = new BulkGenerator(service, new PassphraseGenerator(wordList, new DiceRoller()),
+        new CallScheduler(4, 4, server.getHostName()), Schedulers.computation());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    server.shutdown();
+  }
+
+  @Test
+  public void generate_throughput() {
+    for (int concurrency = 1; concurrency <= BulkGenerator.MAX_CONCURRENCY; concurrency++) {
+      peak.set(0);
+      Progress last = bulkGenerator
+          .generate(Single.just(TOKEN), COUNT, 6, "device-####", concurrency, (passphrase) -> {})
+          .blockingLast();
+      System.out.printf(
+          "Concurrency %d: uploaded %,d of %,d in %,d ms (%,.0f per minute); peak concurrency %d%n",
+          concurrency, last.getSucceeded(), last.getTotal(), last.getElapsed(),
+          last.getThroughput(), peak.get());
+      assertEquals(COUNT, last.getSucceeded());
+      assertTrue(peak.get() <= concurrency);
+    }
+  }
+
+}
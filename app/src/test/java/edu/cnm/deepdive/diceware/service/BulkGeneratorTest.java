@@ -0,0 +1,123 @@
+package edu.cnm.deepdive.diceware.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.diceware.generator.ArrayWordList;
+import edu.cnm.deepdive.diceware.generator.DiceRoller;
+import edu.cnm.deepdive.diceware.generator.PassphraseGenerator;
+import edu.cnm.deepdive.diceware.generator.WordList;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import edu.cnm.deepdive.diceware.service.BulkGenerator.Progress;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import java.io.FileInputStream;
+import java.net.HttpURLConnection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import retrofit2.HttpException;
+
+/**
+ * Verifies generation, bounded parallel upload, and progress and failure reporting of {@link
+ * BulkGenerator} against a local mock server that takes a few milliseconds per request.
+ */
+public class BulkGeneratorTest {
+
+  private static final String WORD_LIST = "src/main/wordlists/eff_large.txt";
+  private static final String TOKEN = "Bearer test";
+  private static final int COUNT = 200;
+  private static final int CONCURRENCY = 3;
+  private static final long LATENCY = 5;
+  private static final String REJECTED_KEY = "device-013";
+
+  private MockWebServer server;
+  private BulkGenerator bulkGenerator;
+  private AtomicInteger active;
+  private AtomicInteger peak;
+
+  @Before
+  public void setUp() throws Exception {
+    WordList wordList = ArrayWordList.read(new FileInputStream(WORD_LIST));
+    active = new AtomicInteger();
+    peak = new AtomicInteger();
+    AtomicInteger ids = new AtomicInteger();
+    server = new MockWebServer();
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        int current = active.incrementAndGet();
+        peak.accumulateAndGet(current, Math::max);
+        Thread.sleep(LATENCY);
+        active.decrementAndGet();
+        String body = request.getBody().readUtf8();
+        if (body.contains("\"" + REJECTED_KEY + "\"")) {
+          return new MockResponse().setResponseCode(HttpURLConnection.HTTP_BAD_REQUEST);
+        }
+        return new MockResponse()
+            .setHeader("Content-Type", "application/json")
+            .setBody(body.replaceFirst("\\{", "{\"id\":" + ids.incrementAndGet() + ","));
+      }
+    });
+    server.start();
+    DicewareService service = DicewareService.create(new OkHttpClient(),
+        server.url("/diceware/").toString(), new PassphraseCodec(wordList));
+    bulkGenerator = new BulkGenerator(service, new PassphraseGenerator(wordList, new DiceRoller()),
+        new CallScheduler(4, 4, server.getHostName()), Schedulers.computation());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    server.shutdown();
+  }
+
+  @Test
+  public void formatKey_replacesFirstPlaceholderRun() {
+    assertEquals("laptop-007", BulkGenerator.formatKey("laptop-###", 7));
+    assertEquals("laptop-1234", BulkGenerator.formatKey("laptop-###", 1234));
+    assertEquals("a1b#", BulkGenerator.formatKey("a#b#", 1));
+    assertEquals("laptop5", BulkGenerator.formatKey("laptop", 5));
+  }
+
+  @Test
+  public void generate_uploadsInParallelAndReportsPartialFailure() {
+    Set<String> saved = new HashSet<>();
+    List<Progress> progress = bulkGenerator
+        .generate(Single.just(TOKEN), COUNT, 6, "device-###", CONCURRENCY, (passphrase) -> {
+          synchronized (saved) {
+            assertEquals(6, passphrase.getWords().size());
+            saved.add(passphrase.getKey());
+          }
+        })
+        .toList()
+        .blockingGet();
+
+    assertEquals(COUNT + 1, progress.size());
+    for (int i = 0; i <= COUNT; i++) {
+      assertEquals(i, progress.get(i).getCompleted());
+      assertEquals(i == COUNT, progress.get(i).isComplete());
+    }
+    assertTrue(progress.get(0).getFailures().isEmpty());
+    Progress last = progress.get(COUNT);
+    assertEquals(COUNT - 1, last.getSucceeded());
+    assertEquals(1, last.getFailed());
+    assertEquals(REJECTED_KEY, last.getFailures().get(0).getKey());
+    assertEquals(HttpURLConnection.HTTP_BAD_REQUEST,
+        ((HttpException) last.getFailures().get(0).getError()).code());
+    assertEquals(COUNT - 1, saved.size());
+    assertTrue(saved.contains("device-001") && saved.contains("device-200"));
+    assertEquals(COUNT, server.getRequestCount());
+    assertTrue(peak.get() <= CONCURRENCY);
+    assertTrue(peak.get() <= BulkGenerator.MAX_CONCURRENCY);
+  }
+
+}
@@ -0,0 +1,187 @@
+package edu.cnm.deepdive.diceware.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.diceware.generator.ArrayWordList;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import edu.cnm.deepdive.diceware.service.CallScheduler.Metrics;
+import edu.cnm.deepdive.diceware.service.CallScheduler.Priority;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.observers.TestObserver;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ServerSocketFactory;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.Test;
+
+/**
+ * Verifies priority ordering, concurrency limits, and queue metrics of {@link CallScheduler},
+ * including under a burst of 500 mutations against a local mock server.
+ */
+public class CallSchedulerTest {
+
+  private static final String TOKEN = "Bearer test";
+  private static final int BURST = 500;
+
+  @Test
+  public void burst_boundedAndForegroundFirst() throws Exception {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger peakInFlight = new AtomicInteger();
+    List<String> served = Collections.synchronizedList(new ArrayList<>());
+    MockWebServer server = new MockWebServer();
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        Thread.sleep(2);
+        served.add(request.getMethod());
+        inFlight.decrementAndGet();
+        return new MockResponse()
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"id\":1,\"key\":\"key\",\"words\":[\"abacus\"]}");
+      }
+    });
+    server.setServerSocketFactory(new NoDelayServerSocketFactory());
+    server.start();
+    try {
+      DicewareService service = DicewareService.create(new OkHttpClient(),
+          server.url("/diceware/").toString(),
+          new PassphraseCodec(new ArrayWordList(new String[0])));
+      CallScheduler scheduler =
+          new CallScheduler(CallScheduler.MAX_THREADS, 3, server.getHostName());
+      Set<String> threads = ConcurrentHashMap.newKeySet();
+      Passphrase passphrase = new Passphrase();
+      passphrase.setKey("key");
+      passphrase.setWords(Arrays.asList("abacus", "abdomen"));
+
+      List<TestObserver<Passphrase>> writes = new ArrayList<>(BURST);
+      for (int i = 0; i < BURST; i++) {
+        writes.add(service.put(TOKEN, i + 1, passphrase, false, 0)
+            .doOnSuccess((p) -> threads.add(Thread.currentThread().getName()))
+            .compose(scheduler.<Passphrase>single(Priority.INTERACTIVE))
+            .test());
+      }
+      TestObserver<Passphrase> read = service.get(TOKEN, 1)
+          .compose(scheduler.<Passphrase>single(Priority.FOREGROUND))
+          .test();
+      Metrics burst = scheduler.getMetrics();
+
+      read.awaitDone(10, TimeUnit.SECONDS).assertValueCount(1);
+      for (TestObserver<Passphrase> write : writes) {
+        write.awaitDone(30, TimeUnit.SECONDS).assertValueCount(1);
+      }
+      Metrics done = scheduler.getMetrics();
+
+      assertTrue(burst.getQueued(Priority.INTERACTIVE) > BURST / 2);
+      assertTrue(burst.getRunning() <= 3);
+      // The read is admitted at once, to the reserved slot, ahead of all queued writes.
+      assertTrue(served.indexOf("GET") < burst.getCompleted() + burst.getRunning());
+      assertTrue(peakInFlight.get() <= 3);
+      assertTrue(threads.size() <= CallScheduler.MAX_THREADS);
+      assertEquals(0, done.getQueued());
+      assertEquals(0, done.getRunning());
+      assertEquals(BURST + 1, done.getCompleted());
+      assertTrue(done.getPeakQueued() >= burst.getQueued());
+    } finally {
+      server.shutdown();
+    }
+  }
+
+  @Test
+  public void reserve_keepsSlotForForeground() {
+    CallScheduler scheduler = new CallScheduler(4, 4, "host");
+    List<Disposable> background = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      background.add(Single.never()
+          .compose(scheduler.single(Priority.BACKGROUND))
+          .subscribe());
+    }
+    assertEquals(3, scheduler.getMetrics().getRunning());
+    assertEquals(2, scheduler.getMetrics().getQueued(Priority.BACKGROUND));
+
+    Disposable foreground = Single.never()
+        .compose(scheduler.single(Priority.FOREGROUND))
+        .subscribe();
+    assertEquals(4, scheduler.getMetrics().getRunning());
+
+    background.get(4).dispose(); // Still queued.
+    assertEquals(1, scheduler.getMetrics().getQueued());
+    background.get(0).dispose(); // Running; the freed slot is the reserved one.
+    assertEquals(3, scheduler.getMetrics().getRunning());
+    assertEquals(1, scheduler.getMetrics().getQueued());
+    foreground.dispose();
+    assertEquals(3, scheduler.getMetrics().getRunning());
+    assertEquals(0, scheduler.getMetrics().getQueued());
+  }
+
+  @Test
+  public void perHostLimit_otherHostsProceed() {
+    CallScheduler scheduler = new CallScheduler(4, 2, "a");
+    for (int i = 0; i < 3; i++) {
+      scheduler.schedule(Observable.never(), Priority.INTERACTIVE, "a").subscribe();
+    }
+    assertEquals(1, scheduler.getMetrics().getRunning());
+    scheduler.schedule(Observable.never(), Priority.INTERACTIVE, "b").subscribe();
+    assertEquals(2, scheduler.getMetrics().getRunning());
+    assertEquals(2, scheduler.getMetrics().getQueued());
+    scheduler.schedule(Observable.never(), Priority.FOREGROUND, "a").subscribe();
+    assertEquals(3, scheduler.getMetrics().getRunning());
+  }
+
+  /**
+   * Disables Nagle's algorithm on accepted sockets, so that the mock server's separately written
+   * response headers and body don't wait on the client's delayed acknowledgment.
+   */
+  private static class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+    @Override
+    public ServerSocket createServerSocket() throws IOException {
+      return new ServerSocket() {
+        @Override
+        public Socket accept() throws IOException {
+          Socket socket = super.accept();
+          socket.setTcpNoDelay(true);
+          return socket;
+        }
+      };
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port) throws IOException {
+      return createServerSocket(port, 0, null);
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+      return createServerSocket(port, backlog, null);
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog, InetAddress address)
+        throws IOException {
+      ServerSocket socket = createServerSocket();
+      socket.bind(new InetSocketAddress(address, port), backlog);
+      return socket;
+    }
+
+  }
+
+}
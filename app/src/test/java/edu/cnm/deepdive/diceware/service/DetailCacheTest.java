@@ -0,0 +1,70 @@
+package edu.cnm.deepdive.diceware.service;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import io.reactivex.schedulers.TestScheduler;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for least-recently-used eviction and expiry of {@link DetailCache} entries.
+ */
+public class DetailCacheTest {
+
+  private static final int CAPACITY = 3;
+  private static final long TIME_TO_LIVE = 1000;
+
+  private TestScheduler clock;
+  private DetailCache cache;
+
+  @Before
+  public void setUp() {
+    clock = new TestScheduler();
+    cache = new DetailCache(CAPACITY, TIME_TO_LIVE, clock);
+  }
+
+  @Test
+  public void put_overCapacity_evictsLeastRecentlyUsed() {
+    Passphrase first = passphrase(1);
+    Passphrase second = passphrase(2);
+    cache.put(first);
+    cache.put(second);
+    cache.put(passphrase(3));
+    assertSame(first, cache.get(1));
+    cache.put(passphrase(4));
+    assertNull(cache.get(2));
+    assertSame(first, cache.get(1));
+  }
+
+  @Test
+  public void get_afterTimeToLive_expires() {
+    Passphrase passphrase = passphrase(1);
+    cache.put(passphrase);
+    clock.advanceTimeBy(TIME_TO_LIVE - 1, TimeUnit.MILLISECONDS);
+    assertSame(passphrase, cache.get(1));
+    clock.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+    assertNull(cache.get(1));
+  }
+
+  @Test
+  public void put_summary_notCached() {
+    Passphrase summary = new Passphrase();
+    summary.setId(1);
+    summary.setKey("summary");
+    cache.put(summary);
+    assertNull(cache.get(1));
+  }
+
+  private static Passphrase passphrase(long id) {
+    Passphrase passphrase = new Passphrase();
+    passphrase.setId(id);
+    passphrase.setKey("key" + id);
+    passphrase.setWords(Arrays.asList("abacus", "abdomen"));
+    return passphrase;
+  }
+
+}
@@ -0,0 +1,144 @@
+package edu.cnm.deepdive.diceware.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.diceware.generator.ArrayWordList;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import java.net.HttpURLConnection;
+import java.util.List;
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import retrofit2.Response;
+
+/**
+ * Verifies conditional revalidation of {@link DicewareService} requests against a local mock
+ * server.
+ */
+public class DicewareServiceCacheTest {
+
+  private static final String TOKEN = "Bearer test";
+  private static final String ETAG = "\"v1\"";
+  private static final String BODY =
+      "[{\"id\":1,\"key\":\"alpha\",\"words\":[\"abacus\",\"abdomen\"]},"
+          + "{\"id\":2,\"key\":\"beta\",\"words\":[\"zoology\",\"zoom\"]}]";
+
+  private final PassphraseCodec codec =
+      new PassphraseCodec(new ArrayWordList(new String[0]));
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private MockWebServer server;
+  private Cache cache;
+  private DicewareService service;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new MockWebServer();
+    server.start();
+    cache = new Cache(folder.newFolder("http_cache"), 1024 * 1024);
+    OkHttpClient client = HttpTransport.newClientBuilder(cache).build();
+    service = DicewareService.create(client, server.url("/diceware/").toString(),
+        codec);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    server.shutdown();
+    cache.close();
+  }
+
+  @Test
+  public void getAll_unchanged_transfersNoBody() throws Exception {
+    server.enqueue(new MockResponse()
+        .setHeader("ETag", ETAG)
+        .setHeader("Content-Type", "application/json")
+        .setBody(BODY));
+    server.enqueue(new MockResponse()
+        .setResponseCode(HttpURLConnection.HTTP_NOT_MODIFIED)
+        .setHeader("ETag", ETAG));
+
+    List<List<Passphrase>> first = service.getAll(TOKEN).toList().blockingGet();
+    assertEquals(1, first.size());
+    assertEquals(2, first.get(0).size());
+    RecordedRequest firstRequest = server.takeRequest();
+    assertNull(firstRequest.getHeader("If-None-Match"));
+
+    List<List<Passphrase>> second = service.getAll(TOKEN).toList().blockingGet();
+    RecordedRequest secondRequest = server.takeRequest();
+    assertEquals(ETAG, secondRequest.getHeader("If-None-Match"));
+    assertTrue(second.isEmpty());
+  }
+
+  @Test
+  public void getPage_unchanged_transfersNoBody() throws Exception {
+    server.enqueue(new MockResponse()
+        .setHeader("ETag", ETAG)
+        .setHeader("Content-Type", "application/json")
+        .setBody(BODY));
+    server.enqueue(new MockResponse()
+        .setResponseCode(HttpURLConnection.HTTP_NOT_MODIFIED)
+        .setHeader("ETag", ETAG));
+
+    Response<List<Passphrase>> first = service.getPage(TOKEN, 0, 50).blockingGet();
+    assertEquals(HttpURLConnection.HTTP_OK, first.code());
+    assertEquals(2, first.body().size());
+    server.takeRequest();
+
+    Response<List<Passphrase>> second = service.getPage(TOKEN, 0, 50).blockingGet();
+    RecordedRequest secondRequest = server.takeRequest();
+    assertEquals(ETAG, secondRequest.getHeader("If-None-Match"));
+    assertEquals(HttpURLConnection.HTTP_NOT_MODIFIED, second.code());
+    assertNull(second.body());
+    assertEquals(0, second.errorBody().contentLength());
+    assertEquals(HttpURLConnection.HTTP_NOT_MODIFIED, second.raw().networkResponse().code());
+  }
+
+  @Test
+  public void getSummaryPage_requestsProjection() throws Exception {
+    server.enqueue(new MockResponse()
+        .setHeader("ETag", ETAG)
+        .setHeader("Content-Type", "application/json")
+        .setBody("[{\"id\":1,\"key\":\"alpha\"},{\"id\":2,\"key\":\"beta\"}]"));
+
+    Response<List<Passphrase>> page = service.getSummaryPage(TOKEN, 0, 50).blockingGet();
+    RecordedRequest request = server.takeRequest();
+    assertEquals("id,key", request.getRequestUrl().queryParameter("fields"));
+    assertEquals("50", request.getRequestUrl().queryParameter("limit"));
+    assertEquals(2, page.body().size());
+    assertEquals("beta", page.body().get(1).getKey());
+    assertNull(page.body().get(1).getWords());
+  }
+
+  @Test
+  public void get_unchanged_servedFromCache() throws Exception {
+    server.enqueue(new MockResponse()
+        .setHeader("Last-Modified", "Mon, 28 Oct 2019 08:51:06 GMT")
+        .setHeader("Content-Type", "application/json")
+        .setBody("{\"id\":1,\"key\":\"alpha\",\"words\":[\"abacus\",\"abdomen\"]}"));
+    server.enqueue(new MockResponse()
+        .setResponseCode(HttpURLConnection.HTTP_NOT_MODIFIED));
+
+    Passphrase first = service.get(TOKEN, 1).blockingGet();
+    server.takeRequest();
+    Passphrase second = service.get(TOKEN, 1).blockingGet();
+    RecordedRequest secondRequest = server.takeRequest();
+
+    assertNotNull(secondRequest.getHeader("If-Modified-Since"));
+    assertEquals(first.getKey(), second.getKey());
+    assertEquals(first.getWords(), second.getWords());
+    assertEquals(1, cache.hitCount());
+  }
+
+}
@@ -0,0 +1,209 @@
+package edu.cnm.deepdive.diceware.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+import edu.cnm.deepdive.diceware.generator.ArrayWordList;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import retrofit2.Call;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+/**
+ * Verifies connection reuse, compression, and per-call timeouts of clients built by {@link
+ * HttpTransport}, against a local mock server.
+ */
+public class HttpTransportTest {
+
+  private static final String TOKEN = "Bearer test";
+  private static final int BURST_SIZE = 50;
+  private static final String SAVED = "{\"id\":1,\"key\":\"alpha\",\"words\":[\"abacus\"]}";
+
+  private final PassphraseCodec codec =
+      new PassphraseCodec(new ArrayWordList(new String[0]));
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private MockWebServer server;
+  private Cache cache;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new MockWebServer();
+    cache = new Cache(folder.newFolder("http_cache"), 1024 * 1024);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    server.shutdown();
+    cache.close();
+  }
+
+  @Test
+  public void sequentialMutations_reusePreconnectedConnection() throws Exception {
+    server.start();
+    OkHttpClient client = HttpTransport.newClientBuilder(cache).build();
+    DicewareService service = DicewareService.create(client, server.url("/diceware/").toString(),
+        codec);
+    server.enqueue(new MockResponse());
+    enqueueSaved(BURST_SIZE);
+
+    HttpTransport.preconnect(client, server.url("/diceware/"));
+    RecordedRequest preconnect = server.takeRequest(5, TimeUnit.SECONDS);
+    assertEquals("HEAD", preconnect.getMethod());
+    assertEquals(0, preconnect.getSequenceNumber());
+    awaitIdleConnection(client);
+    for (int i = 0; i < BURST_SIZE; i++) {
+      service.post(TOKEN, newPassphrase(i)).blockingGet();
+    }
+    for (int i = 1; i <= BURST_SIZE; i++) {
+      // Sequence numbers count requests per connection; a new connection would restart at 0.
+      assertEquals(i, server.takeRequest().getSequenceNumber());
+    }
+    assertEquals(1, client.connectionPool().connectionCount());
+  }
+
+  @Test
+  public void concurrentMutations_http2_multiplexedOnOneConnection() throws Exception {
+    server.setProtocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+    server.start();
+    OkHttpClient client = HttpTransport.newClientBuilder(cache)
+        .protocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE))
+        .build();
+    DicewareService service = DicewareService.create(client, server.url("/diceware/").toString(),
+        codec);
+    server.enqueue(new MockResponse());
+    enqueueSaved(BURST_SIZE);
+
+    HttpTransport.preconnect(client, server.url("/diceware/"));
+    server.takeRequest(5, TimeUnit.SECONDS);
+    awaitIdleConnection(client);
+    List<Passphrase> saved = Flowable.range(0, BURST_SIZE)
+        .flatMapSingle((i) -> service.post(TOKEN, newPassphrase(i))
+            .subscribeOn(Schedulers.io()))
+        .toList()
+        .blockingGet();
+    assertEquals(BURST_SIZE, saved.size());
+    Set<Integer> sequenceNumbers = new HashSet<>();
+    for (int i = 0; i < BURST_SIZE; i++) {
+      int sequenceNumber = server.takeRequest().getSequenceNumber();
+      assertNotEquals(0, sequenceNumber);
+      sequenceNumbers.add(sequenceNumber);
+    }
+    assertEquals(BURST_SIZE, sequenceNumbers.size());
+    assertEquals(1, client.connectionPool().connectionCount());
+  }
+
+  @Test
+  public void compressedResponse_decodedTransparently() throws Exception {
+    server.start();
+    OkHttpClient client = HttpTransport.newClientBuilder(cache).build();
+    DicewareService service = DicewareService.create(client, server.url("/diceware/").toString(),
+        codec);
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "application/json")
+        .setHeader("Content-Encoding", "gzip")
+        .setBody(gzip("[" + SAVED + "]")));
+
+    List<Passphrase> page = service.getPage(TOKEN, 0, 50).blockingGet().body();
+    assertEquals("gzip", server.takeRequest().getHeader("Accept-Encoding"));
+    assertEquals(1, page.size());
+    assertEquals("alpha", page.get(0).getKey());
+  }
+
+  @Test
+  public void timeoutsAnnotation_overridesReadTimeout() throws Exception {
+    server.start();
+    OkHttpClient client = HttpTransport.newClientBuilder(cache).build();
+    SlowService service = new Retrofit.Builder()
+        .client(client)
+        .baseUrl(server.url("/"))
+        .build()
+        .create(SlowService.class);
+    server.enqueue(new MockResponse().setBody("late").setBodyDelay(500, TimeUnit.MILLISECONDS));
+    server.enqueue(new MockResponse().setBody("late").setBodyDelay(500, TimeUnit.MILLISECONDS));
+
+    assertEquals("late", service.withDefaults().execute().body().string());
+    try {
+      service.withShortReadTimeout().execute().body().string();
+      fail("Expected read timeout.");
+    } catch (SocketTimeoutException expected) {
+      // Expected.
+    }
+  }
+
+  private void enqueueSaved(int count) {
+    for (int i = 0; i < count; i++) {
+      server.enqueue(new MockResponse()
+          .setHeader("Content-Type", "application/json")
+          .setBody(SAVED));
+    }
+  }
+
+  private static void awaitIdleConnection(OkHttpClient client) throws InterruptedException {
+    // The server records the pre-connect request before the client returns its connection to
+    // the pool.
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+    while (client.connectionPool().idleConnectionCount() == 0) {
+      if (System.currentTimeMillis() > deadline) {
+        fail("Pre-connected connection not returned to pool.");
+      }
+      Thread.sleep(10);
+    }
+  }
+
+  private static Passphrase newPassphrase(int index) {
+    Passphrase passphrase = new Passphrase();
+    passphrase.setKey("key" + index);
+    passphrase.setWords(Arrays.asList("abacus", "abdomen"));
+    return passphrase;
+  }
+
+  private static Buffer gzip(String body) throws IOException {
+    Buffer buffer = new Buffer();
+    try (BufferedSink sink = Okio.buffer(new GzipSink(buffer))) {
+      sink.writeUtf8(body);
+    }
+    return buffer;
+  }
+
+  private interface SlowService {
+
+    @GET("slow")
+    Call<ResponseBody> withDefaults();
+
+    @GET("slow")
+    @Timeouts(read = 100)
+    Call<ResponseBody> withShortReadTimeout();
+
+  }
+
+}
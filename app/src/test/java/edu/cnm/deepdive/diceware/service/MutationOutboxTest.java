@@ -0,0 +1,239 @@
+package edu.cnm.deepdive.diceware.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.diceware.generator.ArrayWordList;
+import edu.cnm.deepdive.diceware.model.Mutation;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import edu.cnm.deepdive.diceware.model.dao.InMemoryMutationDao;
+import edu.cnm.deepdive.diceware.model.dao.InMemoryPassphraseDao;
+import edu.cnm.deepdive.diceware.service.MutationOutbox.Outcome;
+import io.reactivex.observers.TestObserver;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import retrofit2.HttpException;
+
+/**
+ * Verifies queuing, ordering, retry, failure handling, and bounded parallel sending of {@link
+ * MutationOutbox} against a local mock server. Since changes to different passphrases are sent in
+ * parallel, responses are matched to requests by method and path, rather than by arrival order.
+ */
+public class MutationOutboxTest {
+
+  private static final String TOKEN = "Bearer test";
+
+  private MockWebServer server;
+  private InMemoryPassphraseDao passphraseDao;
+  private InMemoryMutationDao mutationDao;
+  private AtomicInteger scheduled;
+  private MutationOutbox outbox;
+  private TestObserver<List<Outcome>> outcomes;
+  private Map<String, MockResponse> responses;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new MockWebServer();
+    responses = new HashMap<>();
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        synchronized (responses) {
+          MockResponse response = responses.remove(
+              request.getMethod() + " " + request.getRequestUrl().encodedPath());
+          return (response != null) ? response : new MockResponse().setResponseCode(500);
+        }
+      }
+    });
+    server.start();
+    DicewareService service = DicewareService.create(new OkHttpClient(),
+        server.url("/diceware/").toString(),
+        new PassphraseCodec(new ArrayWordList(new String[0])));
+    passphraseDao = new InMemoryPassphraseDao();
+    mutationDao = new InMemoryMutationDao();
+    scheduled = new AtomicInteger();
+    CallScheduler calls = new CallScheduler(4, 4, server.getHostName());
+    outbox = new MutationOutbox(service, passphraseDao, mutationDao, calls,
+        scheduled::incrementAndGet);
+    outcomes = outbox.getOutcomes().test();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    server.shutdown();
+  }
+
+  @Test
+  public void drain_sendsAndAppliesToCache() throws Exception {
+    passphraseDao.insert(passphrase(6, "doomed"));
+    outbox.add(passphrase(0, "new")).blockingAwait();
+    outbox.update(passphrase(5, "changed")).blockingAwait();
+    outbox.delete(passphrase(6, "doomed")).blockingAwait();
+    assertEquals(3, scheduled.get());
+    respond("POST /diceware/passphrases/",
+        json("{\"id\":7,\"key\":\"new\",\"words\":[\"abacus\"]}"));
+    respond("PUT /diceware/passphrases/5",
+        json("{\"id\":5,\"key\":\"changed\",\"words\":[\"abacus\"]}"));
+    respond("DELETE /diceware/passphrases/6", status(HttpURLConnection.HTTP_NO_CONTENT));
+
+    assertTrue(outbox.drain(TOKEN).blockingGet());
+
+    assertEquals(3, server.getRequestCount());
+    assertEquals("new", passphraseDao.select(7).getKey());
+    assertEquals("changed", passphraseDao.select(5).getKey());
+    assertNull(passphraseDao.select(6));
+    assertTrue(mutationDao.selectPending(0, 10).isEmpty());
+    outcomes.assertValueCount(1);
+    assertEquals(3, outcomes.values().get(0).size());
+  }
+
+  @Test
+  public void enqueue_updateSupersedesPendingUpdate() throws Exception {
+    outbox.update(passphrase(5, "first")).blockingAwait();
+    outbox.update(passphrase(5, "second")).blockingAwait();
+    List<Mutation> pending = mutationDao.selectPending(0, 10);
+    assertEquals(1, pending.size());
+    assertEquals("second", pending.get(0).getKey());
+    respond("PUT /diceware/passphrases/5",
+        json("{\"id\":5,\"key\":\"second\",\"words\":[\"abacus\"]}"));
+
+    assertTrue(outbox.drain(TOKEN).blockingGet());
+    assertEquals(1, server.getRequestCount());
+    assertTrue(server.takeRequest().getBody().readUtf8().contains("second"));
+  }
+
+  @Test
+  public void drain_transientFailure_holdsLaterChangesToSamePassphrase() throws Exception {
+    outbox.delete(passphrase(5, "held")).blockingAwait();
+    outbox.update(passphrase(5, "held")).blockingAwait();
+    outbox.update(passphrase(6, "other")).blockingAwait();
+    respond("DELETE /diceware/passphrases/5", status(HttpURLConnection.HTTP_UNAVAILABLE));
+    respond("PUT /diceware/passphrases/6",
+        json("{\"id\":6,\"key\":\"other\",\"words\":[\"abacus\"]}"));
+
+    assertFalse(outbox.drain(TOKEN).blockingGet());
+
+    assertEquals(2, server.getRequestCount());
+    assertTrue(responses.isEmpty());
+    List<Mutation> pending = mutationDao.selectPending(0, 10);
+    assertEquals(2, pending.size());
+    assertEquals(Mutation.Operation.DELETE, pending.get(0).getOperation());
+    assertEquals(1, pending.get(0).getAttempts());
+    assertEquals(Mutation.Operation.UPDATE, pending.get(1).getOperation());
+    outcomes.assertValueCount(1);
+    assertEquals(1, outcomes.values().get(0).size());
+  }
+
+  @Test
+  public void drain_rejected_discardedAndReported() throws Exception {
+    outbox.update(passphrase(5, "rejected")).blockingAwait();
+    outbox.delete(passphrase(6, "gone")).blockingAwait();
+    respond("PUT /diceware/passphrases/5", status(HttpURLConnection.HTTP_BAD_REQUEST));
+    respond("DELETE /diceware/passphrases/6", status(HttpURLConnection.HTTP_NOT_FOUND));
+
+    assertTrue(outbox.drain(TOKEN).blockingGet());
+
+    assertTrue(mutationDao.selectPending(0, 10).isEmpty());
+    outcomes.assertValueCount(1);
+    Map<Long, Outcome> byId = new HashMap<>();
+    for (Outcome outcome : outcomes.values().get(0)) {
+      byId.put(outcome.getMutation().getPassphraseId(), outcome);
+    }
+    Throwable error = byId.get(5L).getError();
+    assertNotNull(error);
+    assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, ((HttpException) error).code());
+    assertNull(byId.get(6L).getError()); // Already deleted counts as success.
+  }
+
+  @Test
+  public void pendingCount_trackedThroughQueuingAndDrain() throws Exception {
+    outbox.update(passphrase(5, "sent")).blockingAwait();
+    TestObserver<Integer> counts = outbox.getPendingCount().test();
+    counts.assertValues(1);
+    outbox.update(passphrase(6, "held")).blockingAwait();
+    outbox.update(passphrase(5, "sent")).blockingAwait(); // Supersedes the pending update.
+    respond("PUT /diceware/passphrases/5",
+        json("{\"id\":5,\"key\":\"sent\",\"words\":[\"abacus\"]}"));
+    respond("PUT /diceware/passphrases/6", status(HttpURLConnection.HTTP_UNAVAILABLE));
+
+    assertFalse(outbox.drain(TOKEN).blockingGet());
+    outbox.clear().blockingAwait();
+
+    counts.assertValues(1, 2, 2, 1, 0);
+  }
+
+  @Test
+  public void deleteAll_sentInParallelAndReportedTogether() throws Exception {
+    int count = 200;
+    List<Passphrase> doomed = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      doomed.add(passphrase(i, "doomed" + i));
+      passphraseDao.insert(passphrase(i, "doomed" + i));
+    }
+    AtomicInteger active = new AtomicInteger();
+    AtomicInteger peak = new AtomicInteger();
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        int current = active.incrementAndGet();
+        peak.accumulateAndGet(current, Math::max);
+        Thread.sleep(5);
+        active.decrementAndGet();
+        return status(HttpURLConnection.HTTP_NO_CONTENT);
+      }
+    });
+
+    outbox.deleteAll(doomed).blockingAwait();
+    assertEquals(1, scheduled.get());
+    assertEquals(count, mutationDao.selectPending(0, 2 * count).size());
+    assertTrue(outbox.drain(TOKEN).blockingGet());
+
+    assertEquals(count, server.getRequestCount());
+    assertTrue(peak.get() > 1);
+    assertTrue(peak.get() <= MutationOutbox.DRAIN_CONCURRENCY);
+    assertEquals(0, passphraseDao.selectPage(0, count).size());
+    outcomes.assertValueCount(1);
+    assertEquals(count, outcomes.values().get(0).size());
+  }
+
+  private static Passphrase passphrase(long id, String key) {
+    Passphrase passphrase = new Passphrase();
+    passphrase.setId(id);
+    passphrase.setKey(key);
+    passphrase.setWords(Arrays.asList("abacus", "abdomen"));
+    return passphrase;
+  }
+
+  private void respond(String request, MockResponse response) {
+    synchronized (responses) {
+      responses.put(request, response);
+    }
+  }
+
+  private static MockResponse status(int code) {
+    return new MockResponse().setResponseCode(code);
+  }
+
+  private static MockResponse json(String body) {
+    return new MockResponse()
+        .setHeader("Content-Type", "application/json")
+        .setBody(body);
+  }
+
+}
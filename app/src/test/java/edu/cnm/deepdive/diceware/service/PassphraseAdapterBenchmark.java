@@ -0,0 +1,115 @@
+package edu.cnm.deepdive.diceware.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Compares decode throughput and allocation of a 10,000-entry passphrase list between reflective
+ * {@code @Expose} binding and the adapters supplied by {@link PassphraseAdapterFactory}. Excluded
+ * from the default test run; use {@code ./gradlew testDebugUnitTest -Pbenchmark}.
+ */
+public class PassphraseAdapterBenchmark {
+
+  private static final int ENTRIES = 10_000;
+  private static final int WORDS = 6;
+  private static final int WARM_UP = 20;
+  private static final int ITERATIONS = 20;
+
+  private static String json;
+
+  @BeforeClass
+  public static void buildPayload() {
+    StringBuilder builder = new StringBuilder("[");
+    for (int i = 0; i < ENTRIES; i++) {
+      builder.append((i > 0) ? "," : "")
+          .append("{\"id\":").append(i + 1)
+          .append(",\"key\":\"passphrase-").append(i).append("\",\"words\":[");
+      for (int j = 0; j < WORDS; j++) {
+        builder.append((j > 0) ? "," : "").append("\"word").append((i * WORDS + j) % 7776)
+            .append('"');
+      }
+      builder.append("]}");
+    }
+    json = builder.append(']').toString();
+  }
+
+  @Test
+  public void compareDecodeThroughput() throws IOException {
+    TypeAdapter<List<Passphrase>> reflective = adapter(false);
+    TypeAdapter<List<Passphrase>> generated = adapter(true);
+    for (int i = 0; i < WARM_UP; i++) {
+      decode(reflective);
+      decode(generated);
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      decode(reflective);
+    }
+    double reflectiveRate = rate(start);
+    start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      decode(generated);
+    }
+    double generatedRate = rate(start);
+    System.out.printf("Entries decoded/sec: reflective %,.0f; generated %,.0f%n",
+        reflectiveRate, generatedRate);
+    assertTrue(generatedRate > reflectiveRate);
+  }
+
+  @Test
+  public void compareDecodeAllocation() throws IOException {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    TypeAdapter<List<Passphrase>> reflective = adapter(false);
+    TypeAdapter<List<Passphrase>> generated = adapter(true);
+    for (int i = 0; i < WARM_UP; i++) {
+      decode(reflective);
+      decode(generated);
+    }
+    long before = threads.getThreadAllocatedBytes(thread);
+    for (int i = 0; i < ITERATIONS; i++) {
+      decode(reflective);
+    }
+    long reflectiveBytes = (threads.getThreadAllocatedBytes(thread) - before) / ITERATIONS;
+    before = threads.getThreadAllocatedBytes(thread);
+    for (int i = 0; i < ITERATIONS; i++) {
+      decode(generated);
+    }
+    long generatedBytes = (threads.getThreadAllocatedBytes(thread) - before) / ITERATIONS;
+    System.out.printf("Bytes allocated per %,d-entry decode: reflective %,d; generated %,d%n",
+        ENTRIES, reflectiveBytes, generatedBytes);
+    assertTrue(generatedBytes <= reflectiveBytes);
+  }
+
+  private static TypeAdapter<List<Passphrase>> adapter(boolean generated) {
+    GsonBuilder builder = new GsonBuilder().excludeFieldsWithoutExposeAnnotation();
+    if (generated) {
+      builder.registerTypeAdapterFactory(PassphraseAdapterFactory.create());
+    }
+    Gson gson = builder.create();
+    return gson.getAdapter(new TypeToken<List<Passphrase>>() {});
+  }
+
+  private static void decode(TypeAdapter<List<Passphrase>> adapter) throws IOException {
+    List<Passphrase> passphrases = adapter.fromJson(new StringReader(json));
+    assertEquals(ENTRIES, passphrases.size());
+  }
+
+  private static double rate(long start) {
+    return (double) ENTRIES * ITERATIONS * 1e9 / (System.nanoTime() - start);
+  }
+
+}
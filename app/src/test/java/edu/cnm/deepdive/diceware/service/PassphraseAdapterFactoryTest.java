@@ -0,0 +1,92 @@
+package edu.cnm.deepdive.diceware.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Verifies that the adapters supplied by {@link PassphraseAdapterFactory} read and write the same
+ * JSON as reflective binding of {@code @Expose}-annotated fields.
+ */
+public class PassphraseAdapterFactoryTest {
+
+  private static final Type LIST_TYPE = new TypeToken<List<Passphrase>>() {}.getType();
+
+  private Gson reflective;
+  private Gson generated;
+
+  @Before
+  public void setUp() {
+    reflective = new GsonBuilder()
+        .excludeFieldsWithoutExposeAnnotation()
+        .create();
+    generated = new GsonBuilder()
+        .excludeFieldsWithoutExposeAnnotation()
+        .registerTypeAdapterFactory(PassphraseAdapterFactory.create())
+        .create();
+  }
+
+  @Test
+  public void create_suppliesPassphraseAndListAdapters() {
+    PassphraseAdapterFactory factory = PassphraseAdapterFactory.create();
+    Gson gson = new Gson();
+    assertEquals(
+        generated.getAdapter(Passphrase.class).getClass(),
+        factory.create(gson, TypeToken.get(Passphrase.class)).getClass());
+    assertEquals(
+        generated.getAdapter(TypeToken.get(LIST_TYPE)).getClass(),
+        factory.create(gson, TypeToken.get(LIST_TYPE)).getClass());
+    assertNull(factory.create(gson, TypeToken.get(String.class)));
+    assertNull(factory.create(gson, new TypeToken<List<String>>() {}));
+  }
+
+  @Test
+  public void toJson_matchesReflective() {
+    Passphrase complete = passphrase(42, "alpha", "abacus", "abdomen");
+    Passphrase sparse = passphrase(0, null);
+    sparse.setWords(null);
+    List<Passphrase> passphrases = Arrays.asList(complete, sparse, null);
+    assertEquals(reflective.toJson(complete), generated.toJson(complete));
+    assertEquals(reflective.toJson(sparse), generated.toJson(sparse));
+    assertEquals(reflective.toJson(passphrases, LIST_TYPE), generated.toJson(passphrases, LIST_TYPE));
+  }
+
+  @Test
+  public void fromJson_matchesReflective() {
+    String json = "[{\"id\":7,\"key\":\"beta\",\"words\":[\"abacus\",true,3],"
+        + "\"created\":\"2019-10-01\",\"extra\":{\"nested\":[1,2]}},"
+        + "{\"id\":null,\"key\":null,\"words\":null},null]";
+    List<Passphrase> expected = reflective.fromJson(json, LIST_TYPE);
+    List<Passphrase> actual = generated.fromJson(json, LIST_TYPE);
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      Passphrase expectedItem = expected.get(i);
+      Passphrase actualItem = actual.get(i);
+      if (expectedItem == null) {
+        assertNull(actualItem);
+      } else {
+        assertEquals(expectedItem.getId(), actualItem.getId());
+        assertEquals(expectedItem.getKey(), actualItem.getKey());
+        assertEquals(expectedItem.getWords(), actualItem.getWords());
+      }
+    }
+  }
+
+  private static Passphrase passphrase(long id, String key, String... words) {
+    Passphrase passphrase = new Passphrase();
+    passphrase.setId(id);
+    passphrase.setKey(key);
+    passphrase.setWords(Arrays.asList(words));
+    return passphrase;
+  }
+
+}
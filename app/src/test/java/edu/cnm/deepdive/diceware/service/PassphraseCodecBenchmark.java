@@ -0,0 +1,132 @@
+package edu.cnm.deepdive.diceware.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import edu.cnm.deepdive.diceware.generator.ArrayWordList;
+import edu.cnm.deepdive.diceware.generator.WordList;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.ByteString;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Compares the transfer size and client-side decode time of a 10,000-entry collection, fetched
+ * with {@link DicewareService#getAll(String)} from a local stand-in server that honors {@code
+ * Accept}, in JSON and in the compact encoding of {@link PassphraseCodec}. Excluded from the
+ * default test run; use {@code ./gradlew testDebugUnitTest -Pbenchmark}.
+ */
+public class PassphraseCodecBenchmark {
+
+  private static final String WORD_LIST = "src/main/wordlists/eff_large.txt";
+  private static final String TOKEN = "Bearer test";
+  private static final int ENTRIES = 10_000;
+  private static final int WORDS = 6;
+  private static final int WARM_UP = 10;
+  private static final int ITERATIONS = 20;
+
+  private static WordList wordList;
+  private static ByteString json;
+  private static ByteString compact;
+  private static MockWebServer server;
+
+  @BeforeClass
+  public static void startServer() throws IOException {
+    wordList = ArrayWordList.read(new FileInputStream(WORD_LIST));
+    Random rng = new Random(0);
+    List<Passphrase> passphrases = new ArrayList<>(ENTRIES);
+    for (int i = 0; i < ENTRIES; i++) {
+      String[] words = new String[WORDS];
+      for (int j = 0; j < WORDS; j++) {
+        words[j] = wordList.get(rng.nextInt(wordList.size()));
+      }
+      Passphrase passphrase = new Passphrase();
+      passphrase.setId(i + 1);
+      passphrase.setKey("passphrase-" + i);
+      passphrase.setWords(Arrays.asList(words));
+      passphrases.add(passphrase);
+    }
+    json = ByteString.encodeUtf8(new GsonBuilder()
+        .excludeFieldsWithoutExposeAnnotation()
+        .create()
+        .toJson(passphrases, new TypeToken<List<Passphrase>>() {}.getType()));
+    Buffer buffer = new Buffer();
+    new PassphraseCodec(wordList).writeList(buffer, passphrases);
+    compact = buffer.readByteString();
+    server = new MockWebServer();
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        String accept = request.getHeader("Accept");
+        boolean useCompact = accept != null && accept.startsWith(PassphraseCodec.MEDIA_TYPE);
+        return new MockResponse()
+            .setHeader("Content-Type",
+                useCompact ? PassphraseCodec.MEDIA_TYPE : "application/json; charset=utf-8")
+            .setBody(new Buffer().write(useCompact ? compact : json));
+      }
+    });
+    server.start();
+  }
+
+  @AfterClass
+  public static void stopServer() throws IOException {
+    server.shutdown();
+  }
+
+  @Test
+  public void compareSizeAndDecodeTime() {
+    OkHttpClient client = new OkHttpClient();
+    String baseUrl = server.url("/diceware/").toString();
+    DicewareService compactService =
+        DicewareService.create(client, baseUrl, new PassphraseCodec(wordList));
+    DicewareService jsonService = DicewareService.create(client.newBuilder()
+        .addInterceptor((chain) -> chain.proceed(chain.request().newBuilder()
+            .header("Accept", "application/json")
+            .build()))
+        .build(), baseUrl, new PassphraseCodec(wordList));
+    for (int i = 0; i < WARM_UP; i++) {
+      fetch(jsonService);
+      fetch(compactService);
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      fetch(jsonService);
+    }
+    long jsonNanos = (System.nanoTime() - start) / ITERATIONS;
+    start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      fetch(compactService);
+    }
+    long compactNanos = (System.nanoTime() - start) / ITERATIONS;
+    System.out.printf("Body size: JSON %,d bytes; compact %,d bytes%n", json.size(),
+        compact.size());
+    System.out.printf("Fetch and decode: JSON %,d us; compact %,d us%n",
+        jsonNanos / 1000, compactNanos / 1000);
+    assertTrue(compact.size() * 3 < json.size());
+    assertTrue(compactNanos < jsonNanos);
+  }
+
+  private static void fetch(DicewareService service) {
+    int count = 0;
+    for (List<Passphrase> batch : service.getAll(TOKEN).blockingIterable()) {
+      count += batch.size();
+    }
+    assertEquals(ENTRIES, count);
+  }
+
+}
@@ -0,0 +1,153 @@
+package edu.cnm.deepdive.diceware.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.diceware.generator.ArrayWordList;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import java.util.Arrays;
+import java.util.List;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.ByteString;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Verifies the compact passphrase encoding of {@link PassphraseCodec}, and its negotiation (with
+ * JSON as the fallback) by {@link DicewareService}.
+ */
+public class PassphraseCodecTest {
+
+  private static final String TOKEN = "Bearer test";
+  private static final String JSON = "[{\"id\":1,\"key\":\"alpha\",\"words\":[\"abacus\"]}]";
+
+  private PassphraseCodec codec;
+  private MockWebServer server;
+  private DicewareService service;
+
+  @Before
+  public void setUp() throws Exception {
+    codec = new PassphraseCodec(
+        new ArrayWordList(new String[]{"abacus", "abdomen", "abdominal", "abide"}));
+    server = new MockWebServer();
+    server.start();
+    service = DicewareService.create(new OkHttpClient(), server.url("/diceware/").toString(),
+        codec);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    server.shutdown();
+  }
+
+  @Test
+  public void writeRead_roundTripsDictionaryAndLiteralWords() throws Exception {
+    Passphrase first = passphrase(300, "alpha", "abide", "correct-horse", "abacus", "\u00fcn\u00efc\u00f6d\u00e9");
+    Passphrase second = passphrase(0, null);
+    second.setWords(null);
+    Buffer buffer = new Buffer();
+    codec.writeList(buffer, Arrays.asList(first, second));
+    List<Passphrase> decoded = codec.readList(buffer);
+    assertEquals(0, buffer.size());
+    assertEquals(2, decoded.size());
+    assertEquals(300, decoded.get(0).getId());
+    assertEquals("alpha", decoded.get(0).getKey());
+    assertEquals(first.getWords(), decoded.get(0).getWords());
+    assertEquals(0, decoded.get(1).getId());
+    assertNull(decoded.get(1).getKey());
+    assertNull(decoded.get(1).getWords());
+  }
+
+  @Test
+  public void write_encodesDictionaryWordsByIndex() throws Exception {
+    Buffer buffer = new Buffer();
+    codec.write(buffer, passphrase(1, "k", "abacus", "abide"));
+    // One byte each: ID, key length + 1, key, word count + 1, and two word indices.
+    assertEquals(6, buffer.size());
+  }
+
+  @Test
+  public void negotiate_requiresMatchingWordList() {
+    assertFalse(codec.negotiate(null));
+    assertFalse(codec.negotiate(MediaType.get("application/json; charset=utf-8")));
+    assertFalse(
+        codec.negotiate(MediaType.get("application/x-diceware-passphrase; wordlist=other")));
+    assertFalse(codec.isNegotiated());
+    assertTrue(codec.negotiate(MediaType.get(PassphraseCodec.MEDIA_TYPE)));
+    assertTrue(codec.isNegotiated());
+  }
+
+  @Test
+  public void service_fallsBackToJsonUntilCompactResponseReceived() throws Exception {
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "application/json")
+        .setBody(JSON));
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", "application/json")
+        .setBody(JSON.substring(1, JSON.length() - 1)));
+    Buffer buffer = new Buffer();
+    codec.write(buffer, passphrase(2, "beta", "abdomen", "custom"));
+    ByteString compact = buffer.readByteString();
+    for (int i = 0; i < 2; i++) {
+      server.enqueue(new MockResponse()
+          .setHeader("Content-Type", PassphraseCodec.MEDIA_TYPE)
+          .setBody(new Buffer().write(compact)));
+    }
+
+    List<List<Passphrase>> batches = service.getAll(TOKEN).toList().blockingGet();
+    RecordedRequest request = server.takeRequest();
+    assertTrue(request.getHeader("Accept").startsWith(PassphraseCodec.MEDIA_TYPE));
+    assertEquals("abacus", batches.get(0).get(0).getWords().get(0));
+
+    service.post(TOKEN, passphrase(0, "beta", "abdomen", "custom")).blockingGet();
+    request = server.takeRequest();
+    assertTrue(request.getHeader("Content-Type").startsWith("application/json"));
+
+    Passphrase saved =
+        service.post(TOKEN, passphrase(0, "beta", "abdomen", "custom")).blockingGet();
+    server.takeRequest();
+    assertEquals(2, saved.getId());
+    assertEquals(Arrays.asList("abdomen", "custom"), saved.getWords());
+
+    service.put(TOKEN, 2, saved, false, 0).blockingGet();
+    request = server.takeRequest();
+    assertEquals(PassphraseCodec.MEDIA_TYPE, request.getHeader("Content-Type"));
+    assertEquals(compact, request.getBody().readByteString());
+  }
+
+  @Test
+  public void getAll_compactResponse_decodedInBatches() throws Exception {
+    Passphrase[] passphrases = new Passphrase[DicewareService.STREAM_BATCH_SIZE + 1];
+    for (int i = 0; i < passphrases.length; i++) {
+      passphrases[i] = passphrase(i + 1, "key" + i, "abdominal", "abide");
+    }
+    Buffer compact = new Buffer();
+    codec.writeList(compact, Arrays.asList(passphrases));
+    server.enqueue(new MockResponse()
+        .setHeader("Content-Type", PassphraseCodec.MEDIA_TYPE)
+        .setBody(compact));
+
+    List<List<Passphrase>> batches = service.getAll(TOKEN).toList().blockingGet();
+    assertEquals(2, batches.size());
+    assertEquals(DicewareService.STREAM_BATCH_SIZE, batches.get(0).size());
+    assertEquals(1, batches.get(1).size());
+    assertEquals("key100", batches.get(1).get(0).getKey());
+  }
+
+  private static Passphrase passphrase(long id, String key, String... words) {
+    Passphrase passphrase = new Passphrase();
+    passphrase.setId(id);
+    passphrase.setKey(key);
+    passphrase.setWords(Arrays.asList(words));
+    return passphrase;
+  }
+
+}
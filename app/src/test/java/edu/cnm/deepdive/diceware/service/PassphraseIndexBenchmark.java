@@ -0,0 +1,114 @@
+package edu.cnm.deepdive.diceware.service;
+
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.diceware.generator.ArrayWordList;
+import edu.cnm.deepdive.diceware.generator.WordList;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Measures the per-keystroke query time of a {@link PassphraseIndex} over 100,000 passphrases, as
+ * queries are typed a character at a time, and the time of incremental updates. Excluded from the
+ * default test run; use {@code ./gradlew testDebugUnitTest -Pbenchmark}.
+ */
+public class PassphraseIndexBenchmark {
+
+  private static final String WORD_LIST = "src/main/wordlists/eff_large.txt";
+  private static final int ENTRIES = 100_000;
+  private static final int WORDS = 6;
+  private static final int RESULT_LIMIT = 500;
+  private static final int ITERATIONS = 20;
+  private static final String[] SITES = {"bank", "email", "work", "home", "router", "laptop",
+      "phone", "cloud", "vpn", "database", "backup", "wallet", "school", "streaming", "forum"};
+  private static final String[] QUERIES = {"bank 42", "email backup", "router", "cloud wallet 7",
+      "abacus", "zebra", "vpn stream", "work laptop 1234"};
+
+  private static WordList wordList;
+  private static PassphraseIndex index;
+
+  @BeforeClass
+  public static void buildIndex() throws Exception {
+    wordList = ArrayWordList.read(new FileInputStream(WORD_LIST));
+    Random rng = new Random(0);
+    List<Passphrase> passphrases = new ArrayList<>(ENTRIES);
+    for (int i = 0; i < ENTRIES; i++) {
+      passphrases.add(passphrase(i + 1, rng));
+    }
+    index = new PassphraseIndex();
+    long start = System.nanoTime();
+    index.load(() -> passphrases);
+    System.out.printf("Index of %,d passphrases built in %,d ms%n",
+        index.size(), (System.nanoTime() - start) / 1_000_000);
+  }
+
+  @Test
+  public void typedQueries_subMillisecond() {
+    List<String> keystrokes = new ArrayList<>();
+    for (String query : QUERIES) {
+      for (int i = 1; i <= query.length(); i++) {
+        keystrokes.add(query.substring(0, i));
+      }
+    }
+    for (int i = 0; i < ITERATIONS; i++) {
+      for (String keystroke : keystrokes) {
+        index.search(keystroke, RESULT_LIMIT);
+      }
+    }
+    long[] nanos = new long[keystrokes.size() * ITERATIONS];
+    int count = 0;
+    for (int i = 0; i < ITERATIONS; i++) {
+      for (String keystroke : keystrokes) {
+        long start = System.nanoTime();
+        index.search(keystroke, RESULT_LIMIT);
+        nanos[count++] = System.nanoTime() - start;
+      }
+    }
+    Arrays.sort(nanos);
+    long total = 0;
+    for (long time : nanos) {
+      total += time;
+    }
+    long mean = total / nanos.length;
+    long p99 = nanos[nanos.length * 99 / 100];
+    System.out.printf("Query (%d keystrokes): mean %,d us; median %,d us; p99 %,d us; max %,d us%n",
+        keystrokes.size(), mean / 1000, nanos[nanos.length / 2] / 1000, p99 / 1000,
+        nanos[nanos.length - 1] / 1000);
+    assertTrue(mean < 1_000_000);
+  }
+
+  @Test
+  public void incrementalUpdates() {
+    Random rng = new Random(1);
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS * 100; i++) {
+      long id = 1 + rng.nextInt(ENTRIES);
+      index.remove(id);
+      index.put(passphrase(id, rng));
+    }
+    long mean = (System.nanoTime() - start) / (ITERATIONS * 100 * 2);
+    System.out.printf("Incremental update: mean %,d us%n", mean / 1000);
+    assertTrue(mean < 1_000_000);
+  }
+
+  private static Passphrase passphrase(long id, Random rng) {
+    Passphrase passphrase = new Passphrase();
+    passphrase.setId(id);
+    passphrase.setKey(String.format("%s %s %d", SITES[rng.nextInt(SITES.length)],
+        SITES[rng.nextInt(SITES.length)], rng.nextInt(10_000)));
+    String[] words = new String[WORDS];
+    for (int j = 0; j < WORDS; j++) {
+      words[j] = wordList.get(rng.nextInt(wordList.size()));
+    }
+    passphrase.setWords(Arrays.asList(words));
+    return passphrase;
+  }
+
+}
@@ -0,0 +1,104 @@
+package edu.cnm.deepdive.diceware.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for queries and incremental updates of {@link PassphraseIndex}.
+ */
+public class PassphraseIndexTest {
+
+  private PassphraseIndex index;
+
+  @Before
+  public void setUp() throws Exception {
+    index = new PassphraseIndex();
+    index.load(() -> Arrays.asList(
+        passphrase(1, "Bank account", "abacus", "abide", "t-shirt"),
+        passphrase(2, "bank PIN", "abdomen", "abide"),
+        passphrase(3, "Email"),
+        passphrase(4, "banjo lessons", "abacus")));
+  }
+
+  @Test
+  public void search_keysAndWords_allTermsLastAsPrefix() {
+    assertEquals(Arrays.asList(1L, 2L), ids(index.search("bank", 10)));
+    assertEquals(Arrays.asList(1L, 2L, 4L), ids(index.search("BAN", 10)));
+    assertEquals(Arrays.asList(1L, 4L), ids(index.search("abacus", 10)));
+    assertEquals(Collections.singletonList(1L), ids(index.search("abide acc", 10)));
+    assertEquals(Collections.singletonList(1L), ids(index.search("shirt", 10)));
+    assertEquals(Collections.singletonList(2L), ids(index.search("bank  pin", 1)));
+    assertEquals(Collections.singletonList(1L), ids(index.search("bank", 1)));
+    assertTrue(index.search("b", 10).isEmpty());
+    assertTrue(index.search("zebra", 10).isEmpty());
+    assertTrue(index.search(" - ", 10).isEmpty());
+  }
+
+  @Test
+  public void put_summary_keepsIndexedWords() {
+    index.put(passphrase(3, "Work email"));
+    index.put(passphrase(2, "Phone PIN"));
+    assertEquals(Collections.singletonList(3L), ids(index.search("work", 10)));
+    assertEquals(Collections.singletonList(1L), ids(index.search("bank", 10)));
+    assertEquals(Collections.singletonList(2L), ids(index.search("abdomen", 10)));
+    index.put(passphrase(2, "Phone PIN", "abyss"));
+    assertTrue(index.search("abdomen", 10).isEmpty());
+    assertEquals(Collections.singletonList(2L), ids(index.search("abyss", 10)));
+    assertEquals(Collections.singletonList(1L), ids(index.search("abide", 10)));
+  }
+
+  @Test
+  public void removeAndReconcile_updateIndex() {
+    index.remove(4);
+    assertEquals(Arrays.asList(1L, 2L), ids(index.search("ban", 10)));
+    index.reconcilePage(1, Collections.singletonList(passphrase(3, "Email")), false);
+    assertEquals(Collections.singletonList(1L), ids(index.search("ban", 10)));
+    assertEquals(2, index.size());
+    index.retainOnly(new HashSet<>(Collections.singletonList(3L)));
+    assertEquals(1, index.size());
+    assertTrue(index.search("abacus", 10).isEmpty());
+    index.clear();
+    index.put(passphrase(5, "New"));
+    assertEquals(Collections.singletonList(5L), ids(index.search("new", 10)));
+  }
+
+  @Test
+  public void changes_beforeLoad_ignored() throws Exception {
+    PassphraseIndex unloaded = new PassphraseIndex();
+    unloaded.put(passphrase(1, "Ignored"));
+    unloaded.load(() -> Collections.singletonList(passphrase(2, "Loaded")));
+    assertTrue(unloaded.search("ignored", 10).isEmpty());
+    assertEquals(Collections.singletonList(2L), ids(unloaded.search("loaded", 10)));
+  }
+
+  private static Passphrase passphrase(long id, String key) {
+    Passphrase passphrase = new Passphrase();
+    passphrase.setId(id);
+    passphrase.setKey(key);
+    return passphrase;
+  }
+
+  private static Passphrase passphrase(long id, String key, String... words) {
+    Passphrase passphrase = passphrase(id, key);
+    passphrase.setWords(Arrays.asList(words));
+    return passphrase;
+  }
+
+  private static List<Long> ids(List<Passphrase> passphrases) {
+    List<Long> ids = new ArrayList<>();
+    for (Passphrase passphrase : passphrases) {
+      ids.add(passphrase.getId());
+    }
+    return ids;
+  }
+
+}
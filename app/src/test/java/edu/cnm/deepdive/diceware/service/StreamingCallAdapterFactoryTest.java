@@ -0,0 +1,109 @@
+package edu.cnm.deepdive.diceware.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.diceware.generator.ArrayWordList;
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
+import java.net.HttpURLConnection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import retrofit2.HttpException;
+
+/**
+ * Verifies incremental, batched decoding of {@link DicewareService#getAll(String)} responses.
+ */
+public class StreamingCallAdapterFactoryTest {
+
+  private static final String TOKEN = "Bearer test";
+
+  private final PassphraseCodec codec =
+      new PassphraseCodec(new ArrayWordList(new String[0]));
+
+  private MockWebServer server;
+  private DicewareService service;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new MockWebServer();
+    server.start();
+    service = DicewareService.create(new OkHttpClient(), server.url("/diceware/").toString(),
+        codec);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    server.shutdown();
+  }
+
+  @Test
+  public void getAll_emitsBatches() {
+    int count = 2 * DicewareService.STREAM_BATCH_SIZE + 50;
+    server.enqueue(new MockResponse().setBody(json(count)));
+    List<List<Passphrase>> batches = service.getAll(TOKEN).toList().blockingGet();
+    assertEquals(3, batches.size());
+    assertEquals(DicewareService.STREAM_BATCH_SIZE, batches.get(0).size());
+    assertEquals(DicewareService.STREAM_BATCH_SIZE, batches.get(1).size());
+    assertEquals(50, batches.get(2).size());
+    assertEquals(count, batches.get(2).get(49).getId());
+    assertEquals("key" + count, batches.get(2).get(49).getKey());
+  }
+
+  @Test
+  public void getAll_emptyArray_emitsEmptyBatch() {
+    server.enqueue(new MockResponse().setBody("[]"));
+    List<List<Passphrase>> batches = service.getAll(TOKEN).toList().blockingGet();
+    assertEquals(1, batches.size());
+    assertTrue(batches.get(0).isEmpty());
+  }
+
+  @Test
+  public void getAll_serverError_signalsHttpException() {
+    server.enqueue(new MockResponse().setResponseCode(HttpURLConnection.HTTP_INTERNAL_ERROR));
+    service.getAll(TOKEN).test().awaitDone(5, TimeUnit.SECONDS).assertError(HttpException.class);
+  }
+
+  @Test
+  public void getAll_emitsBeforeBodyComplete() throws Exception {
+    int count = 10 * DicewareService.STREAM_BATCH_SIZE;
+    String body = json(count);
+    // Roughly one tenth of the body per 100 ms, so the download takes about a second.
+    server.enqueue(new MockResponse()
+        .setBody(body)
+        .throttleBody(body.length() / 10, 100, TimeUnit.MILLISECONDS));
+    long start = System.nanoTime();
+    TestObserver<List<Passphrase>> observer = service.getAll(TOKEN)
+        .subscribeOn(Schedulers.io())
+        .test();
+    while (observer.valueCount() == 0 && !observer.isTerminated()) {
+      Thread.sleep(5);
+    }
+    long firstBatch = System.nanoTime() - start;
+    observer.awaitDone(10, TimeUnit.SECONDS).assertComplete();
+    long complete = System.nanoTime() - start;
+    assertEquals(10, observer.valueCount());
+    assertTrue(firstBatch < complete / 2);
+  }
+
+  private static String json(int count) {
+    StringBuilder builder = new StringBuilder("[");
+    for (int i = 1; i <= count; i++) {
+      if (i > 1) {
+        builder.append(',');
+      }
+      builder.append("{\"id\":").append(i)
+          .append(",\"key\":\"key").append(i)
+          .append("\",\"words\":[\"abacus\",\"abdomen\",\"abdominal\",\"abide\",\"abiding\"]}");
+    }
+    return builder.append(']').toString();
+  }
+
+}
@@ -0,0 +1,97 @@
+package edu.cnm.deepdive.diceware.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.reactivex.Single;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.SingleSubject;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okio.ByteString;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for expiry-aware reuse and refresh of ID tokens by {@link TokenManager}.
+ */
+public class TokenManagerTest {
+
+  private static final long LIFETIME_SECONDS = TimeUnit.HOURS.toSeconds(1);
+
+  private TestScheduler clock;
+  private AtomicInteger refreshes;
+  private SingleSubject<String> refreshed;
+  private TokenManager tokens;
+
+  @Before
+  public void setUp() {
+    clock = new TestScheduler();
+    refreshes = new AtomicInteger();
+    refreshed = SingleSubject.create();
+    tokens = new TokenManager("Bearer %s",
+        Single.defer(() -> {
+          refreshes.incrementAndGet();
+          return refreshed;
+        }),
+        clock);
+  }
+
+  @Test
+  public void parseExpiration_readsExpClaim() {
+    assertEquals(1_500_000_000_000L, TokenManager.parseExpiration(jwt(1_500_000_000L)));
+    assertEquals(0, TokenManager.parseExpiration("not.a-jwt"));
+    assertEquals(0, TokenManager.parseExpiration("a.b.c"));
+  }
+
+  @Test
+  public void getAuthorizationHeader_validToken_reusedWithoutRefresh() {
+    String token = jwt(LIFETIME_SECONDS);
+    tokens.setIdToken(token);
+    assertTrue(tokens.hasValidToken());
+    assertEquals("Bearer " + token, tokens.getAuthorizationHeader().blockingGet());
+    assertEquals("Bearer " + token, tokens.getAuthorizationHeader().blockingGet());
+    assertEquals(0, refreshes.get());
+  }
+
+  @Test
+  public void getAuthorizationHeader_nearExpiry_refreshesInBackground() {
+    String token = jwt(LIFETIME_SECONDS);
+    tokens.setIdToken(token);
+    clock.advanceTimeTo(LIFETIME_SECONDS * 1000 - TokenManager.REFRESH_MARGIN_MILLIS,
+        TimeUnit.MILLISECONDS);
+    assertEquals("Bearer " + token, tokens.getAuthorizationHeader().blockingGet());
+    assertEquals("Bearer " + token, tokens.getAuthorizationHeader().blockingGet());
+    assertEquals(1, refreshes.get());
+    String next = jwt(2 * LIFETIME_SECONDS);
+    refreshed.onSuccess(next);
+    assertEquals("Bearer " + next, tokens.getAuthorizationHeader().blockingGet());
+  }
+
+  @Test
+  public void getAuthorizationHeader_expired_waitsForSingleRefresh() {
+    tokens.setIdToken(jwt(LIFETIME_SECONDS));
+    clock.advanceTimeTo(LIFETIME_SECONDS, TimeUnit.SECONDS);
+    assertFalse(tokens.hasValidToken());
+    Single<String> first = tokens.getAuthorizationHeader();
+    Single<String> second = tokens.getAuthorizationHeader();
+    first.test().assertNotComplete();
+    second.test().assertNotComplete();
+    String next = jwt(2 * LIFETIME_SECONDS);
+    refreshed.onSuccess(next);
+    assertEquals("Bearer " + next, first.blockingGet());
+    assertEquals("Bearer " + next, second.blockingGet());
+    assertEquals(1, refreshes.get());
+  }
+
+  private static String jwt(long expiration) {
+    return encode("{\"alg\":\"RS256\"}") + "."
+        + encode("{\"sub\":\"1234\",\"exp\":" + expiration + "}") + ".signature";
+  }
+
+  private static String encode(String json) {
+    return ByteString.encodeUtf8(json).base64Url().replace("=", "");
+  }
+
+}
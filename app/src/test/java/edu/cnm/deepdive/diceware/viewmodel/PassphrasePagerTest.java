@@ -0,0 +1,96 @@
+package edu.cnm.deepdive.diceware.viewmodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import edu.cnm.deepdive.diceware.model.Passphrase;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for merging of pages and mutation results in {@link PassphrasePager}.
+ */
+public class PassphrasePagerTest {
+
+  private static final int PAGE_SIZE = 3;
+
+  private PassphrasePager pager;
+
+  @Before
+  public void setUp() {
+    pager = new PassphrasePager(PAGE_SIZE);
+  }
+
+  @Test
+  public void merge_serverPageReplacesCachedRange() {
+    pager.merge(0, page(1, 2, 3), false);
+    List<Passphrase> merged = pager.merge(0, page(2, 3, 5), true);
+    assertEquals(ids(2, 3, 5), ids(merged));
+    assertEquals(5, pager.getCursor());
+    assertTrue(pager.canLoadMore());
+  }
+
+  @Test
+  public void merge_shortAuthoritativePageCompletes() {
+    pager.merge(0, page(1, 2, 3), true);
+    pager.merge(3, page(4, 7), false);
+    List<Passphrase> merged = pager.merge(3, page(4), true);
+    assertEquals(ids(1, 2, 3, 4), ids(merged));
+    assertFalse(pager.canLoadMore());
+  }
+
+  @Test
+  public void update_insertsOnlyWithinLoadedRange() {
+    pager.merge(0, page(1, 2, 3), true);
+    assertEquals(ids(1, 3), ids(pager.update(passphrase(2), null)));
+    assertEquals(ids(1, 3), ids(pager.update(null, passphrase(9))));
+    pager.merge(3, page(), true);
+    assertEquals(ids(1, 3, 9), ids(pager.update(null, passphrase(9))));
+  }
+
+  @Test
+  public void update_sequenceAppliedInOrder() {
+    pager.merge(0, page(1, 2, 3), true);
+    pager.merge(3, page(4), true);
+    List<Passphrase> updated = pager.update(
+        Arrays.asList(passphrase(2), passphrase(3), passphrase(3), null),
+        Arrays.asList(null, passphrase(3), null, passphrase(5)));
+    assertEquals(ids(1, 4, 5), ids(updated));
+  }
+
+  private static Passphrase passphrase(long id) {
+    Passphrase passphrase = new Passphrase();
+    passphrase.setId(id);
+    passphrase.setKey("key" + id);
+    return passphrase;
+  }
+
+  private static List<Passphrase> page(long... ids) {
+    List<Passphrase> page = new ArrayList<>();
+    for (long id : ids) {
+      page.add(passphrase(id));
+    }
+    return page;
+  }
+
+  private static List<Long> ids(long... ids) {
+    List<Long> list = new ArrayList<>();
+    for (long id : ids) {
+      list.add(id);
+    }
+    return list;
+  }
+
+  private static List<Long> ids(List<Passphrase> passphrases) {
+    List<Long> list = new ArrayList<>();
+    for (Passphrase passphrase : passphrases) {
+      list.add(passphrase.getId());
+    }
+    return list;
+  }
+
+}
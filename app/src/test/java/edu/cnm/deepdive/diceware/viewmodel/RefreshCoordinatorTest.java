@@ -0,0 +1,49 @@
+package edu.cnm.deepdive.diceware.viewmodel;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for single-flight, latest-wins refresh coordination in {@link RefreshCoordinator}.
+ */
+public class RefreshCoordinatorTest {
+
+  private RefreshCoordinator refresh;
+
+  @Before
+  public void setUp() {
+    refresh = new RefreshCoordinator();
+  }
+
+  @Test
+  public void beginRefresh_inFlight_shared() {
+    assertTrue(refresh.beginRefresh());
+    assertFalse(refresh.beginRefresh());
+    assertFalse(refresh.beginRefresh());
+    refresh.endRefresh();
+    assertTrue(refresh.beginRefresh());
+  }
+
+  @Test
+  public void invalidate_inFlight_superseded() {
+    assertTrue(refresh.beginRefresh());
+    long version = refresh.getVersion();
+    assertTrue(refresh.invalidate());
+    assertFalse(refresh.isCurrent(version));
+    assertTrue(refresh.beginRefresh());
+    assertFalse(refresh.beginRefresh());
+  }
+
+  @Test
+  public void invalidate_idle_staleResponsesOnly() {
+    long version = refresh.getVersion();
+    assertFalse(refresh.invalidate());
+    assertFalse(refresh.isCurrent(version));
+    assertTrue(refresh.isCurrent(refresh.getVersion()));
+    assertFalse(refresh.isRefreshing());
+  }
+
+}